@@ -0,0 +1,21 @@
+#!/usr/bin/env bash
+GREEN='\033[0;32m'
+NC='\033[0m' # No Color
+
+# Ensure classes exist
+targetDir="$(pwd)/target"
+classpath="${targetDir}/classes:${targetDir}/test-classes"
+
+if [ ! -d ${targetDir}/test-classes ]; then
+    echo "${targetDir}/test-classes is missing. Run \'mvn test-compile\'."
+    exit -1;
+fi
+
+benchmarkPackage="me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark"
+benchmarks=(ExpressionParsingBenchmark LexingBenchmark TraversalBenchmark CommentBenchmark ParserReuseBenchmark ParallelParseBenchmark AstCacheBenchmark StreamingParseBenchmark SkimBenchmark IncrementalParseBenchmark Utf8LexingBenchmark OutlineBenchmark SymbolTableBenchmark SubtypeBenchmark MethodTableBenchmark ArgumentCheckBenchmark)
+
+for benchmark in "${benchmarks[@]}"
+do
+    echo -e "${GREEN}${benchmark}${NC}"
+    java -cp ${classpath} ${benchmarkPackage}.${benchmark}
+done
@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+NC='\033[0m' # No Color
+
+# Ensure classes exist
+targetDir="$(pwd)/target"
+classpath="${targetDir}/classes:${targetDir}/test-classes"
+
+if [ ! -d ${targetDir}/test-classes ]; then
+    echo "${targetDir}/test-classes is missing. Run \'mvn test-compile\'."
+    exit -1;
+fi
+
+checkPackage="me.aslanoglou.dit.compilers.semanticalanalyzer.check"
+checks=(LexerCheck Utf8Check ParallelParseCheck IncrementalParseCheck AstCacheCheck)
+
+failed=0
+for check in "${checks[@]}"
+do
+    echo -e "${GREEN}${check}${NC}"
+    if ! java -cp ${classpath} ${checkPackage}.${check}; then
+        echo -e "${RED}${check} failed${NC}"
+        failed=1
+    fi
+done
+exit ${failed}
@@ -0,0 +1,145 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the FlatTrees of sources in a directory, so that a source that has been checked before is read back
+ * instead of being lexed and parsed again. Each tree is in a file named after the SHA-256 of its source,
+ * and the file is memory-mapped when it's read.
+ *
+ * A file starts with a magic number, the version of the format and the CRC-32 of the rest, then holds the
+ * tree as FlatTree.write puts it. A file of another version, whose CRC doesn't match, or that can't be read
+ * (FlatTree.read checks the links and the indexes of the tree too), is a miss. The cache is only a shortcut: if
+ * a tree can't be stored, it isn't, and the source is parsed the next time too.
+ *
+ * The files can be read by everyone, so that a directory shared by several users is a cache for all of them.
+ */
+public final class AstCache {
+    private static final int MAGIC = 0x4d4a4154; // "MJAT"
+    private static final int VERSION = 3;
+    private static final int HEADER = 12;
+    private static final String SUFFIX = ".ast";
+
+    private final Path directory;
+
+    public AstCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /** @return The key of the first length chars, the hex SHA-256 of their UTF-16 code units */
+    public static String key(char[] chars, int length) {
+        ByteBuffer bytes = ByteBuffer.allocate(2 * length);
+        bytes.asCharBuffer().put(chars, 0, length);
+        return key(bytes);
+    }
+
+    /**
+     * @return The key of the bytes of a source from its position up to its limit, the hex SHA-256 of the bytes.
+     *         A non-empty source read as bytes doesn't have the key it has read as chars, so its tree with byte
+     *         offsets is kept apart from the one with char offsets.
+     */
+    public static String key(ByteBuffer bytes) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        digest.update(bytes.duplicate());
+        StringBuilder key = new StringBuilder(64);
+        for (byte b : digest.digest())
+            key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        return key.toString();
+    }
+
+    /** @return The tree stored under key, or null if there's none that can be read */
+    public FlatTree load(String key) {
+        try (FileChannel channel = FileChannel.open(file(key), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != crc(buffer))
+                return null;
+            return FlatTree.read(buffer);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException ex) {
+            return null;
+        }
+    }
+
+    /** Stores tree under key, replacing what was stored under it. */
+    public void store(String key, FlatTree tree) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + tree.encodedSize());
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(0);
+        tree.write(buffer);
+        buffer.flip();
+        buffer.position(HEADER);
+        buffer.putInt(HEADER - 4, crc(buffer));
+        buffer.rewind();
+        Path temporary = null;
+        try {
+            Files.createDirectories(directory);
+            // Written aside and moved in place, so that no one reads a file that's half written
+            temporary = Files.createTempFile(directory, key, ".tmp");
+            // A temporary file is only for its owner
+            if (temporary.getFileSystem().supportedFileAttributeViews().contains("posix"))
+                Files.setPosixFilePermissions(temporary, PosixFilePermissions.fromString("rw-r--r--"));
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+            Files.move(temporary, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            // not stored
+            try {
+                if (temporary != null)
+                    Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // The CRC-32 of the bytes of buffer from its position up to its limit
+    private static int crc(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    static void putInts(ByteBuffer buffer, int[] ints, int length) {
+        buffer.asIntBuffer().put(ints, 0, length);
+        buffer.position(buffer.position() + 4 * length);
+    }
+
+    static int[] getInts(ByteBuffer buffer, int length) {
+        int[] ints = new int[length];
+        buffer.asIntBuffer().get(ints);
+        buffer.position(buffer.position() + 4 * length);
+        return ints;
+    }
+
+    static void putString(ByteBuffer buffer, String string) {
+        buffer.putInt(string.length());
+        for (int i = 0; i < string.length(); i++)
+            buffer.putChar(string.charAt(i));
+    }
+
+    static String getString(ByteBuffer buffer) {
+        char[] chars = new char[buffer.getInt()];
+        buffer.asCharBuffer().get(chars);
+        buffer.position(buffer.position() + 2 * chars.length);
+        return new String(chars);
+    }
+}
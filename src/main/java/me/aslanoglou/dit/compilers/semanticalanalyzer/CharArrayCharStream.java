@@ -0,0 +1,188 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A JavaCharStream over a char[] that holds the whole input, so MiniJavaParserTokenManager reads straight from
+ * it: there is no Reader, no nextCharBuf to buffer copy, and no per-character bufline/bufcolumn arrays.
+ *
+ * Line and column are worked out by a LineMap of the chars, only when they're asked for. A start line and
+ * column other than 1, 1 and adjustBeginLineColumn move the positions in the map from the character they're
+ * given for on.
+ *
+ * Unicode escapes are not processed; use open(String) or forChars(char[], int) which fall back to a plain
+ * JavaCharStream for inputs that contain one.
+ */
+public class CharArrayCharStream extends JavaCharStream {
+    private char[] chars;
+    private int length;
+    // Index of the last character read and of the first character of the current token
+    private int pos;
+    private int begin;
+
+    public CharArrayCharStream(char[] chars, int length) {
+        ReInit(chars, length);
+    }
+
+    /**
+     * Reads the given file through a memory map and decodes it once into a char[], with the platform's
+     * default charset as the InputStreamReader of JavaCharStream would.
+     * @return A CharArrayCharStream over the file, or a JavaCharStream if it contains unicode escapes
+     */
+    public static JavaCharStream open(String fileName) throws IOException {
+        CharBuffer source = read(fileName);
+        return forChars(source.array(), source.limit());
+    }
+
+    /**
+     * Reads the given file through a memory map and decodes it once, with the platform's default charset.
+     * @return The decoded characters, in the array of the buffer up to its limit
+     */
+    public static CharBuffer read(String fileName) throws IOException {
+        return Charset.defaultCharset().decode(map(fileName));
+    }
+
+    /**
+     * Maps the given file into memory, without reading or decoding it: its bytes are read from the page cache
+     * as they're asked for, and they stay valid after the file is closed.
+     */
+    public static MappedByteBuffer map(String fileName) throws IOException {
+        try (FileInputStream in = new FileInputStream(fileName); FileChannel channel = in.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * @return A CharArrayCharStream over the first length chars, or a JavaCharStream if they contain
+     *         unicode escapes
+     */
+    public static JavaCharStream forChars(char[] chars, int length) {
+        if (hasUnicodeEscape(chars, length))
+            return new JavaCharStream(new java.io.CharArrayReader(chars, 0, length));
+        return new CharArrayCharStream(chars, length);
+    }
+
+    static boolean hasUnicodeEscape(char[] chars, int length) {
+        for (int i = 0; i < length - 1; i++) {
+            if (chars[i] == '\\' && chars[i + 1] == 'u')
+                return true;
+        }
+        return false;
+    }
+
+    /** Reinitialise. */
+    public void ReInit(char[] chars, int length) {
+        this.chars = chars;
+        this.length = length;
+        pos = begin = -1;
+        lines = new LineMap(chars, length, tabSize);
+    }
+
+    @Override
+    public char BeginToken() throws IOException {
+        if (pos + 1 >= length) {
+            begin = pos;
+            throw new IOException();
+        }
+        begin = ++pos;
+        return chars[pos];
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        if (pos + 1 >= length)
+            throw new IOException();
+        return chars[++pos];
+    }
+
+    @Override
+    public void backup(int amount) {
+        pos -= amount;
+    }
+
+    @Override
+    public String GetImage() {
+        return new String(chars, begin, pos - begin + 1);
+    }
+
+    @Override
+    public char[] GetSuffix(int len) {
+        return Arrays.copyOfRange(chars, pos - len + 1, pos + 1);
+    }
+
+    @Override
+    public int getBeginOffset() {
+        return begin;
+    }
+
+    @Override
+    public int getEndOffset() {
+        return pos;
+    }
+
+    @Override
+    public int getBeginLine() {
+        return lines.line(begin);
+    }
+
+    @Override
+    public int getBeginColumn() {
+        return lines.column(begin);
+    }
+
+    @Override
+    public int getEndLine() {
+        return lines.line(pos);
+    }
+
+    @Override
+    public int getEndColumn() {
+        return lines.column(pos);
+    }
+
+    @Override
+    @Deprecated
+    public int getLine() {
+        return getEndLine();
+    }
+
+    @Override
+    @Deprecated
+    public int getColumn() {
+        return getEndColumn();
+    }
+
+    @Override
+    public void adjustBeginLineColumn(int newLine, int newCol) {
+        lines.adjust(begin, newLine, newCol);
+    }
+
+    @Override
+    public void ReInit(java.io.Reader dstream, int startline, int startcolumn, int buffersize) {
+        char[] read = new char[Math.max(buffersize, 4096)];
+        int n = 0;
+        try {
+            for (int r; (r = dstream.read(read, n, read.length - n)) != -1; ) {
+                n += r;
+                if (n == read.length)
+                    read = Arrays.copyOf(read, n * 2);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        ReInit(read, n);
+        if (startline != 1 || startcolumn != 1)
+            lines.adjust(0, startline, startcolumn);
+    }
+
+    @Override
+    public void Done() {
+        chars = null;
+    }
+}
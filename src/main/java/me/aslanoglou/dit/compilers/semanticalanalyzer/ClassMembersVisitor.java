@@ -2,325 +2,189 @@ package me.aslanoglou.dit.compilers.semanticalanalyzer;
 
 import me.aslanoglou.dit.compilers.semanticalanalyzer.containers.ClassContainer;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.containers.FunctionContainer;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.ClassHierarchy;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SemanticType;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolMap;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.TypeTable;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.*;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.visitor.GJDepthFirst;
 
 import java.util.*;
 
 public class ClassMembersVisitor extends GJDepthFirst<String, String> {
-    Set<String> verifiedClassNames;
-    Map<String, List<String>> superClassRelation;
-    Map<String, ClassContainer> classInfo;
-
-    public ClassMembersVisitor(Set<String> verifiedClassNames, Map<String,
-            List<String>> superClassRelation) {
-        this.verifiedClassNames = verifiedClassNames;
-        classInfo = new HashMap<>();
-        this.superClassRelation = superClassRelation;
-    }
-
-    // Accept all Classes and start collecting fields and methods
+    BitSet verifiedClasses;
+    ClassHierarchy hierarchy;
+    SymbolMap<ClassContainer> classInfo;
+    TypeTable types;
+    SymbolPool symbols;
+
+    public ClassMembersVisitor(BitSet verifiedClasses, ClassHierarchy hierarchy, TypeTable types,
+                               SymbolPool symbols) {
+        this.verifiedClasses = verifiedClasses;
+        classInfo = new SymbolMap<>();
+        this.hierarchy = hierarchy;
+        this.types = types;
+        this.symbols = symbols;
+    }
+
+    // Accept all Classes and collect their fields and methods, as collect does from the outline of each
     public String visit(ClassDeclaration n, String argu) {
-        // get Class name
-        String className = n.f1.accept(this, argu);
-        ClassContainer classContainer = new ClassContainer(className);
-        // Collect fields
-        if (n.f3.present()) {
-            populateFields(n.f3, classContainer);
-        }
-        // Collect methods info
-        if (n.f4.present()) {
-            populateMethods(n.f4, classContainer);
-        }
-        // Add to classInfo
-        classInfo.put(className, classContainer);
-        return className;
+        ClassOutline outline = new ClassOutline();
+        outline.addClass(n.f1, null, n.f3, n.f4);
+        collectClass(outline, 0);
+        return n.f1.f0.tokenImage;
     }
 
     public String visit(ClassExtendsDeclaration n, String argu) {
-        // get Class name
-        String className = n.f1.accept(this, argu);
-        ClassContainer classContainer = new ClassContainer(className);
-        // Collect fields
-        if (n.f5.present()) {
-            populateFields(n.f5, classContainer);
-        }
-        // Collect methods info
-        if (n.f6.present()) {
-            populateMethods(n.f6, classContainer);
-        }
-        // Add to classInfo
-        classInfo.put(className, classContainer);
-        return className;
+        ClassOutline outline = new ClassOutline();
+        outline.addClass(n.f1, n.f3, n.f5, n.f6);
+        collectClass(outline, 0);
+        return n.f1.f0.tokenImage;
     }
 
     public String visit(MainClass n, String argu) {
-        // get Class name
-        String className = n.f1.accept(this, argu);
-        ClassContainer classContainer = new ClassContainer(className);
-        // Populate method info
-        FunctionContainer function = new FunctionContainer("main", "void", className, 0);
-        // Ignore String[] array argument
-        // Add local vars
-        if (n.f14.present()) {
-            Enumeration<Node> varsEnum = n.f14.elements();
-            StringBuilder varsB = new StringBuilder();
-            while(varsEnum.hasMoreElements()) {
-                VarDeclaration varDecl = (VarDeclaration) varsEnum.nextElement();
-                varsB.append(varDecl.f0.accept(this, argu) + " " + varDecl.f1.accept(this, argu) + ", ");
-            }
-            varsB.delete(varsB.length() - 2, varsB.length() - 1);
-            String[] vars = varsB.toString().split(",");
-            for (int i = 0; i < vars.length; i++) {
-                String[] variableEntry = vars[i].split(" ");
-                function.addVar(variableEntry[1].trim(), variableEntry[0].trim());
-            }
-        }
-        classContainer.getFunctions().put("main", function);
-        // Add to classInfo
-        classInfo.put(className, classContainer);
-        return className;
+        ClassOutline outline = new ClassOutline();
+        outline.addMainClass(n.f1, n.f14);
+        collectClass(outline, 0);
+        return n.f1.f0.tokenImage;
     }
 
 
-    /**
-     * Responsible for checking the validity of the types of a variable or a method
-     * @param type The String that needs to be checked
-     * @return True if the type is valid, else false
-     */
-    public boolean isValidType(String type) {
-        return (verifiedClassNames.contains(type) || type.equals("int") || type.equals("boolean") || type.equals("int[]"));
-    }
-
-    /**
-     * Function responsible for populating the fields field of a ClassContainer Object
-     * Also, checks that a field has to be unique, if not it throws an exception
-     * @param fieldsListOptional a NodeListOptional field containing the fields of the function
-     * @param classContainer a ClassContainer that its fields field will be populated
-     */
-    public void populateFields(NodeListOptional fieldsListOptional, ClassContainer classContainer) {
-        Enumeration<Node> fields = fieldsListOptional.elements();
-        while(fields.hasMoreElements()) {
-            Node node = fields.nextElement();
-            // Type - checking
-            String type = node.accept(this, "type");
-            if (!isValidType(type))
-                throw new RuntimeException("Cannot resolve symbol '"+ type + "'");
-            String name = node.accept(this, "name");
-            if (classContainer.getFields().containsKey(name))
-                throw new RuntimeException("Variable '" + name + "' is already defined in the scope");
-            classContainer.addField(name, type);
-        }
+    // Builds the method table of a class whose members are collected, and adds it to classInfo
+    private void addClass(ClassContainer classContainer) {
+        int superSymbol = hierarchy.superclass(classContainer.getSymbol());
+        classContainer.buildMethodTable(superSymbol != SymbolPool.NONE ? classInfo.get(superSymbol) : null);
+        classInfo.put(classContainer.getSymbol(), classContainer);
     }
 
 
     /**
-     * Function responsible for checking if a function that will Override another one from its superClass, has
-     * the same signature as the one it overrides
-     * On error, RuntimeException is thrown
-     */
-    public boolean isOverriddenProperly(String className, FunctionContainer function, StringBuilder error) {
-        // check if class has superClasses
-        if (superClassRelation.containsKey(className)) {
-            // Get superClasses List
-            ArrayList<String> superClasses = (ArrayList<String>) superClassRelation.get(className);
-            // Iterate through all the superClasses to check for correct Overriding
-            for (int i = 0; i < superClasses.size(); i++) {
-                ClassContainer superClass = classInfo.get(superClasses.get(i));
-                // Check if superClass has this function defined
-                if (superClass.getFunctions().containsKey(function.getName())) {
-                    // Checking if the signatures of the two methods are identical
-                    if (!superClass.getFunctions().get(function.getName()).isIdentical(function)) {
-                       error.append("'" + className + "." + function.getName() + "' clashes with '"
-                               + superClass.getName() + "." + function.getName() + "'");
-                       return false;
-                    }
-                }
-            }
-        }
-        return true;
-    }
-
-
-    /**
-     * Function responsible for populating the Methods field of a ClassContainer object
-     * Also, checks for methods' uniqueness
-     * @param methodsListOptional The methods field in the AST
-     * @param classContainer The ClassContainer object that its methods field is populated
+     * Collects the fields and methods of every class from the outline the parser collected, instead of
+     * visiting the tree. The checks and their errors are the same, in the same order.
+     * @param outline The outline of the source
      */
-    public void populateMethods(NodeListOptional methodsListOptional, ClassContainer classContainer) {
-        Enumeration<Node> methods = methodsListOptional.elements();
-        while(methods.hasMoreElements()) {
-            Node node = methods.nextElement();
-            // verify that returnType is correct
-            String returnType = node.accept(this, "type");
-            if (!isValidType(returnType))
-                throw new RuntimeException("Cannot resolve symbol '" + returnType + "'");
-            String identifier = node.accept(this, "id");
-            // check if there is already a function defined with the same name
-            if (classContainer.getFunctions().containsKey(identifier)) {
-                // prepare error message
-                String error = "'" + identifier + "(...)' is already defined in '" + classContainer.getName() + "'";
-                throw new RuntimeException(error);
-            }
-            FunctionContainer function = new FunctionContainer(identifier, returnType, classContainer.getName(), classContainer.getFunctions().size() + 1);
-            // Get formalParameters
-            String params = node.accept(this, "params");
-            if (!params.equals("")) {
-                // De-serialize params string
-                String[] othParams = params.split(",");
-                for (int i = 0; i < othParams.length; i++) {
-                    othParams[i] = othParams[i].trim();
-                    String[] paramDeclaration = othParams[i].split(" ");
-                    function.addParam(paramDeclaration[1], paramDeclaration[0]);
-                }
-            }
-            // Check Override correctness
-            StringBuilder error = new StringBuilder();
-            if (!isOverriddenProperly(classContainer.getName(), function, error)) {
-                throw new RuntimeException(error.toString());
-            }
+    public void collect(ClassOutline outline) {
+        int e = 0;
+        while (e < outline.size())
+            e = collectClass(outline, e);
+    }
+
+    // Adds the class of entry e of outline to classInfo, with its fields and methods, and returns the entry
+    // after its members
+    private int collectClass(ClassOutline outline, int e) {
+        String className = symbols.name(outline.symbol(e));
+        ClassContainer classContainer =
+                new ClassContainer(outline.symbol(e), className, types.classType(outline.symbol(e)));
+        if (outline.kind(e++) == ClassOutline.MAIN_CLASS) {
+            // Populate method info, "main" is a keyword so it's interned here
+            FunctionContainer function = new FunctionContainer(symbols.intern("main"), "main", SemanticType.VOID, className, 0);
+            // Ignore String[] array argument
             // Add local vars
-            String vars = node.accept(this, "vars");
-            if (!vars.equals("")) {
-                // De-serialize vars string
-                String[] othVars = vars.split(",");
-                for (int i = 0; i < othVars.length; i++) {
-                    othVars[i] = othVars[i].trim();
-                    String[] varDeclaration = othVars[i].split(" ");
-                    // remove trailing comma
-                    varDeclaration[1] = varDeclaration[1].substring(0, (varDeclaration[1]).length());
-                    function.addVar(varDeclaration[1], varDeclaration[0]);
-                }
-            }
-            classContainer.getFunctions().put(function.getName(), function);
+            for (; e < outline.size() && outline.kind(e) == ClassOutline.VARIABLE; e++)
+                function.addVar(outline.symbol(e), symbols.name(outline.symbol(e)), typeOf(outline, e));
+            classContainer.getFunctions().put(function.getSymbol(), function);
         }
-    }
-
-    public String visit(VarDeclaration n, String argu) {
-        if (argu.equals("name"))
-            return n.f1.accept(this, argu);
-        else if (argu.equals("type"))
-            return n.f0.accept(this, argu);
-        else
-            return argu;
-    }
-
-    //************************************//
-    //******** Method Declaration ********//
-    public String visit(MethodDeclaration n, String argu) {
-        if (argu.equals("type"))
-            return n.f1.accept(this, argu);
-        else if (argu.equals("id"))
-            return n.f2.accept(this, argu);
-        else if (argu.equals("params")){
-            // Check if params exist
-            if (n.f4.present()){
-                // Params String will be in this form (delimiter ',')
-                // [ paramType paramName ]*
-                StringBuilder params = new StringBuilder();
-                String firstParam = n.f4.accept(this, "first");
-                params.append(n.f4.accept(this, "oth"));
-                return firstParam + params.toString();
+        else {
+            // Collect fields, a field has to be unique
+            for (; e < outline.size() && outline.kind(e) == ClassOutline.FIELD; e++) {
+                SemanticType type = typeOf(outline, e);
+                if (!isValidType(type))
+                    throw new RuntimeException("Cannot resolve symbol '"+ type + "'");
+                String name = symbols.name(outline.symbol(e));
+                if (classContainer.getFields().containsKey(outline.symbol(e)))
+                    throw new RuntimeException("Variable '" + name + "' is already defined in the scope");
+                classContainer.addField(outline.symbol(e), name, type);
             }
-            else
-                return "";
+            // Collect methods info
+            while (e < outline.size() && outline.kind(e) == ClassOutline.METHOD)
+                e = collectMethod(outline, e, classContainer);
         }
-        else if (argu.equals("vars")) {
-            // Check if vars exist
-            if (n.f7.present()){
-                // Vars String will be in this form (delimiter ',')
-                // [varType varName ]*
-                Enumeration<Node> fields = n.f7.elements();
-                StringBuilder vars = new StringBuilder();
-                while(fields.hasMoreElements()) {
-                    Node node = fields.nextElement();
-                    // Type - checking
-                    String type = node.accept(this, "type");
-                    if (!isValidType(type))
-                        throw new RuntimeException("Cannot resolve symbol '"+ type + "'");
-                    String name = node.accept(this, "name");
-                    vars.append(type + " " + name + ",");
-                }
-                return vars.toString();
-            }
-            else
-                return "";
+        // Add to classInfo, with its method table
+        addClass(classContainer);
+        return e;
+    }
+
+    // Adds the method of entry e of outline to classContainer, checking that it's unique and that it overrides
+    // properly, and returns the entry after its local vars
+    private int collectMethod(ClassOutline outline, int e, ClassContainer classContainer) {
+        SemanticType returnType = typeOf(outline, e);
+        if (!isValidType(returnType))
+            throw new RuntimeException("Cannot resolve symbol '" + returnType + "'");
+        int symbol = outline.symbol(e++);
+        String identifier = symbols.name(symbol);
+        if (classContainer.getFunctions().containsKey(symbol)) {
+            String error = "'" + identifier + "(...)' is already defined in '" + classContainer.getName() + "'";
+            throw new RuntimeException(error);
         }
-        else
-            return "WUT?!";
-    }
-
-    public String visit(FormalParameterList n, String argu) {
-        if (argu.equals("first"))
-            return n.f0.accept(this, null);
-        else if (argu.equals("oth")){
-            return n.f1.accept(this, null);
+        FunctionContainer function = new FunctionContainer(symbol, identifier, returnType, classContainer.getName(), classContainer.getFunctions().size() + 1);
+        // The types of all of the params are checked before any is added
+        int params = e;
+        for (; e < outline.size() && outline.kind(e) == ClassOutline.PARAMETER; e++) {
+            if (!isValidType(typeOf(outline, e)))
+                throw new RuntimeException("Cannot resolve symbol '" + typeOf(outline, e) + "'");
         }
-        else
-            return argu;
-    }
-
-    public String visit(FormalParameter n, String argu) {
-        String type = n.f0.accept(this, argu);
-        if (!isValidType(type))
-            throw new RuntimeException("Cannot resolve symbol '" + type + "'");
-        String name = n.f1.accept(this, argu);
-        return type + " " + name;
-    }
-
-    public String visit(FormalParameterTail n, String argu) {
-        // check if there are more params
-        if (n.f0.present()) {
-            Enumeration<Node> otherParams = n.f0.elements();
-            StringBuilder otherParamsStr = new StringBuilder();
-            while(otherParams.hasMoreElements()){
-                Node tmp = otherParams.nextElement();
-                otherParamsStr.append(", ").append(tmp.accept(this, argu));
-            }
-            return otherParamsStr.toString();
+        for (int p = params; p < e; p++)
+            function.addParam(outline.symbol(p), symbols.name(outline.symbol(p)), typeOf(outline, p));
+        StringBuilder error = new StringBuilder();
+        if (!isOverriddenProperly(classContainer, function, error)) {
+            throw new RuntimeException(error.toString());
+        }
+        // Again for the local vars
+        int vars = e;
+        for (; e < outline.size() && outline.kind(e) == ClassOutline.VARIABLE; e++) {
+            if (!isValidType(typeOf(outline, e)))
+                throw new RuntimeException("Cannot resolve symbol '"+ typeOf(outline, e) + "'");
+        }
+        for (int v = vars; v < e; v++)
+            function.addVar(outline.symbol(v), symbols.name(outline.symbol(v)), typeOf(outline, v));
+        classContainer.getFunctions().put(function.getSymbol(), function);
+        return e;
+    }
+
+    private SemanticType typeOf(ClassOutline outline, int e) {
+        switch (outline.type(e)) {
+            case ClassOutline.INT:
+                return SemanticType.INT;
+            case ClassOutline.BOOLEAN:
+                return SemanticType.BOOLEAN;
+            case ClassOutline.INT_ARRAY:
+                return SemanticType.INT_ARRAY;
+            default:
+                return types.classType(outline.type(e));
         }
-        else
-            return "";
-    }
-
-
-    public String visit(FormalParameterTerm n, String argu) {
-        return n.f1.accept(this, argu);
-    }
-    //************************************//
-
-    //**********************************************//
-    // Returning the correct type
-    //**********************************************//
-    @Override
-    public String visit(Type n, String argu) {
-        return n.f0.accept(this, argu);
-    }
-
-    @Override
-    public String visit(ArrayType n, String argu) {
-        return "int[]";
-    }
-
-    @Override
-    public String visit(BooleanType n, String argu) {
-        return "boolean";
     }
 
-    @Override
-    public String visit(IntegerType n, String argu) {
-        return "int";
+    /**
+     * Responsible for checking the validity of the types of a variable or a method
+     * @param type The type that needs to be checked
+     * @return True if the type is valid, else false
+     */
+    public boolean isValidType(SemanticType type) {
+        if (type == SemanticType.INT || type == SemanticType.BOOLEAN || type == SemanticType.INT_ARRAY)
+            return true;
+        return type.isClass() && verifiedClasses.get(type.getClassSymbol());
     }
 
-    @Override
-    public String visit(Identifier n, String argu) {
-        return n.f0.withSpecials();
+    /**
+     * Function responsible for checking if a function that will Override another one from its superClass, has
+     * the same signature as the one it overrides
+     * On error, RuntimeException is thrown
+     */
+    public boolean isOverriddenProperly(ClassContainer classContainer, FunctionContainer function,
+                                        StringBuilder error) {
+        int superSymbol = hierarchy.superclass(classContainer.getSymbol());
+        if (superSymbol == SymbolPool.NONE)
+            return true;
+        // The method table of the superClass has the closest definition of the function. Every one that overrides
+        // another was checked to be identical to it, so checking against the closest one checks against all
+        FunctionContainer overridden = classInfo.get(superSymbol).lookupMethod(function.getSymbol());
+        // Checking if the signatures of the two methods are identical
+        if (overridden != null && !overridden.isIdentical(function)) {
+            error.append("'" + classContainer.getName() + "." + function.getName() + "' clashes with '"
+                    + overridden.getClassName() + "." + function.getName() + "'");
+            return false;
+        }
+        return true;
     }
-    //**********************************************//
-
-
-
-
-
 }
@@ -1,59 +1,88 @@
 package me.aslanoglou.dit.compilers.semanticalanalyzer;
 
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.ClassHierarchy;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.TypeTable;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.*;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.visitor.GJDepthFirst;
 
 import java.util.*;
 
 public class ClassNameCollector extends GJDepthFirst<String, String>{
-    Set<String> verifiedClassNames;
-    Map<String, List<String>> superClassRelation;
+    // Symbols of the class names
+    BitSet verifiedClasses;
+    // The classes with their superclasses
+    ClassHierarchy hierarchy;
+    // The types of the compilation, with those of the classes made as they're collected
+    TypeTable types;
 
-    public ClassNameCollector() {
-        verifiedClassNames = new HashSet<>();
-        superClassRelation = new HashMap<>();
+    public ClassNameCollector(SymbolPool symbols) {
+        verifiedClasses = new BitSet();
+        hierarchy = new ClassHierarchy();
+        types = new TypeTable(symbols);
     }
 
     //**********************************************//
     // Collecting all ClassNames
     //**********************************************//
+    /**
+     * Collects the class names from the outline the parser collected, instead of visiting the tree.
+     * The checks and their errors are the same, in the same order.
+     * @param outline The outline of the source
+     * @param symbols The pool that its names are interned in
+     */
+    public void collect(ClassOutline outline, SymbolPool symbols) {
+        for (int e = 0; e < outline.size(); e++) {
+            int kind = outline.kind(e);
+            if (kind != ClassOutline.MAIN_CLASS && kind != ClassOutline.CLASS)
+                continue;
+            String className = symbols.name(outline.symbol(e));
+            // Check reDeclaration
+            if (verifiedClasses.get(outline.symbol(e)))
+                throw new RuntimeException("Re-declaration of Class " + className);
+            verifiedClasses.set(outline.symbol(e));
+            types.classType(outline.symbol(e));
+            int superClass = outline.type(e);
+            if (superClass != SymbolPool.NONE) {
+                // Check that the superclass is already defined and it's not the mainClass
+                String superClassName = symbols.name(superClass);
+                if (!verifiedClasses.get(superClass))
+                    throw new RuntimeException("Superclass: " + superClassName + " isn't already defined");
+            }
+            // Add superclass relation
+            hierarchy.add(outline.symbol(e), superClass);
+        }
+    }
+
     @Override
     public String visit(ClassDeclaration n, String argu) {
         String className;
         className = n.f1.accept(this, argu);
         // Check reDeclaration
-        if (verifiedClassNames.contains(className))
+        if (verifiedClasses.get(n.f1.f0.symbol))
             throw new RuntimeException("Re-declaration of Class " + className);
-        verifiedClassNames.add(className);
+        verifiedClasses.set(n.f1.f0.symbol);
+        types.classType(n.f1.f0.symbol);
+        hierarchy.add(n.f1.f0.symbol, SymbolPool.NONE);
         return className;
     }
 
-
-    public ArrayList<String> populateSuperClassSet(String superClass) {
-        ArrayList<String> tmp = new ArrayList<>();
-        tmp.add(superClass);
-        if (superClassRelation.containsKey(superClass)) {
-            // Add more superclasses
-            tmp.addAll(superClassRelation.get(superClass));
-        }
-        return tmp;
-    }
-
     @Override
     public String visit(ClassExtendsDeclaration n, String argu) {
         String ret = "";
         String className = n.f1.accept(this, argu);
         // Check reDeclaration
-        if (verifiedClassNames.contains(className))
+        if (verifiedClasses.get(n.f1.f0.symbol))
             throw new RuntimeException("Re-declaration of Class " + className);
         else
-            verifiedClassNames.add(className);
+            verifiedClasses.set(n.f1.f0.symbol);
+        types.classType(n.f1.f0.symbol);
         // Check that the superclass is already defined and it's not the mainClass
         String superClassName = n.f3.accept(this, argu);
-        if (!verifiedClassNames.contains(superClassName))
+        if (!verifiedClasses.get(n.f3.f0.symbol))
             throw new RuntimeException("Superclass: " + superClassName + " isn't already defined");
         // Add superclass relation
-        superClassRelation.put(className, populateSuperClassSet(superClassName));
+        hierarchy.add(n.f1.f0.symbol, n.f3.f0.symbol);
         return ret;
     }
 
@@ -62,9 +91,11 @@ public class ClassNameCollector extends GJDepthFirst<String, String>{
         String className;
         className = n.f1.accept(this, argu);
         // Check reDeclaration
-        if (verifiedClassNames.contains(className))
+        if (verifiedClasses.get(n.f1.f0.symbol))
             throw new RuntimeException("Re-declaration of Class " + className);
-        verifiedClassNames.add(className);
+        verifiedClasses.set(n.f1.f0.symbol);
+        types.classType(n.f1.f0.symbol);
+        hierarchy.add(n.f1.f0.symbol, SymbolPool.NONE);
         return className;
     }
     //**********************************************//
@@ -94,7 +125,7 @@ public class ClassNameCollector extends GJDepthFirst<String, String>{
 
     @Override
     public String visit(Identifier n, String argu) {
-        return n.f0.withSpecials();
+        return n.f0.tokenImage;
     }
     //**********************************************//
 
@@ -0,0 +1,173 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The outline of a source: its classes with their superclass, their fields and their methods, and the
+ * methods with their return type, formal parameters and local variables. That's all the first two phases of
+ * the check look at, and the parser collects it as it goes (see MiniJavaParser.setCollectOutline), so that
+ * ClassNameCollector and ClassMembersVisitor don't walk the tree.
+ *
+ * The outline is a list of entries in source order, each with a kind (one of the constants below), a type,
+ * the symbol of its name and the offset of the token of its name in the source. A MAIN_CLASS entry is
+ * followed by the VARIABLE entries of the main method, a CLASS entry by its FIELD and METHOD entries, and a
+ * METHOD entry by its PARAMETER and then its VARIABLE entries. The type of a CLASS entry is the symbol of its
+ * superclass, or SymbolPool.NONE if it doesn't extend one; for the others it's INT, BOOLEAN, INT_ARRAY or the
+ * symbol of a class. The types of the main class and of the main method are NONE.
+ */
+public final class ClassOutline {
+    public static final int MAIN_CLASS = 0;
+    public static final int CLASS = 1;
+    public static final int FIELD = 2;
+    public static final int METHOD = 3;
+    public static final int PARAMETER = 4;
+    public static final int VARIABLE = 5;
+
+    // Types that aren't classes
+    public static final int INT = -2;
+    public static final int BOOLEAN = -3;
+    public static final int INT_ARRAY = -4;
+
+    private int[] kinds;
+    private int[] types;
+    private int[] symbols;
+    private int[] offsets;
+    private int size;
+
+    public ClassOutline() {
+        this(16);
+    }
+
+    private ClassOutline(int capacity) {
+        kinds = new int[capacity];
+        types = new int[capacity];
+        symbols = new int[capacity];
+        offsets = new int[capacity];
+    }
+
+    /** @return The number of entries */
+    public int size() {
+        return size;
+    }
+
+    /** @return The kind of entry e, one of the constants of this class */
+    public int kind(int e) {
+        return kinds[e];
+    }
+
+    /** @return The type of entry e */
+    public int type(int e) {
+        return types[e];
+    }
+
+    /** @return The symbol of the name of entry e */
+    public int symbol(int e) {
+        return symbols[e];
+    }
+
+    /** @return The offset in the source of the token of the name of entry e */
+    public int offset(int e) {
+        return offsets[e];
+    }
+
+    // Adds a main class with the local variables of its main method
+    void addMainClass(Identifier name, NodeListOptional variables) {
+        add(MAIN_CLASS, SymbolPool.NONE, name);
+        addVariables(VARIABLE, variables);
+    }
+
+    // Adds a class with its fields and methods, superclass is null if it doesn't extend one
+    void addClass(Identifier name, Identifier superclass, NodeListOptional fields, NodeListOptional methods) {
+        add(CLASS, superclass != null ? superclass.f0.symbol : SymbolPool.NONE, name);
+        addVariables(FIELD, fields);
+        for (Node node : methods.nodes) {
+            MethodDeclaration method = (MethodDeclaration) node;
+            add(METHOD, type(method.f1), method.f2);
+            if (method.f4.present()) {
+                FormalParameterList params = (FormalParameterList) method.f4.node;
+                add(PARAMETER, type(params.f0.f0), params.f0.f1);
+                for (Node term : params.f1.f0.nodes) {
+                    FormalParameter param = ((FormalParameterTerm) term).f1;
+                    add(PARAMETER, type(param.f0), param.f1);
+                }
+            }
+            addVariables(VARIABLE, method.f7);
+        }
+    }
+
+    /** Adds the entries of outline after those of this one. */
+    void append(ClassOutline outline) {
+        ensureCapacity(size + outline.size);
+        System.arraycopy(outline.kinds, 0, kinds, size, outline.size);
+        System.arraycopy(outline.types, 0, types, size, outline.size);
+        System.arraycopy(outline.symbols, 0, symbols, size, outline.size);
+        System.arraycopy(outline.offsets, 0, offsets, size, outline.size);
+        size += outline.size;
+    }
+
+    private void addVariables(int kind, NodeListOptional variables) {
+        for (Node node : variables.nodes) {
+            VarDeclaration variable = (VarDeclaration) node;
+            add(kind, type(variable.f0), variable.f1);
+        }
+    }
+
+    private void add(int kind, int type, Identifier name) {
+        ensureCapacity(size + 1);
+        kinds[size] = kind;
+        types[size] = type;
+        symbols[size] = name.f0.symbol;
+        offsets[size] = name.f0.offset;
+        size++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > kinds.length) {
+            int length = Math.max(capacity, kinds.length * 2);
+            kinds = Arrays.copyOf(kinds, length);
+            types = Arrays.copyOf(types, length);
+            symbols = Arrays.copyOf(symbols, length);
+            offsets = Arrays.copyOf(offsets, length);
+        }
+    }
+
+    private static int type(Type type) {
+        Node choice = type.f0.choice;
+        if (choice instanceof IntegerType)
+            return INT;
+        if (choice instanceof BooleanType)
+            return BOOLEAN;
+        if (choice instanceof ArrayType)
+            return INT_ARRAY;
+        return ((Identifier) choice).f0.symbol;
+    }
+
+    /** @return The number of bytes that write puts */
+    int encodedSize() {
+        return 4 + 4 * 4 * size;
+    }
+
+    /** Puts the entries into buffer. */
+    void write(ByteBuffer buffer) {
+        buffer.putInt(size);
+        AstCache.putInts(buffer, kinds, size);
+        AstCache.putInts(buffer, types, size);
+        AstCache.putInts(buffer, symbols, size);
+        AstCache.putInts(buffer, offsets, size);
+    }
+
+    /** @return The outline that write put into buffer */
+    static ClassOutline read(ByteBuffer buffer) {
+        ClassOutline outline = new ClassOutline(0);
+        outline.size = buffer.getInt();
+        outline.kinds = AstCache.getInts(buffer, outline.size);
+        outline.types = AstCache.getInts(buffer, outline.size);
+        outline.symbols = AstCache.getInts(buffer, outline.size);
+        outline.offsets = AstCache.getInts(buffer, outline.size);
+        return outline;
+    }
+}
@@ -1,8 +1,14 @@
 package me.aslanoglou.dit.compilers.semanticalanalyzer;
 
-import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.*;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Goal;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 
 /**
  * Semantical Analyzer of MiniJava language
@@ -12,63 +18,151 @@ import java.io.*;
  * The analysis consists of three phases (a.k.a. 3 Visitors)
  *
  * Some info on the Visitors:
- *      1.  The 1st one is collecting classNames and the superClassRelations
+ *      1.  The 1st one is collecting classNames and the class hierarchy
  *      2.  The 2nd one collects info about each class (its fields and methods).
  *              There are some Containers here, that represent a Class, a Function (method) and a Variable. These
  *              were used for the implementation and representation of the equivalent structures of the given program.
  *      3.  The 3rd and final one does type-checking, supported by a symbolTable
  *              The symbol table contains all information gathered by the two previous visitors, and the actual symbol
  *              table which is a VariableName to VariableContainer mapping.
+ *              Names are not compared as Strings: the parser interns every identifier into a SymbolPool, and the
+ *              containers and the symbol table are keyed by the resulting int symbols.
  *              Since all variables are to be defined at the start of a method, this simplifies things, and generally
  *              two Scopes can be defined (there could be only one, but two was more modular).
  *              The two Scopes, are: [a] Class Scope (all its fields) and [b] Function Scope (all its formal
  *              parameters and its local vars).
  *
+ *  The first two phases don't walk the tree: they start from the ClassOutline the parser collected as it parsed
+ *  the classes, so only the type checking does. It walks the parser's object tree, which is faster to walk than
+ *  a FlatTree (see TraversalBenchmark). A tree read from the AstCache is a FlatTree, which keeps the outline, and
+ *  FlatTree.accept turns one top-level declaration of it at a time back into objects.
+ *
+ *  All files are parsed by the same parser, re-initialised for each one (see ParserPool). With
+ *  -Dminijava.astCache=<directory>, the FlatTree of every file that parses is kept in that directory, and a file
+ *  that's unchanged since is read from there instead of being parsed again (see AstCache).
+ *
+ *  A file is memory-mapped, copied into a byte[] and lexed straight from its bytes as UTF-8, without being
+ *  decoded into chars first, as long as the default charset reads it the same (see PackedLexer.lex(byte[], int,
+ *  boolean)). The bytes are half the size of the chars.
+ *
+ *  A file of minijava.streamingBytes (64 MiB by default) or more isn't read whole: it's parsed as it's read, with
+ *  the tokens and characters the parser is done with let go of (see MiniJavaParser.setStreaming). Such a file is
+ *  neither parsed in parallel nor cached.
+ *
+ *  The parser recovers from syntax errors, so every syntax error of a file is reported. The declarations that
+ *  parsed are then checked as usual, and their errors follow the syntax errors. A tree with syntax errors isn't
+ *  cached.
+ *
  *  For error reporting, a RuntimeException is thrown.
  */
 class Driver {
+    private static final long STREAMING_BYTES = 64L << 20;
+
     public static void main (String [] args){
         if(args.length == 0){
             System.err.println("Usage: java Driver [<inputFile>]+");
             System.exit(1);
         }
+        // The trees of the files are kept here, if it's set, and the files that are unchanged aren't parsed again
+        String cacheDirectory = System.getProperty("minijava.astCache");
+        AstCache cache = cacheDirectory != null ? new AstCache(Paths.get(cacheDirectory)) : null;
+        long streamingBytes = Long.getLong("minijava.streamingBytes", STREAMING_BYTES);
         for (int i = 0; i < args.length; i++) {
             System.out.println("================================================");
             System.out.println("Checking file '" + args[i] + "'");
-            FileInputStream fis = null;
+            MiniJavaParser parser = null;
             try {
-                fis = new FileInputStream(args[i]);
-                MiniJavaParser parser = new MiniJavaParser(fis);
+                // The tree is the parser's, or the one read from the cache
+                Goal goal = null;
+                FlatTree tree = null;
+                if (new File(args[i]).length() >= streamingBytes) {
+                    try (Reader reader = new InputStreamReader(new FileInputStream(args[i]), Charset.defaultCharset())) {
+                        parser = new MiniJavaParser(reader);
+                        parser.token_source.setKeepComments(false);
+                        parser.setStreaming(true);
+                        goal = parse(parser);
+                    }
+                }
+                else {
+                    byte[] bytes = PackedLexer.array(CharArrayCharStream.map(args[i]));
+                    CharBuffer chars = readsAsUtf8(bytes) ? null
+                            : Charset.defaultCharset().decode(ByteBuffer.wrap(bytes));
+                    String key = cache == null ? null : chars == null
+                            ? AstCache.key(ByteBuffer.wrap(bytes)) : AstCache.key(chars.array(), chars.limit());
+                    tree = cache != null ? cache.load(key) : null;
+                    if (tree == null) {
+                        // No check looks at comments, they're dropped as they're lexed
+                        parser = chars == null ? ParserPool.parser(bytes, bytes.length, false)
+                                : ParserPool.parser(chars.array(), chars.limit(), false);
+                        // A file with many classes has them parsed in parallel
+                        parser.setParallelParse(true);
+                        goal = parse(parser);
+                        if (cache != null && parser.getSyntaxErrors().isEmpty())
+                            cache.store(key, FlatTree.build(goal, parser));
+                    }
+                }
+                SymbolPool symbols = tree != null ? tree.symbols() : parser.getSymbols();
+                ClassOutline outline = tree != null ? tree.outline() : parser.getOutline();
                 // Pass 1 - ClassNames collection ------------------------------------------------------------------
-                ClassNameCollector classNameCollector = new ClassNameCollector();
-                Goal tree = parser.Goal();
-                tree.accept(classNameCollector, null);
+                ClassNameCollector classNameCollector = new ClassNameCollector(symbols);
+                classNameCollector.collect(outline, symbols);
                 System.out.println("[1/3] Class name collection phase completed");
                 // Pass 2 - ClassMembers collection ----------------------------------------------------------------
                 ClassMembersVisitor classMembersVisitor =
-                        new ClassMembersVisitor(classNameCollector.verifiedClassNames,
-                                classNameCollector.superClassRelation);
-                tree.accept(classMembersVisitor, "Phase2");
+                        new ClassMembersVisitor(classNameCollector.verifiedClasses,
+                                classNameCollector.hierarchy, classNameCollector.types, symbols);
+                classMembersVisitor.collect(outline);
                 System.out.println("[2/3] Class members and methods info collection phase completed");
                 // Pass 3 - Type checking  -------------------------------------------------------------------------
                 TypeCheckingVisitor typeCheckingVisitor =
-                        new TypeCheckingVisitor(classMembersVisitor.verifiedClassNames,
-                                classMembersVisitor.superClassRelation, classMembersVisitor.classInfo);
-                tree.accept(typeCheckingVisitor, "Phase3");
+                        new TypeCheckingVisitor(classMembersVisitor.verifiedClasses,
+                                classMembersVisitor.hierarchy, classMembersVisitor.classInfo,
+                                classMembersVisitor.types, classMembersVisitor.symbols);
+                if (tree != null)
+                    tree.accept(typeCheckingVisitor, "Phase3");
+                else
+                    goal.accept(typeCheckingVisitor, "Phase3");
                 System.out.println("[3/3] Type checking phase completed");
-                System.out.println("[\u2713] All checks passed");
+                if (parser == null || parser.getSyntaxErrors().isEmpty())
+                    System.out.println("[\u2713] All checks passed");
+                else
+                    System.out.println("[\u2717] " + parser.getSyntaxErrors().size() + " syntax error(s)");
             } catch (ParseException ex) {
-                System.out.println(ex.getMessage());
-            } catch (FileNotFoundException ex) {
+                for (ParseException error : parser.getSyntaxErrors())
+                    System.out.println(error.getMessage());
+            } catch (IOException ex) {
                 System.err.println(ex.getMessage());
-            } finally {
-                try {
-                    if (fis != null) fis.close();
-                } catch (IOException ex) {
-                    System.err.println(ex.getMessage());
-                }
             }
             System.out.println("================================================");
         }
     }
+
+    // Whether the default charset reads bytes as UTF-8 does: it's UTF-8, or the bytes are ASCII and it's a
+    // charset that reads ASCII as it is
+    private static boolean readsAsUtf8(byte[] bytes) {
+        Charset charset = Charset.defaultCharset();
+        if (charset.equals(StandardCharsets.UTF_8))
+            return true;
+        if (!charset.equals(StandardCharsets.US_ASCII) && !charset.equals(StandardCharsets.ISO_8859_1))
+            return false;
+        for (byte b : bytes) {
+            if (b < 0)
+                return false;
+        }
+        return true;
+    }
+
+    // The tree of the source of parser, printing its syntax errors first; without a main class there's none
+    private static Goal parse(MiniJavaParser parser) throws ParseException {
+        // No check needs the positions of keywords and punctuation
+        parser.setCompactTree(true);
+        // The first two phases start from the outline, rather than from the tree
+        parser.setCollectOutline(true);
+        // Every syntax error is reported in one run, and the tree of the declarations that parsed is checked
+        parser.setErrorRecovery(true);
+        Goal goal = parser.Goal();
+        for (ParseException error : parser.getSyntaxErrors())
+            System.out.println(error.getMessage());
+        return goal;
+    }
 }
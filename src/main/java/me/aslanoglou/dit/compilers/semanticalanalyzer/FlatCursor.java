@@ -0,0 +1,120 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Node;
+
+import java.util.Arrays;
+
+/**
+ * A position in a FlatTree, which moves through the tree without creating objects. It keeps the path from
+ * the root, so that it can move back up.
+ *
+ * The move methods return false, and leave the cursor where it was, when there's no node to move to. The
+ * token methods are for a cursor at a FlatTree.NODE_TOKEN.
+ */
+public final class FlatCursor {
+    private final FlatTree tree;
+    // The nodes from the root down to the current one
+    private int[] path = new int[32];
+    private int depth;
+    // path[depth]
+    private int node;
+
+    FlatCursor(FlatTree tree) {
+        this.tree = tree;
+        path[0] = 0;
+    }
+
+    /** @return The current node */
+    public int index() {
+        return node;
+    }
+
+    /** @return The depth of the current node, 0 at the root */
+    public int depth() {
+        return depth;
+    }
+
+    /** @return The kind of the current node, one of the constants of FlatTree */
+    public int kind() {
+        return tree.kind(node);
+    }
+
+    public boolean moveToFirstChild() {
+        int child = tree.firstChild(node);
+        if (child < 0)
+            return false;
+        if (depth + 1 == path.length)
+            path = Arrays.copyOf(path, path.length * 2);
+        path[++depth] = child;
+        node = child;
+        return true;
+    }
+
+    public boolean moveToNextSibling() {
+        if (depth == 0)
+            return false;
+        int sibling = tree.nextSibling(node);
+        if (sibling < 0)
+            return false;
+        path[depth] = sibling;
+        node = sibling;
+        return true;
+    }
+
+    public boolean moveToParent() {
+        if (depth == 0)
+            return false;
+        node = path[--depth];
+        return true;
+    }
+
+    /** Moves to the i-th child (the first one has index 0) */
+    public boolean moveToChild(int i) {
+        int child = tree.firstChild(node);
+        for (; child >= 0 && i > 0; i--)
+            child = tree.nextSibling(child);
+        if (child < 0)
+            return false;
+        if (depth + 1 == path.length)
+            path = Arrays.copyOf(path, path.length * 2);
+        path[++depth] = child;
+        node = child;
+        return true;
+    }
+
+    /** @return Which choice the current node, a FlatTree.NODE_CHOICE, is */
+    public int which() {
+        return tree.which(node);
+    }
+
+    /** @return The index of the token of the current node in the source */
+    public int token() {
+        return tree.token(node);
+    }
+
+    public int tokenKind() {
+        return tree.tokenKind(tree.token(node));
+    }
+
+    /** @return The symbol of the token if it's an identifier, else SymbolPool.NONE */
+    public int symbol() {
+        return tree.tokenSymbol(tree.token(node));
+    }
+
+    public String image() {
+        return tree.tokenImage(tree.token(node));
+    }
+
+    public int beginLine() {
+        return tree.beginLine(tree.token(node));
+    }
+
+    public int beginColumn() {
+        return tree.beginColumn(tree.token(node));
+    }
+
+    /** @return The current node and its subtree as syntaxtree objects */
+    public Node toNode() {
+        return tree.node(node);
+    }
+}
@@ -0,0 +1,778 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.*;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.visitor.DepthFirstVisitor;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.visitor.GJVisitor;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A syntax tree stored as a few parallel int arrays instead of a graph of node objects.
+ *
+ * Nodes are numbered in pre-order, the root (a Goal) is node 0. For every node there's its kind (one of the
+ * constants below, a syntaxtree class each), its first child and its next sibling (-1 if there's none) and a
+ * value: the token of a NODE_TOKEN, or the choice of a NODE_CHOICE. The children of a production are its
+ * fields f0, f1, ... in order. Tokens are numbered in source order, which is the order the parser read them
+ * in, and have their kind, image, symbol and position in arrays of their own.
+ *
+ * FlatCursor walks the tree without creating objects. Code written against the syntaxtree classes runs
+ * through accept(GJVisitor, A), which turns the tree back into objects one top-level declaration at a time.
+ *
+ * The tree keeps the ClassOutline its parser collected, if it collected one.
+ *
+ * Being a few arrays, the tree is also written to and read from a ByteBuffer as they are, see AstCache.
+ */
+public final class FlatTree {
+    public static final int NODE_TOKEN = 0;
+    public static final int NODE_LIST = 1;
+    public static final int NODE_LIST_OPTIONAL = 2;
+    public static final int NODE_OPTIONAL = 3;
+    public static final int NODE_SEQUENCE = 4;
+    public static final int NODE_CHOICE = 5;
+    public static final int GOAL = 6;
+    public static final int MAIN_CLASS = 7;
+    public static final int TYPE_DECLARATION = 8;
+    public static final int CLASS_DECLARATION = 9;
+    public static final int CLASS_EXTENDS_DECLARATION = 10;
+    public static final int VAR_DECLARATION = 11;
+    public static final int METHOD_DECLARATION = 12;
+    public static final int FORMAL_PARAMETER_LIST = 13;
+    public static final int FORMAL_PARAMETER = 14;
+    public static final int FORMAL_PARAMETER_TAIL = 15;
+    public static final int FORMAL_PARAMETER_TERM = 16;
+    public static final int TYPE = 17;
+    public static final int ARRAY_TYPE = 18;
+    public static final int BOOLEAN_TYPE = 19;
+    public static final int INTEGER_TYPE = 20;
+    public static final int STATEMENT = 21;
+    public static final int BLOCK = 22;
+    public static final int ASSIGNMENT_STATEMENT = 23;
+    public static final int ARRAY_ASSIGNMENT_STATEMENT = 24;
+    public static final int IF_STATEMENT = 25;
+    public static final int WHILE_STATEMENT = 26;
+    public static final int PRINT_STATEMENT = 27;
+    public static final int EXPRESSION = 28;
+    public static final int AND_EXPRESSION = 29;
+    public static final int COMPARE_EXPRESSION = 30;
+    public static final int PLUS_EXPRESSION = 31;
+    public static final int MINUS_EXPRESSION = 32;
+    public static final int TIMES_EXPRESSION = 33;
+    public static final int ARRAY_LOOKUP = 34;
+    public static final int ARRAY_LENGTH = 35;
+    public static final int MESSAGE_SEND = 36;
+    public static final int EXPRESSION_LIST = 37;
+    public static final int EXPRESSION_TAIL = 38;
+    public static final int EXPRESSION_TERM = 39;
+    public static final int CLAUSE = 40;
+    public static final int PRIMARY_EXPRESSION = 41;
+    public static final int INTEGER_LITERAL = 42;
+    public static final int TRUE_LITERAL = 43;
+    public static final int FALSE_LITERAL = 44;
+    public static final int IDENTIFIER = 45;
+    public static final int THIS_EXPRESSION = 46;
+    public static final int ARRAY_ALLOCATION_EXPRESSION = 47;
+    public static final int ALLOCATION_EXPRESSION = 48;
+    public static final int NOT_EXPRESSION = 49;
+    public static final int BRACKET_EXPRESSION = 50;
+
+    // Nodes
+    private int[] kinds;
+    private int[] firstChildren;
+    private int[] nextSiblings;
+    private int[] values;
+    private int size;
+
+    // Tokens
+    private int[] tokenKinds;
+    private int[] tokenSymbols;
+    private String[] tokenImages;
+    // Positions in the source, a length of 0 if there's none (a shared token of a compact tree)
+    private int[] tokenOffsets;
+    private int[] tokenLengths;
+    private int tokenCount;
+    private LineMap lines;
+    private SymbolPool symbols;
+    private ClassOutline outline;
+
+    private FlatTree(int capacity) {
+        kinds = new int[capacity];
+        firstChildren = new int[capacity];
+        nextSiblings = new int[capacity];
+        values = new int[capacity];
+        int tokenCapacity = Math.max(16, capacity / 4);
+        tokenKinds = new int[tokenCapacity];
+        tokenSymbols = new int[tokenCapacity];
+        tokenImages = new String[tokenCapacity];
+        tokenOffsets = new int[tokenCapacity];
+        tokenLengths = new int[tokenCapacity];
+    }
+
+    /**
+     * Encodes the tree that parser built. The tokens are taken from the parser, so that a compact tree (see
+     * MiniJavaParser.setCompactTree) gets the positions of its fixed tokens too.
+     * @param goal The tree, as returned by parser.Goal()
+     * @param parser The parser that built it, not re-initialised since. If null, streaming (see
+     *               MiniJavaParser.setStreaming) or if the tree has syntax errors (see
+     *               MiniJavaParser.setErrorRecovery), the NodeTokens of the tree are used instead.
+     */
+    public static FlatTree build(Goal goal, MiniJavaParser parser) {
+        boolean parserTokens = parser != null && !parser.isStreaming() && parser.getSyntaxErrors().isEmpty();
+        Builder builder = new Builder(parserTokens ? parser : null);
+        goal.accept(builder);
+        builder.tree.symbols = parser != null ? parser.getSymbols() : null;
+        builder.tree.outline = parser != null ? parser.getOutline() : null;
+        return builder.tree;
+    }
+
+    /** @return The number of nodes */
+    public int size() {
+        return size;
+    }
+
+    /** @return The kind of node n, one of the constants of this class */
+    public int kind(int n) {
+        return kinds[n];
+    }
+
+    /** @return The first child of node n, or -1 if it has none */
+    public int firstChild(int n) {
+        return firstChildren[n];
+    }
+
+    /** @return The next sibling of node n, or -1 if it's the last child of its parent */
+    public int nextSibling(int n) {
+        return nextSiblings[n];
+    }
+
+    /** @return The token of node n, which is a NODE_TOKEN */
+    public int token(int n) {
+        return values[n];
+    }
+
+    /** @return Which choice node n, a NODE_CHOICE, is */
+    public int which(int n) {
+        return values[n];
+    }
+
+    /** @return The number of tokens */
+    public int tokenCount() {
+        return tokenCount;
+    }
+
+    public int tokenKind(int t) {
+        return tokenKinds[t];
+    }
+
+    /** @return The symbol of token t if it's an identifier, else SymbolPool.NONE */
+    public int tokenSymbol(int t) {
+        return tokenSymbols[t];
+    }
+
+    public String tokenImage(int t) {
+        return tokenImages[t];
+    }
+
+    /** @return The offset of token t in the source */
+    public int tokenOffset(int t) {
+        return tokenOffsets[t];
+    }
+
+    /** @return The number of characters of token t, 0 if it has no position */
+    public int tokenLength(int t) {
+        return tokenLengths[t];
+    }
+
+    /** @return The map that turns the offsets of the tokens into lines and columns */
+    public LineMap lineMap() {
+        return lines;
+    }
+
+    /** @return The pool that the identifiers of the tree are interned in, null if it wasn't built by a parser */
+    public SymbolPool symbols() {
+        return symbols;
+    }
+
+    /** @return The outline of the tree, null if its parser didn't collect one (see MiniJavaParser.setCollectOutline) */
+    public ClassOutline outline() {
+        return outline;
+    }
+
+    // -1 for these if token t has no position
+    public int beginLine(int t) {
+        return tokenLengths[t] == 0 ? -1 : lines.line(tokenOffsets[t]);
+    }
+
+    public int beginColumn(int t) {
+        return tokenLengths[t] == 0 ? -1 : lines.column(tokenOffsets[t]);
+    }
+
+    public int endLine(int t) {
+        return tokenLengths[t] == 0 ? -1 : lines.line(tokenOffsets[t] + tokenLengths[t] - 1);
+    }
+
+    public int endColumn(int t) {
+        return tokenLengths[t] == 0 ? -1 : lines.column(tokenOffsets[t] + tokenLengths[t] - 1);
+    }
+
+    /** @return A cursor at the root */
+    public FlatCursor cursor() {
+        return new FlatCursor(this);
+    }
+
+    /** @return Node n and its subtree as syntaxtree objects, every token with its own positioned NodeToken */
+    public Node node(int n) {
+        return node(n, false);
+    }
+
+    /**
+     * Runs visitor over the tree. This is goal.accept(visitor, argu) for visitors that visit a Goal the way
+     * GJDepthFirst does, i.e. its MainClass, its TypeDeclarations and its EOF token in order, and the result
+     * is GJDepthFirst's, null.
+     *
+     * Each of these is turned into objects just before it's visited, with the fixed tokens shared as in a
+     * compact tree, and can be collected as soon as it has been visited.
+     */
+    public <R, A> R accept(GJVisitor<R, A> visitor, A argu) {
+        int mainClass = firstChildren[0];
+        node(mainClass, true).accept(visitor, argu);
+        int typeDeclarations = nextSiblings[mainClass];
+        for (int n = firstChildren[typeDeclarations]; n >= 0; n = nextSiblings[n])
+            node(n, true).accept(visitor, argu);
+        node(nextSiblings[typeDeclarations], true).accept(visitor, argu);
+        return null;
+    }
+
+    private Node node(int n, boolean compact) {
+        switch (kinds[n]) {
+            case NODE_TOKEN:
+                return nodeToken(values[n], compact);
+            case NODE_CHOICE:
+                return new NodeChoice(node(firstChildren[n], compact), values[n]);
+            case NODE_OPTIONAL:
+                return firstChildren[n] < 0 ? new NodeOptional() : new NodeOptional(node(firstChildren[n], compact));
+            case NODE_LIST: {
+                NodeList list = new NodeList();
+                for (int child = firstChildren[n]; child >= 0; child = nextSiblings[child])
+                    list.addNode(node(child, compact));
+                return list;
+            }
+            case NODE_LIST_OPTIONAL: {
+                NodeListOptional list = new NodeListOptional();
+                for (int child = firstChildren[n]; child >= 0; child = nextSiblings[child])
+                    list.addNode(node(child, compact));
+                list.nodes.trimToSize();
+                return list;
+            }
+            case NODE_SEQUENCE: {
+                NodeSequence sequence = new NodeSequence(childCount(n));
+                for (int child = firstChildren[n]; child >= 0; child = nextSiblings[child])
+                    sequence.addNode(node(child, compact));
+                return sequence;
+            }
+            default:
+                return production(n, compact);
+        }
+    }
+
+    /** @return The number of bytes that write puts */
+    int encodedSize() {
+        long bytes = 4L * 4 + 4L * 4 * size + 4L * 4 * tokenCount;
+        for (int t = 0; t < tokenCount; t++) {
+            if (!derivedImage(t))
+                bytes += 4 + 2L * tokenImages[t].length();
+        }
+        bytes += 4;
+        for (int symbol = 0; symbols != null && symbol < symbols.size(); symbol++)
+            bytes += 4 + 2L * symbols.name(symbol).length();
+        bytes += lines != null ? lines.encodedSize() : 4;
+        bytes += outline != null ? outline.encodedSize() : 4;
+        if (bytes > Integer.MAX_VALUE)
+            throw new IllegalStateException("The tree takes more than 2GB");
+        return (int) bytes;
+    }
+
+    /**
+     * Puts the tree into buffer: its node and token arrays, the images that can't be told from the kind or
+     * the symbol of their token, the names of the symbols, the anchors of the line map and the outline.
+     */
+    void write(ByteBuffer buffer) {
+        buffer.putInt(size).putInt(tokenCount);
+        AstCache.putInts(buffer, kinds, size);
+        AstCache.putInts(buffer, firstChildren, size);
+        AstCache.putInts(buffer, nextSiblings, size);
+        AstCache.putInts(buffer, values, size);
+        AstCache.putInts(buffer, tokenKinds, tokenCount);
+        AstCache.putInts(buffer, tokenSymbols, tokenCount);
+        AstCache.putInts(buffer, tokenOffsets, tokenCount);
+        AstCache.putInts(buffer, tokenLengths, tokenCount);
+        int imageCount = 0;
+        for (int t = 0; t < tokenCount; t++) {
+            if (!derivedImage(t))
+                imageCount++;
+        }
+        buffer.putInt(imageCount);
+        for (int t = 0; t < tokenCount; t++) {
+            if (!derivedImage(t))
+                AstCache.putString(buffer, tokenImages[t]);
+        }
+        buffer.putInt(symbols != null ? symbols.size() : -1);
+        for (int symbol = 0; symbols != null && symbol < symbols.size(); symbol++)
+            AstCache.putString(buffer, symbols.name(symbol));
+        if (lines != null)
+            lines.write(buffer);
+        else
+            buffer.putInt(0);
+        if (outline != null)
+            outline.write(buffer);
+        else
+            buffer.putInt(-1);
+    }
+
+    /**
+     * @return The tree that write put into buffer
+     * @throws IllegalArgumentException If the nodes aren't linked into a tree, or a token, a node token or an
+     *         outline entry is of a kind, symbol or image that isn't there
+     */
+    static FlatTree read(ByteBuffer buffer) {
+        FlatTree tree = new FlatTree(0);
+        tree.size = buffer.getInt();
+        tree.tokenCount = buffer.getInt();
+        tree.kinds = AstCache.getInts(buffer, tree.size);
+        tree.firstChildren = AstCache.getInts(buffer, tree.size);
+        tree.nextSiblings = AstCache.getInts(buffer, tree.size);
+        tree.values = AstCache.getInts(buffer, tree.size);
+        tree.tokenKinds = AstCache.getInts(buffer, tree.tokenCount);
+        tree.tokenSymbols = AstCache.getInts(buffer, tree.tokenCount);
+        tree.tokenOffsets = AstCache.getInts(buffer, tree.tokenCount);
+        tree.tokenLengths = AstCache.getInts(buffer, tree.tokenCount);
+        String[] images = new String[buffer.getInt()];
+        for (int i = 0; i < images.length; i++)
+            images[i] = AstCache.getString(buffer).intern();
+        int symbolCount = buffer.getInt();
+        if (symbolCount >= 0) {
+            // Interned in the order of their symbols, they get the same symbols again
+            tree.symbols = new SymbolPool();
+            for (int symbol = 0; symbol < symbolCount; symbol++)
+                tree.symbols.intern(AstCache.getString(buffer));
+        }
+        tree.lines = LineMap.read(buffer);
+        if (buffer.getInt(buffer.position()) >= 0)
+            tree.outline = ClassOutline.read(buffer);
+        else
+            buffer.getInt();
+        tree.checkLinks();
+        int symbols = tree.symbols != null ? tree.symbols.size() : Integer.MAX_VALUE;
+        int derived = 0;
+        for (int t = 0; t < tree.tokenCount; t++) {
+            if (tree.tokenKinds[t] < 0 || tree.tokenKinds[t] >= MiniJavaParserConstants.tokenImage.length
+                    || tree.tokenSymbols[t] < SymbolPool.NONE || tree.tokenSymbols[t] >= symbols)
+                throw new IllegalArgumentException("Token " + t + " is of no kind or symbol");
+            if (tree.derivedImage(t))
+                derived++;
+        }
+        for (int e = 0; tree.outline != null && e < tree.outline.size(); e++) {
+            if (tree.outline.kind(e) < ClassOutline.MAIN_CLASS || tree.outline.kind(e) > ClassOutline.VARIABLE
+                    || tree.outline.symbol(e) < 0 || tree.outline.symbol(e) >= symbols
+                    || tree.outline.type(e) < ClassOutline.INT_ARRAY || tree.outline.type(e) >= symbols)
+                throw new IllegalArgumentException("Outline entry " + e + " is of no kind, symbol or type");
+        }
+        if (images.length != tree.tokenCount - derived)
+            throw new IllegalArgumentException(images.length + " token images instead of "
+                    + (tree.tokenCount - derived));
+        tree.tokenImages = new String[tree.tokenCount];
+        for (int t = 0, i = 0; t < tree.tokenCount; t++) {
+            if (tree.tokenSymbols[t] >= 0 && tree.symbols != null)
+                tree.tokenImages[t] = tree.symbols.name(tree.tokenSymbols[t]);
+            else if (MiniJavaParser.isFixed(tree.tokenKinds[t]))
+                tree.tokenImages[t] = MiniJavaParser.fixedNodeToken(tree.tokenKinds[t]).tokenImage;
+            else
+                tree.tokenImages[t] = images[i++];
+        }
+        return tree;
+    }
+
+    // Throws an IllegalArgumentException unless the nodes are of the kinds of this class and in pre-order from a
+    // Goal, every node linked to the next as its first child and to a later one as its next sibling, and the
+    // node tokens are tokens of the tree, so that walking the tree ends
+    private void checkLinks() {
+        if (size == 0 || kinds[0] != GOAL || nextSiblings[0] >= 0)
+            throw new IllegalArgumentException("The tree isn't rooted at a Goal");
+        for (int n = 0; n < size; n++) {
+            if (kinds[n] < NODE_TOKEN || kinds[n] > BRACKET_EXPRESSION
+                    || firstChildren[n] >= 0 && (firstChildren[n] != n + 1 || firstChildren[n] >= size)
+                    || firstChildren[n] < -1
+                    || nextSiblings[n] >= 0 && (nextSiblings[n] <= n || nextSiblings[n] >= size)
+                    || nextSiblings[n] < -1
+                    || kinds[n] == NODE_TOKEN && (values[n] < 0 || values[n] >= tokenCount))
+                throw new IllegalArgumentException("Node " + n + " isn't linked into the tree");
+        }
+    }
+
+    // Whether the image of token t is the name of its symbol, or the one image of its kind
+    private boolean derivedImage(int t) {
+        return (tokenSymbols[t] >= 0 && symbols != null) || MiniJavaParser.isFixed(tokenKinds[t]);
+    }
+
+    private NodeToken nodeToken(int t, boolean compact) {
+        if (compact && MiniJavaParser.isFixed(tokenKinds[t]))
+            return MiniJavaParser.fixedNodeToken(tokenKinds[t]);
+        NodeToken token = tokenLengths[t] == 0 ? new NodeToken(tokenImages[t], tokenKinds[t], -1, 0, null)
+                : new NodeToken(tokenImages[t], tokenKinds[t], tokenOffsets[t], tokenLengths[t], lines);
+        token.symbol = tokenSymbols[t];
+        return token;
+    }
+
+    private int childCount(int n) {
+        int count = 0;
+        for (int child = firstChildren[n]; child >= 0; child = nextSiblings[child])
+            count++;
+        return count;
+    }
+
+    private Node production(int n, boolean compact) {
+        Node[] c = new Node[childCount(n)];
+        for (int i = 0, child = firstChildren[n]; child >= 0; i++, child = nextSiblings[child])
+            c[i] = node(child, compact);
+        switch (kinds[n]) {
+            case GOAL: return new Goal((MainClass) c[0], (NodeListOptional) c[1], (NodeToken) c[2]);
+            case MAIN_CLASS: return new MainClass((NodeToken) c[0], (Identifier) c[1], (NodeToken) c[2],
+                    (NodeToken) c[3], (NodeToken) c[4], (NodeToken) c[5], (NodeToken) c[6], (NodeToken) c[7],
+                    (NodeToken) c[8], (NodeToken) c[9], (NodeToken) c[10], (Identifier) c[11], (NodeToken) c[12],
+                    (NodeToken) c[13], (NodeListOptional) c[14], (NodeListOptional) c[15], (NodeToken) c[16],
+                    (NodeToken) c[17]);
+            case TYPE_DECLARATION: return new TypeDeclaration((NodeChoice) c[0]);
+            case CLASS_DECLARATION: return new ClassDeclaration((NodeToken) c[0], (Identifier) c[1],
+                    (NodeToken) c[2], (NodeListOptional) c[3], (NodeListOptional) c[4], (NodeToken) c[5]);
+            case CLASS_EXTENDS_DECLARATION: return new ClassExtendsDeclaration((NodeToken) c[0], (Identifier) c[1],
+                    (NodeToken) c[2], (Identifier) c[3], (NodeToken) c[4], (NodeListOptional) c[5],
+                    (NodeListOptional) c[6], (NodeToken) c[7]);
+            case VAR_DECLARATION: return new VarDeclaration((Type) c[0], (Identifier) c[1], (NodeToken) c[2]);
+            case METHOD_DECLARATION: return new MethodDeclaration((NodeToken) c[0], (Type) c[1], (Identifier) c[2],
+                    (NodeToken) c[3], (NodeOptional) c[4], (NodeToken) c[5], (NodeToken) c[6],
+                    (NodeListOptional) c[7], (NodeListOptional) c[8], (NodeToken) c[9], (Expression) c[10],
+                    (NodeToken) c[11], (NodeToken) c[12]);
+            case FORMAL_PARAMETER_LIST: return new FormalParameterList((FormalParameter) c[0],
+                    (FormalParameterTail) c[1]);
+            case FORMAL_PARAMETER: return new FormalParameter((Type) c[0], (Identifier) c[1]);
+            case FORMAL_PARAMETER_TAIL: return new FormalParameterTail((NodeListOptional) c[0]);
+            case FORMAL_PARAMETER_TERM: return new FormalParameterTerm((NodeToken) c[0], (FormalParameter) c[1]);
+            case TYPE: return new Type((NodeChoice) c[0]);
+            case ARRAY_TYPE: return new ArrayType((NodeToken) c[0], (NodeToken) c[1], (NodeToken) c[2]);
+            case BOOLEAN_TYPE: return new BooleanType((NodeToken) c[0]);
+            case INTEGER_TYPE: return new IntegerType((NodeToken) c[0]);
+            case STATEMENT: return new Statement((NodeChoice) c[0]);
+            case BLOCK: return new Block((NodeToken) c[0], (NodeListOptional) c[1], (NodeToken) c[2]);
+            case ASSIGNMENT_STATEMENT: return new AssignmentStatement((Identifier) c[0], (NodeToken) c[1],
+                    (Expression) c[2], (NodeToken) c[3]);
+            case ARRAY_ASSIGNMENT_STATEMENT: return new ArrayAssignmentStatement((Identifier) c[0],
+                    (NodeToken) c[1], (Expression) c[2], (NodeToken) c[3], (NodeToken) c[4], (Expression) c[5],
+                    (NodeToken) c[6]);
+            case IF_STATEMENT: return new IfStatement((NodeToken) c[0], (NodeToken) c[1], (Expression) c[2],
+                    (NodeToken) c[3], (Statement) c[4], (NodeToken) c[5], (Statement) c[6]);
+            case WHILE_STATEMENT: return new WhileStatement((NodeToken) c[0], (NodeToken) c[1], (Expression) c[2],
+                    (NodeToken) c[3], (Statement) c[4]);
+            case PRINT_STATEMENT: return new PrintStatement((NodeToken) c[0], (NodeToken) c[1], (Expression) c[2],
+                    (NodeToken) c[3], (NodeToken) c[4]);
+            case EXPRESSION: return new Expression((NodeChoice) c[0]);
+            case AND_EXPRESSION: return new AndExpression((Clause) c[0], (NodeToken) c[1], (Clause) c[2]);
+            case COMPARE_EXPRESSION: return new CompareExpression((PrimaryExpression) c[0], (NodeToken) c[1],
+                    (PrimaryExpression) c[2]);
+            case PLUS_EXPRESSION: return new PlusExpression((PrimaryExpression) c[0], (NodeToken) c[1],
+                    (PrimaryExpression) c[2]);
+            case MINUS_EXPRESSION: return new MinusExpression((PrimaryExpression) c[0], (NodeToken) c[1],
+                    (PrimaryExpression) c[2]);
+            case TIMES_EXPRESSION: return new TimesExpression((PrimaryExpression) c[0], (NodeToken) c[1],
+                    (PrimaryExpression) c[2]);
+            case ARRAY_LOOKUP: return new ArrayLookup((PrimaryExpression) c[0], (NodeToken) c[1],
+                    (PrimaryExpression) c[2], (NodeToken) c[3]);
+            case ARRAY_LENGTH: return new ArrayLength((PrimaryExpression) c[0], (NodeToken) c[1], (NodeToken) c[2]);
+            case MESSAGE_SEND: return new MessageSend((PrimaryExpression) c[0], (NodeToken) c[1],
+                    (Identifier) c[2], (NodeToken) c[3], (NodeOptional) c[4], (NodeToken) c[5]);
+            case EXPRESSION_LIST: return new ExpressionList((Expression) c[0], (ExpressionTail) c[1]);
+            case EXPRESSION_TAIL: return new ExpressionTail((NodeListOptional) c[0]);
+            case EXPRESSION_TERM: return new ExpressionTerm((NodeToken) c[0], (Expression) c[1]);
+            case CLAUSE: return new Clause((NodeChoice) c[0]);
+            case PRIMARY_EXPRESSION: return new PrimaryExpression((NodeChoice) c[0]);
+            case INTEGER_LITERAL: return new IntegerLiteral((NodeToken) c[0]);
+            case TRUE_LITERAL: return new TrueLiteral((NodeToken) c[0]);
+            case FALSE_LITERAL: return new FalseLiteral((NodeToken) c[0]);
+            case IDENTIFIER: return new Identifier((NodeToken) c[0]);
+            case THIS_EXPRESSION: return new ThisExpression((NodeToken) c[0]);
+            case ARRAY_ALLOCATION_EXPRESSION: return new ArrayAllocationExpression((NodeToken) c[0],
+                    (NodeToken) c[1], (NodeToken) c[2], (Expression) c[3], (NodeToken) c[4]);
+            case ALLOCATION_EXPRESSION: return new AllocationExpression((NodeToken) c[0], (Identifier) c[1],
+                    (NodeToken) c[2], (NodeToken) c[3]);
+            case NOT_EXPRESSION: return new NotExpression((NodeToken) c[0], (Clause) c[1]);
+            case BRACKET_EXPRESSION: return new BracketExpression((NodeToken) c[0], (Expression) c[1],
+                    (NodeToken) c[2]);
+            default:
+                throw new IllegalStateException("Unknown node kind " + kinds[n]);
+        }
+    }
+
+    // Appends the nodes of a tree in pre-order, and its tokens in source order
+    private static class Builder extends DepthFirstVisitor {
+        final FlatTree tree = new FlatTree(1024);
+        private final MiniJavaParser parser;
+        // The open nodes, from the root down, and the last child added to each of them
+        private int[] open = new int[64];
+        private int[] lastChild = new int[64];
+        private int depth;
+
+        Builder(MiniJavaParser parser) {
+            this.parser = parser;
+        }
+
+        private void open(int kind) {
+            open(kind, 0);
+        }
+
+        private void open(int kind, int value) {
+            FlatTree t = tree;
+            if (t.size == t.kinds.length) {
+                t.kinds = Arrays.copyOf(t.kinds, t.size * 2);
+                t.firstChildren = Arrays.copyOf(t.firstChildren, t.size * 2);
+                t.nextSiblings = Arrays.copyOf(t.nextSiblings, t.size * 2);
+                t.values = Arrays.copyOf(t.values, t.size * 2);
+            }
+            int n = t.size++;
+            t.kinds[n] = kind;
+            t.values[n] = value;
+            t.firstChildren[n] = -1;
+            t.nextSiblings[n] = -1;
+            if (depth > 0) {
+                if (lastChild[depth - 1] < 0)
+                    t.firstChildren[open[depth - 1]] = n;
+                else
+                    t.nextSiblings[lastChild[depth - 1]] = n;
+                lastChild[depth - 1] = n;
+            }
+            if (depth == open.length) {
+                open = Arrays.copyOf(open, depth * 2);
+                lastChild = Arrays.copyOf(lastChild, depth * 2);
+            }
+            open[depth] = n;
+            lastChild[depth] = -1;
+            depth++;
+        }
+
+        private void close() {
+            depth--;
+        }
+
+        // A NodeChoice is visited as its choice, so it's added here
+        private void add(Node n) {
+            if (n instanceof NodeChoice) {
+                NodeChoice choice = (NodeChoice) n;
+                open(NODE_CHOICE, choice.which);
+                add(choice.choice);
+                close();
+            }
+            else
+                n.accept(this);
+        }
+
+        private void addToken(NodeToken n) {
+            FlatTree t = tree;
+            int i = t.tokenCount++;
+            if (i == t.tokenKinds.length) {
+                t.tokenKinds = Arrays.copyOf(t.tokenKinds, i * 2);
+                t.tokenSymbols = Arrays.copyOf(t.tokenSymbols, i * 2);
+                t.tokenImages = Arrays.copyOf(t.tokenImages, i * 2);
+                t.tokenOffsets = Arrays.copyOf(t.tokenOffsets, i * 2);
+                t.tokenLengths = Arrays.copyOf(t.tokenLengths, i * 2);
+            }
+            if (parser != null) {
+                Token token = parser.getTokenAt(i);
+                t.tokenKinds[i] = token.kind;
+                t.tokenSymbols[i] = token.symbol;
+                t.tokenImages[i] = token.symbol >= 0 ? token.image : n.tokenImage;
+                t.tokenOffsets[i] = token.offset;
+                t.tokenLengths[i] = token.length;
+                t.lines = parser.getLineMap();
+            }
+            else {
+                t.tokenKinds[i] = n.kind;
+                t.tokenSymbols[i] = n.symbol;
+                t.tokenImages[i] = n.tokenImage;
+                t.tokenOffsets[i] = n.offset;
+                t.tokenLengths[i] = n.lines == null ? 0 : n.length;
+                if (n.lines != null)
+                    t.lines = n.lines;
+            }
+        }
+
+        @Override public void visit(NodeToken n) { open(NODE_TOKEN, tree.tokenCount); close(); addToken(n); }
+
+        @Override public void visit(NodeList n) {
+            open(NODE_LIST);
+            for (int i = 0; i < n.size(); i++)
+                add(n.elementAt(i));
+            close();
+        }
+
+        @Override public void visit(NodeListOptional n) {
+            open(NODE_LIST_OPTIONAL);
+            for (int i = 0; i < n.size(); i++)
+                add(n.elementAt(i));
+            close();
+        }
+
+        @Override public void visit(NodeOptional n) {
+            open(NODE_OPTIONAL);
+            if (n.present())
+                add(n.node);
+            close();
+        }
+
+        @Override public void visit(NodeSequence n) {
+            open(NODE_SEQUENCE);
+            for (int i = 0; i < n.size(); i++)
+                add(n.elementAt(i));
+            close();
+        }
+
+        @Override public void visit(Goal n) { open(GOAL); add(n.f0); add(n.f1); add(n.f2); close(); }
+        @Override public void visit(MainClass n) {
+            open(MAIN_CLASS);
+            add(n.f0); add(n.f1); add(n.f2); add(n.f3); add(n.f4); add(n.f5); add(n.f6); add(n.f7); add(n.f8);
+            add(n.f9); add(n.f10); add(n.f11); add(n.f12); add(n.f13); add(n.f14); add(n.f15); add(n.f16);
+            add(n.f17);
+            close();
+        }
+        @Override public void visit(TypeDeclaration n) { open(TYPE_DECLARATION); add(n.f0); close(); }
+        @Override public void visit(ClassDeclaration n) {
+            open(CLASS_DECLARATION);
+            add(n.f0); add(n.f1); add(n.f2); add(n.f3); add(n.f4); add(n.f5);
+            close();
+        }
+        @Override public void visit(ClassExtendsDeclaration n) {
+            open(CLASS_EXTENDS_DECLARATION);
+            add(n.f0); add(n.f1); add(n.f2); add(n.f3); add(n.f4); add(n.f5); add(n.f6); add(n.f7);
+            close();
+        }
+        @Override public void visit(VarDeclaration n) {
+            open(VAR_DECLARATION);
+            add(n.f0); add(n.f1); add(n.f2);
+            close();
+        }
+        @Override public void visit(MethodDeclaration n) {
+            open(METHOD_DECLARATION);
+            add(n.f0); add(n.f1); add(n.f2); add(n.f3); add(n.f4); add(n.f5); add(n.f6); add(n.f7); add(n.f8);
+            add(n.f9); add(n.f10); add(n.f11); add(n.f12);
+            close();
+        }
+        @Override public void visit(FormalParameterList n) {
+            open(FORMAL_PARAMETER_LIST);
+            add(n.f0); add(n.f1);
+            close();
+        }
+        @Override public void visit(FormalParameter n) { open(FORMAL_PARAMETER); add(n.f0); add(n.f1); close(); }
+        @Override public void visit(FormalParameterTail n) { open(FORMAL_PARAMETER_TAIL); add(n.f0); close(); }
+        @Override public void visit(FormalParameterTerm n) {
+            open(FORMAL_PARAMETER_TERM);
+            add(n.f0); add(n.f1);
+            close();
+        }
+        @Override public void visit(Type n) { open(TYPE); add(n.f0); close(); }
+        @Override public void visit(ArrayType n) { open(ARRAY_TYPE); add(n.f0); add(n.f1); add(n.f2); close(); }
+        @Override public void visit(BooleanType n) { open(BOOLEAN_TYPE); add(n.f0); close(); }
+        @Override public void visit(IntegerType n) { open(INTEGER_TYPE); add(n.f0); close(); }
+        @Override public void visit(Statement n) { open(STATEMENT); add(n.f0); close(); }
+        @Override public void visit(Block n) { open(BLOCK); add(n.f0); add(n.f1); add(n.f2); close(); }
+        @Override public void visit(AssignmentStatement n) {
+            open(ASSIGNMENT_STATEMENT);
+            add(n.f0); add(n.f1); add(n.f2); add(n.f3);
+            close();
+        }
+        @Override public void visit(ArrayAssignmentStatement n) {
+            open(ARRAY_ASSIGNMENT_STATEMENT);
+            add(n.f0); add(n.f1); add(n.f2); add(n.f3); add(n.f4); add(n.f5); add(n.f6);
+            close();
+        }
+        @Override public void visit(IfStatement n) {
+            open(IF_STATEMENT);
+            add(n.f0); add(n.f1); add(n.f2); add(n.f3); add(n.f4); add(n.f5); add(n.f6);
+            close();
+        }
+        @Override public void visit(WhileStatement n) {
+            open(WHILE_STATEMENT);
+            add(n.f0); add(n.f1); add(n.f2); add(n.f3); add(n.f4);
+            close();
+        }
+        @Override public void visit(PrintStatement n) {
+            open(PRINT_STATEMENT);
+            add(n.f0); add(n.f1); add(n.f2); add(n.f3); add(n.f4);
+            close();
+        }
+        @Override public void visit(Expression n) { open(EXPRESSION); add(n.f0); close(); }
+        @Override public void visit(AndExpression n) {
+            open(AND_EXPRESSION);
+            add(n.f0); add(n.f1); add(n.f2);
+            close();
+        }
+        @Override public void visit(CompareExpression n) {
+            open(COMPARE_EXPRESSION);
+            add(n.f0); add(n.f1); add(n.f2);
+            close();
+        }
+        @Override public void visit(PlusExpression n) {
+            open(PLUS_EXPRESSION);
+            add(n.f0); add(n.f1); add(n.f2);
+            close();
+        }
+        @Override public void visit(MinusExpression n) {
+            open(MINUS_EXPRESSION);
+            add(n.f0); add(n.f1); add(n.f2);
+            close();
+        }
+        @Override public void visit(TimesExpression n) {
+            open(TIMES_EXPRESSION);
+            add(n.f0); add(n.f1); add(n.f2);
+            close();
+        }
+        @Override public void visit(ArrayLookup n) {
+            open(ARRAY_LOOKUP);
+            add(n.f0); add(n.f1); add(n.f2); add(n.f3);
+            close();
+        }
+        @Override public void visit(ArrayLength n) {
+            open(ARRAY_LENGTH);
+            add(n.f0); add(n.f1); add(n.f2);
+            close();
+        }
+        @Override public void visit(MessageSend n) {
+            open(MESSAGE_SEND);
+            add(n.f0); add(n.f1); add(n.f2); add(n.f3); add(n.f4); add(n.f5);
+            close();
+        }
+        @Override public void visit(ExpressionList n) { open(EXPRESSION_LIST); add(n.f0); add(n.f1); close(); }
+        @Override public void visit(ExpressionTail n) { open(EXPRESSION_TAIL); add(n.f0); close(); }
+        @Override public void visit(ExpressionTerm n) { open(EXPRESSION_TERM); add(n.f0); add(n.f1); close(); }
+        @Override public void visit(Clause n) { open(CLAUSE); add(n.f0); close(); }
+        @Override public void visit(PrimaryExpression n) { open(PRIMARY_EXPRESSION); add(n.f0); close(); }
+        @Override public void visit(IntegerLiteral n) { open(INTEGER_LITERAL); add(n.f0); close(); }
+        @Override public void visit(TrueLiteral n) { open(TRUE_LITERAL); add(n.f0); close(); }
+        @Override public void visit(FalseLiteral n) { open(FALSE_LITERAL); add(n.f0); close(); }
+        @Override public void visit(Identifier n) { open(IDENTIFIER); add(n.f0); close(); }
+        @Override public void visit(ThisExpression n) { open(THIS_EXPRESSION); add(n.f0); close(); }
+        @Override public void visit(ArrayAllocationExpression n) {
+            open(ARRAY_ALLOCATION_EXPRESSION);
+            add(n.f0); add(n.f1); add(n.f2); add(n.f3); add(n.f4);
+            close();
+        }
+        @Override public void visit(AllocationExpression n) {
+            open(ALLOCATION_EXPRESSION);
+            add(n.f0); add(n.f1); add(n.f2); add(n.f3);
+            close();
+        }
+        @Override public void visit(NotExpression n) { open(NOT_EXPRESSION); add(n.f0); add(n.f1); close(); }
+        @Override public void visit(BracketExpression n) {
+            open(BRACKET_EXPRESSION);
+            add(n.f0); add(n.f1); add(n.f2);
+            close();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.ClassDeclaration;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.ClassExtendsDeclaration;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Goal;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.MainClass;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Node;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.NodeListOptional;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.NodeToken;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.TypeDeclaration;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.visitor.DepthFirstVisitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the tree of a source up to date as the source is edited, for editors and watch modes. An edit inside
+ * a method declaration reparses only that method, and one elsewhere inside a class declaration only that
+ * class. The new subtree replaces the old one in the tree, and the NodeTokens after it are moved by the
+ * change in length. Any other edit, or one after which the method or class doesn't parse as one any more,
+ * has the whole source parsed again.
+ *
+ * The ranges of the top-level declarations are kept by character offset, with those of their methods
+ * relative to the declaration, so that only the declarations after an edit are moved. The region that's
+ * reparsed starts with "public" or "class" and ends with the "}" that closes it, so it's lexed on its own to
+ * the tokens a lexer of the whole source finds there. Its identifiers are interned in the pool of the source
+ * and the line map is updated in place (see LineMap.edit), so the nodes are the ones a full parse builds.
+ *
+ * Comments are dropped as the source is lexed. A source with unicode escapes is always parsed whole.
+ */
+public final class IncrementalParser implements MiniJavaParserConstants {
+    private static final int TAB_SIZE = 8;
+
+    private final boolean compactTree;
+    private char[] chars;
+    private int length;
+    // Whether a region of the source can be reparsed alone, it can't if the source has unicode escapes
+    private boolean incremental;
+    private SymbolPool symbols;
+    private LineMap lines;
+    private Goal goal;
+
+    // The top-level declarations, the main class first: the offset of their first char and the one after
+    // their last char
+    private int declarationCount;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    // The methods of each declaration, by offset from the start of the declaration
+    private int[][] methodStarts = new int[16][];
+    private int[][] methodEnds = new int[16][];
+    // The NodeTokens of each declaration that have a position, in source order
+    private NodeToken[][] tokens = new NodeToken[16][];
+
+    /**
+     * Parses the first length chars, which are copied.
+     * @param compactTree See MiniJavaParser.setCompactTree
+     */
+    public IncrementalParser(char[] chars, int length, boolean compactTree) throws ParseException {
+        this.chars = Arrays.copyOf(chars, length);
+        this.length = length;
+        this.compactTree = compactTree;
+        parse();
+    }
+
+    /** @return The tree of the source, or null if it doesn't parse */
+    public Goal getGoal() {
+        return goal;
+    }
+
+    /** @return The pool that the identifiers of the tree are interned in */
+    public SymbolPool getSymbols() {
+        return symbols;
+    }
+
+    /** @return The map that turns the offsets of the NodeTokens of the tree into lines and columns */
+    public LineMap getLineMap() {
+        return lines;
+    }
+
+    /**
+     * Replaces the removed chars at offset with inserted, and brings the tree up to date.
+     * @return The tree of the edited source
+     * @throws ParseException If the edited source doesn't parse. There's then no tree until an edit makes it
+     *                        parse again.
+     */
+    public Goal edit(int offset, int removed, CharSequence inserted) throws ParseException {
+        if (offset < 0 || removed < 0 || offset + removed > length)
+            throw new IndexOutOfBoundsException("Edit of " + removed + " chars at " + offset + " of " + length);
+        int added = inserted.length();
+        int delta = added - removed;
+        if (length + delta > chars.length)
+            chars = Arrays.copyOf(chars, Math.max(length + delta, chars.length + (chars.length >> 1)));
+        System.arraycopy(chars, offset + removed, chars, offset + added, length - offset - removed);
+        for (int i = 0; i < added; i++)
+            chars[offset + i] = inserted.charAt(i);
+        length += delta;
+        if (goal == null || !incremental)
+            return parse();
+        lines.edit(chars, length, offset, removed, added, TAB_SIZE);
+
+        // The declaration that the edit is strictly inside of, so that its first and last tokens are left
+        int d = lastBefore(starts, declarationCount, offset);
+        if (d < 0 || offset + removed >= ends[d])
+            return parse();
+        int[] methods = methodStarts[d];
+        int m = lastBefore(methods, methods.length, offset - starts[d]);
+        if (m >= 0 && offset + removed < starts[d] + methodEnds[d][m]) {
+            int from = starts[d] + methods[m];
+            int to = starts[d] + methodEnds[d][m];
+            Node method = parseRegion(from, to + delta, -1);
+            if (method != null) {
+                methodList(d).nodes.set(m, method);
+                for (int k = m + 1; k < methods.length; k++) {
+                    methods[k] += delta;
+                    methodEnds[d][k] += delta;
+                }
+                methodEnds[d][m] += delta;
+                ends[d] += delta;
+                tokens[d] = splice(tokens[d], from, to, positioned(method), delta);
+                moveAfter(d, delta);
+                return goal;
+            }
+        }
+        Node declaration = parseRegion(starts[d], ends[d] + delta, d);
+        if (declaration == null)
+            return parse();
+        if (d == 0)
+            goal.f0 = (MainClass) declaration;
+        else
+            goal.f1.nodes.set(d - 1, declaration);
+        tokens[d] = positioned(declaration);
+        moveAfter(d, delta);
+        return goal;
+    }
+
+    // Parses the whole source again
+    private Goal parse() throws ParseException {
+        goal = null;
+        declarationCount = 0;
+        incremental = !CharArrayCharStream.hasUnicodeEscape(chars, length);
+        MiniJavaParser parser;
+        PackedTokens packed = null;
+        if (incremental) {
+            packed = PackedLexer.lex(chars, length, false);
+            parser = new MiniJavaParser(packed);
+        }
+        else
+            parser = new MiniJavaParser(chars, length, false);
+        parser.setCompactTree(compactTree);
+        Goal parsed = parser.Goal();
+        symbols = parser.getSymbols();
+        lines = parser.getLineMap();
+        if (incremental) {
+            index(packed, 0);
+            tokens[0] = positioned(parsed.f0);
+            for (int d = 1; d < declarationCount; d++)
+                tokens[d] = positioned(parsed.f1.elementAt(d - 1));
+        }
+        return goal = parsed;
+    }
+
+    // Parses the chars from up to to as a method declaration (declaration < 0) or as the given declaration,
+    // and indexes the latter. Returns null if they don't parse as exactly that.
+    private Node parseRegion(int from, int to, int declaration) {
+        for (int i = from; i < to - 1; i++) {
+            if (chars[i] == '\\' && chars[i + 1] == 'u')
+                return null;
+        }
+        PackedTokens region = PackedLexer.lex(chars, from, to, symbols, lines);
+        if (region.hasLexicalError())
+            return null;
+        MiniJavaParser parser = new MiniJavaParser(region);
+        parser.setCompactTree(compactTree);
+        Node node;
+        try {
+            if (declaration < 0)
+                node = parser.MethodDeclaration();
+            else if (declaration == 0)
+                node = parser.MainClass();
+            else
+                node = parser.TypeDeclaration();
+        } catch (ParseException ex) {
+            return null;
+        }
+        if (parser.getToken(1).kind != EOF)
+            return null;
+        if (declaration >= 0)
+            index(region, declaration);
+        return node;
+    }
+
+    // Records the ranges of the declarations of tokens, and of their methods, from declaration d on
+    private void index(PackedTokens tokens, int d) {
+        int depth = 0;
+        int methodCount = 0;
+        int[] mStarts = new int[8];
+        int[] mEnds = new int[8];
+        for (int i = 0; i < tokens.count; i++) {
+            int kind = tokens.kinds[i];
+            if (kind == CLASS && depth == 0) {
+                if (d == starts.length) {
+                    starts = Arrays.copyOf(starts, d * 2);
+                    ends = Arrays.copyOf(ends, d * 2);
+                    methodStarts = Arrays.copyOf(methodStarts, d * 2);
+                    methodEnds = Arrays.copyOf(methodEnds, d * 2);
+                    this.tokens = Arrays.copyOf(this.tokens, d * 2);
+                }
+                starts[d] = tokens.starts[i];
+                methodCount = 0;
+            }
+            else if (kind == PUBLIC && depth == 1) {
+                if (methodCount == mStarts.length) {
+                    mStarts = Arrays.copyOf(mStarts, methodCount * 2);
+                    mEnds = Arrays.copyOf(mEnds, methodCount * 2);
+                }
+                mStarts[methodCount] = tokens.starts[i] - starts[d];
+            }
+            else if (kind == LBRACE)
+                depth++;
+            else if (kind == RBRACE && --depth == 1)
+                mEnds[methodCount++] = tokens.starts[i] + 1 - starts[d];
+            else if (kind == RBRACE && depth == 0) {
+                ends[d] = tokens.starts[i] + 1;
+                // The main method isn't a MethodDeclaration
+                methodCount = d == 0 ? 0 : methodCount;
+                methodStarts[d] = Arrays.copyOf(mStarts, methodCount);
+                methodEnds[d] = Arrays.copyOf(mEnds, methodCount);
+                d++;
+            }
+        }
+        declarationCount = Math.max(declarationCount, d);
+    }
+
+    // The methods of declaration d, which isn't the main class
+    private NodeListOptional methodList(int d) {
+        Node declaration = ((TypeDeclaration) goal.f1.elementAt(d - 1)).f0.choice;
+        if (declaration instanceof ClassDeclaration)
+            return ((ClassDeclaration) declaration).f4;
+        return ((ClassExtendsDeclaration) declaration).f6;
+    }
+
+    // Moves the declarations after d, and their NodeTokens, by delta chars
+    private void moveAfter(int d, int delta) {
+        for (int k = d + 1; k < declarationCount; k++) {
+            starts[k] += delta;
+            ends[k] += delta;
+            for (NodeToken n : tokens[k])
+                n.offset += delta;
+        }
+        if (goal.f2.lines != null)
+            goal.f2.offset += delta;
+    }
+
+    // The NodeTokens of a declaration with the ones from from up to to (excluded) replaced by added, and the
+    // ones after moved by delta chars
+    private static NodeToken[] splice(NodeToken[] old, int from, int to, NodeToken[] added, int delta) {
+        int lo = firstAt(old, from);
+        int hi = firstAt(old, to);
+        NodeToken[] spliced = new NodeToken[lo + added.length + old.length - hi];
+        System.arraycopy(old, 0, spliced, 0, lo);
+        System.arraycopy(added, 0, spliced, lo, added.length);
+        System.arraycopy(old, hi, spliced, lo + added.length, old.length - hi);
+        for (int k = lo + added.length; k < spliced.length; k++)
+            spliced[k].offset += delta;
+        return spliced;
+    }
+
+    // The index of the first of the NodeTokens at or after offset
+    private static int firstAt(NodeToken[] nodeTokens, int offset) {
+        int lo = 0;
+        int hi = nodeTokens.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (nodeTokens[mid].offset < offset)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    // The index of the last of the first count values that's before offset, or -1
+    private static int lastBefore(int[] values, int count, int offset) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < offset)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo - 1;
+    }
+
+    // The NodeTokens of node that have a position, in source order
+    private static NodeToken[] positioned(Node node) {
+        final List<NodeToken> positioned = new ArrayList<>();
+        node.accept(new DepthFirstVisitor() {
+            @Override
+            public void visit(NodeToken n) {
+                if (n.lines != null)
+                    positioned.add(n);
+            }
+        });
+        return positioned.toArray(new NodeToken[0]);
+    }
+}
@@ -1,4 +1,4 @@
-package me.aslanoglou.dit.compilers.semanticalanalyzer;/* Generated By:JavaCC: Do not edit this line. JavaCharStream.java Version 5.0 */
+package me.aslanoglou.dit.compilers.semanticalanalyzer;/* Generated By:JavaCC Version 5.0 from minijava.jj, and maintained by hand since: see the notes in minijava.jj. */
 /* JavaCCOptions:STATIC=false,SUPPORT_CLASS_VISIBILITY_PUBLIC=true */
 /**
  * An implementation of interface CharStream, where the stream is assumed to
@@ -65,6 +65,12 @@ class JavaCharStream
   int tokenBegin;
   protected int bufline[];
   protected int bufcolumn[];
+  /** Offset in the input of each buffered character (of the backslash, for a unicode escape). */
+  protected int bufoffset[];
+  /** Offset in the input of the last character read. */
+  protected int offset = -1;
+  /** The positions of the characters read so far. */
+  protected LineMap lines = new LineMap();
 
   protected int column = 0;
   protected int line = 1;
@@ -79,16 +85,33 @@ class JavaCharStream
   protected int maxNextCharInd = 0;
   protected int nextCharInd = -1;
   protected int inBuf = 0;
+  /** nextCharBuf holds no backslash between nextCharInd and plainEnd (exclusive). */
+  protected int plainEnd = 0;
   protected int tabSize = 8;
 
   protected void setTabSize(int i) { tabSize = i; }
   protected int getTabSize(int i) { return tabSize; }
 
+  /** Whether the buffers go back to their initial size once a long token is done with, see setStreaming. */
+  protected boolean streaming = false;
+  protected int initialBufsize;
+
+  /**
+   * Sets whether the buffers, that grow to hold the longest token read so far, are shrunk back to their
+   * initial size before the next token. The characters of the input are then held only while their token is
+   * being read, whatever the length of the input.
+   */
+  public void setStreaming(boolean streaming) { this.streaming = streaming; }
+  public boolean isStreaming() { return streaming; }
+
   protected void ExpandBuff(boolean wrapAround)
   {
-    char[] newbuffer = new char[bufsize + 2048];
-    int newbufline[] = new int[bufsize + 2048];
-    int newbufcolumn[] = new int[bufsize + 2048];
+    // Grown by half at least, so that a very long token isn't copied over and over
+    int growth = Math.max(2048, bufsize / 2);
+    char[] newbuffer = new char[bufsize + growth];
+    int newbufline[] = new int[bufsize + growth];
+    int newbufcolumn[] = new int[bufsize + growth];
+    int newbufoffset[] = new int[bufsize + growth];
 
     try
     {
@@ -106,6 +129,10 @@ class JavaCharStream
         System.arraycopy(bufcolumn, 0, newbufcolumn, bufsize - tokenBegin, bufpos);
         bufcolumn = newbufcolumn;
 
+        System.arraycopy(bufoffset, tokenBegin, newbufoffset, 0, bufsize - tokenBegin);
+        System.arraycopy(bufoffset, 0, newbufoffset, bufsize - tokenBegin, bufpos);
+        bufoffset = newbufoffset;
+
         bufpos += (bufsize - tokenBegin);
     }
     else
@@ -119,6 +146,9 @@ class JavaCharStream
         System.arraycopy(bufcolumn, tokenBegin, newbufcolumn, 0, bufsize - tokenBegin);
         bufcolumn = newbufcolumn;
 
+        System.arraycopy(bufoffset, tokenBegin, newbufoffset, 0, bufsize - tokenBegin);
+        bufoffset = newbufoffset;
+
         bufpos -= tokenBegin;
       }
     }
@@ -127,7 +157,7 @@ class JavaCharStream
       throw new Error(t.getMessage());
     }
 
-    available = (bufsize += 2048);
+    available = (bufsize += growth);
     tokenBegin = 0;
   }
 
@@ -135,7 +165,7 @@ class JavaCharStream
   {
     int i;
     if (maxNextCharInd == 4096)
-      maxNextCharInd = nextCharInd = 0;
+      maxNextCharInd = nextCharInd = plainEnd = 0;
 
     try {
       if ((i = inputStream.read(nextCharBuf, maxNextCharInd,
@@ -158,6 +188,7 @@ class JavaCharStream
       {
         bufline[bufpos] = line;
         bufcolumn[bufpos] = column;
+        bufoffset[bufpos] = offset;
       }
       throw e;
     }
@@ -168,9 +199,22 @@ class JavaCharStream
     if (++nextCharInd >= maxNextCharInd)
       FillBuff();
 
+    if (nextCharInd >= plainEnd)
+      ScanPlain();
+
+    offset++;
     return nextCharBuf[nextCharInd];
   }
 
+  /** Moves plainEnd to the next backslash after nextCharInd, or to the end of the read characters. */
+  protected void ScanPlain()
+  {
+    int i = nextCharInd + 1;
+    while (i < maxNextCharInd && nextCharBuf[i] != '\\')
+      i++;
+    plainEnd = i;
+  }
+
 /** @return starting character for token. */
   public char BeginToken() throws java.io.IOException
   {
@@ -187,6 +231,14 @@ class JavaCharStream
 
     tokenBegin = 0;
     bufpos = -1;
+    if (streaming && bufsize > initialBufsize)
+    {
+      available = bufsize = initialBufsize;
+      buffer = new char[bufsize];
+      bufline = new int[bufsize];
+      bufcolumn = new int[bufsize];
+      bufoffset = new int[bufsize];
+    }
 
     return readChar();
   }
@@ -249,6 +301,8 @@ class JavaCharStream
 
     bufline[bufpos] = line;
     bufcolumn[bufpos] = column;
+    bufoffset[bufpos] = offset;
+    lines.record(offset, line, column);
   }
 
 /** Read a character. */
@@ -266,6 +320,23 @@ class JavaCharStream
 
     char c;
 
+    // Fast path: the next character is already read and it isn't a backslash, so it can't start an escape
+    if (nextCharInd + 1 < plainEnd && bufpos + 1 < available)
+    {
+      buffer[++bufpos] = c = nextCharBuf[++nextCharInd];
+      offset++;
+      if (c > '\r' && !prevCharIsLF && !prevCharIsCR)
+      {
+        // one column after the character before it, so there's nothing to record in lines
+        bufline[bufpos] = line;
+        bufcolumn[bufpos] = ++column;
+        bufoffset[bufpos] = offset;
+      }
+      else
+        UpdateLineColumn(c);
+      return c;
+    }
+
     if (++bufpos == available)
       AdjustBuffSize();
 
@@ -383,6 +454,21 @@ class JavaCharStream
     return bufline[tokenBegin];
   }
 
+/** @return offset in the input of token start */
+  public int getBeginOffset() {
+    return bufoffset[tokenBegin];
+  }
+
+/** @return offset in the input of token end */
+  public int getEndOffset() {
+    return bufoffset[bufpos];
+  }
+
+/** @return the positions of the characters read, which turn the offsets of tokens into lines and columns */
+  public LineMap getLineMap() {
+    return lines;
+  }
+
 /** Retreat. */
   public void backup(int amount) {
 
@@ -391,6 +477,11 @@ class JavaCharStream
       bufpos += bufsize;
   }
 
+/** Constructor for subclasses that supply the characters without a Reader. */
+  protected JavaCharStream()
+  {
+  }
+
 /** Constructor. */
   public JavaCharStream(java.io.Reader dstream,
                  int startline, int startcolumn, int buffersize)
@@ -399,10 +490,11 @@ class JavaCharStream
     line = startline;
     column = startcolumn - 1;
 
-    available = bufsize = buffersize;
+    available = bufsize = initialBufsize = buffersize;
     buffer = new char[buffersize];
     bufline = new int[buffersize];
     bufcolumn = new int[buffersize];
+    bufoffset = new int[buffersize];
     nextCharBuf = new char[4096];
   }
 
@@ -425,6 +517,7 @@ class JavaCharStream
     inputStream = dstream;
     line = startline;
     column = startcolumn - 1;
+    initialBufsize = buffersize;
 
     if (buffer == null || buffersize != buffer.length)
     {
@@ -432,10 +525,13 @@ class JavaCharStream
       buffer = new char[buffersize];
       bufline = new int[buffersize];
       bufcolumn = new int[buffersize];
+      bufoffset = new int[buffersize];
       nextCharBuf = new char[4096];
     }
+    offset = -1;
+    lines = new LineMap();
     prevCharIsLF = prevCharIsCR = false;
-    tokenBegin = inBuf = maxNextCharInd = 0;
+    tokenBegin = inBuf = maxNextCharInd = plainEnd = 0;
     nextCharInd = bufpos = -1;
   }
 
@@ -562,6 +658,7 @@ class JavaCharStream
     buffer = null;
     bufline = null;
     bufcolumn = null;
+    bufoffset = null;
   }
 
   /**
@@ -612,4 +709,3 @@ class JavaCharStream
   }
 
 }
-/* JavaCC - OriginalChecksum=10c238069013ccaf8d8956ab4a208f77 (do not edit this line) */
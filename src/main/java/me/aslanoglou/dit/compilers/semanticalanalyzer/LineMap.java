@@ -0,0 +1,252 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Turns a character offset of a source into the line and column that JavaCharStream reports for it: lines and
+ * columns start at 1, a "\r\n" pair ends a single line (the line terminator belongs to the line it ends) and a
+ * tab advances the column to the next multiple of the tab size. Tokens keep only their offset and length, and
+ * their lines and columns are looked up here when a diagnostic needs them.
+ *
+ * The map is a table of anchors, sorted by offset: the line and column of the first character of every line,
+ * and of every character that doesn't simply advance the column by one (a tab). Any other character is one
+ * column after the one before it, so an offset is found with a binary search of the anchors. The table is
+ * built in one pass over a source held in a char[], or recorded by a JavaCharStream as it reads.
+ *
+ * The map of a UTF-8 source held in bytes is by byte offset, with the columns still counted in chars as
+ * JavaCharStream counts them. Every continuation byte of a character is then an anchor, at the column of the
+ * character (the low surrogate for a character beyond the BMP), so that a token ending in it ends there.
+ *
+ * An offset before the first character is at line 1, column 0, and an offset past the last character is as
+ * many columns after it on its line.
+ */
+public class LineMap {
+    // The anchors: the character at offsets[k] is at lines[k], columns[k]
+    private int[] offsets = new int[16];
+    private int[] lines = new int[16];
+    private int[] columns = new int[16];
+    private int size;
+
+    /** An empty map, that a JavaCharStream fills in with record as it reads. */
+    LineMap() {
+        add(-1, 1, 0);
+    }
+
+    /** The map of the first length chars. */
+    public LineMap(char[] chars, int length, int tabSize) {
+        this();
+        int line = 1;
+        int column = 0;
+        char previous = 0;
+        for (int i = 0; i < length; i++) {
+            char c = chars[i];
+            // A line starts after a '\n', or after a '\r' that isn't followed by '\n'
+            if (previous == '\n' || (previous == '\r' && c != '\n')) {
+                line++;
+                column = c == '\t' ? tabSize : 1;
+                add(i, line, column);
+            }
+            else if (c == '\t') {
+                column += tabSize - (column % tabSize);
+                add(i, line, column);
+            }
+            else
+                column++;
+            previous = c;
+        }
+        offsets = Arrays.copyOf(offsets, size);
+        lines = Arrays.copyOf(lines, size);
+        columns = Arrays.copyOf(columns, size);
+    }
+
+    /** The map of the first length bytes of a UTF-8 source. */
+    public LineMap(byte[] bytes, int length, int tabSize) {
+        this();
+        int line = 1;
+        int column = 0;
+        int previous = 0;
+        // The next continuation byte is the first of a character beyond the BMP, two chars in UTF-16
+        boolean surrogates = false;
+        for (int i = 0; i < length; i++) {
+            int c = bytes[i];
+            if (previous == '\n' || (previous == '\r' && c != '\n')) {
+                line++;
+                column = c == '\t' ? tabSize : 1;
+                add(i, line, column);
+                surrogates = (c & 0xf8) == 0xf0;
+            }
+            else if (c == '\t') {
+                column += tabSize - (column % tabSize);
+                add(i, line, column);
+            }
+            else if (c >= 0 || (c & 0xc0) != 0x80) {
+                column++;
+                surrogates = (c & 0xf8) == 0xf0;
+            }
+            else {
+                if (surrogates)
+                    column++;
+                surrogates = false;
+                add(i, line, column);
+            }
+            previous = c;
+        }
+        offsets = Arrays.copyOf(offsets, size);
+        lines = Arrays.copyOf(lines, size);
+        columns = Arrays.copyOf(columns, size);
+    }
+
+    /** Records the position of the character at offset, which is past every offset recorded before it. */
+    void record(int offset, int line, int column) {
+        int last = size - 1;
+        if (line != lines[last] || column != columns[last] + (offset - offsets[last]))
+            add(offset, line, column);
+    }
+
+    /**
+     * Updates the map of a source of which removed chars at offset were replaced by inserted ones. The
+     * anchors are worked out again from offset up to the first line that starts after the inserted chars;
+     * from there on the text is the same as before the edit, so the anchors are only moved by the change in
+     * length and in number of lines.
+     * @param chars The source after the edit, of the given length
+     */
+    void edit(char[] chars, int length, int offset, int removed, int inserted, int tabSize) {
+        int delta = inserted - removed;
+        int line = offset == 0 ? 1 : line(offset - 1);
+        int column = offset == 0 ? 0 : column(offset - 1);
+        char previous = offset == 0 ? 0 : chars[offset - 1];
+        // The anchors from first up to kept (excluded) are those of the replaced lines
+        int first = anchor(offset - 1) + 1;
+        int kept = size;
+        int lineDelta = 0;
+        LineMap added = new LineMap();
+        added.size = 0;
+        for (int i = offset; i < length; i++) {
+            char c = chars[i];
+            if (previous == '\n' || (previous == '\r' && c != '\n')) {
+                line++;
+                column = c == '\t' ? tabSize : 1;
+                if (i > offset + inserted) {
+                    // Its line terminator and first character weren't edited, so it started a line before too
+                    kept = Arrays.binarySearch(offsets, first, size, i - delta);
+                    lineDelta = line - lines[kept];
+                    break;
+                }
+                added.add(i, line, column);
+            }
+            else if (c == '\t') {
+                column += tabSize - (column % tabSize);
+                added.add(i, line, column);
+            }
+            else
+                column++;
+            previous = c;
+        }
+        int newSize = first + added.size + size - kept;
+        if (newSize > offsets.length) {
+            int capacity = Math.max(newSize, offsets.length * 2);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+        }
+        int to = first + added.size;
+        System.arraycopy(offsets, kept, offsets, to, size - kept);
+        System.arraycopy(lines, kept, lines, to, size - kept);
+        System.arraycopy(columns, kept, columns, to, size - kept);
+        System.arraycopy(added.offsets, 0, offsets, first, added.size);
+        System.arraycopy(added.lines, 0, lines, first, added.size);
+        System.arraycopy(added.columns, 0, columns, first, added.size);
+        for (int k = to; k < newSize; k++) {
+            offsets[k] += delta;
+            lines[k] += lineDelta;
+        }
+        size = newSize;
+    }
+
+    /**
+     * Moves the character at offset to the given line and column, and every character after it along with it:
+     * those on its line by as many columns, and those on the lines after it by as many lines. That's how
+     * JavaCharStream.adjustBeginLineColumn moves the characters it reads after the token it adjusts.
+     */
+    void adjust(int offset, int line, int column) {
+        int oldLine = line(offset);
+        int oldColumn = column(offset);
+        int lineDelta = line - oldLine;
+        int columnDelta = column - oldColumn;
+        int k = anchor(offset);
+        if (offsets[k] != offset) {
+            // the character becomes an anchor, so that those before it on its line stay where they are
+            add(offset, oldLine, oldColumn);
+            k++;
+            System.arraycopy(offsets, k, offsets, k + 1, size - k - 1);
+            System.arraycopy(lines, k, lines, k + 1, size - k - 1);
+            System.arraycopy(columns, k, columns, k + 1, size - k - 1);
+            offsets[k] = offset;
+            lines[k] = oldLine;
+            columns[k] = oldColumn;
+        }
+        for (; k < size; k++) {
+            if (lines[k] == oldLine)
+                columns[k] += columnDelta;
+            lines[k] += lineDelta;
+        }
+    }
+
+    /** @return The line of the character at offset */
+    public int line(int offset) {
+        return lines[anchor(offset)];
+    }
+
+    /** @return The column of the character at offset */
+    public int column(int offset) {
+        int k = anchor(offset);
+        return columns[k] + (offset - offsets[k]);
+    }
+
+    /** @return The number of bytes that write puts */
+    int encodedSize() {
+        return 4 + 3 * 4 * size;
+    }
+
+    /** Puts the anchors into buffer. */
+    void write(ByteBuffer buffer) {
+        buffer.putInt(size);
+        AstCache.putInts(buffer, offsets, size);
+        AstCache.putInts(buffer, lines, size);
+        AstCache.putInts(buffer, columns, size);
+    }
+
+    /** @return The map that write put into buffer, or null if a map with no anchors was put */
+    static LineMap read(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (size == 0)
+            return null;
+        LineMap map = new LineMap();
+        map.offsets = AstCache.getInts(buffer, size);
+        map.lines = AstCache.getInts(buffer, size);
+        map.columns = AstCache.getInts(buffer, size);
+        map.size = size;
+        return map;
+    }
+
+    // The last anchor at or before offset
+    private int anchor(int offset) {
+        if (offset < 0)
+            return 0;
+        int k = Arrays.binarySearch(offsets, 0, size, offset);
+        return k >= 0 ? k : -k - 2;
+    }
+
+    private void add(int offset, int line, int column) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+            lines = Arrays.copyOf(lines, size * 2);
+            columns = Arrays.copyOf(columns, size * 2);
+        }
+        offsets[size] = offset;
+        lines[size] = line;
+        columns[size] = column;
+        size++;
+    }
+}
@@ -1,5 +1,6 @@
-package me.aslanoglou.dit.compilers.semanticalanalyzer;/* Generated By:JavaCC: Do not edit this line. MiniJavaParser.java */
+package me.aslanoglou.dit.compilers.semanticalanalyzer;/* Generated By:JavaCC from minijava.jj, and maintained by hand since: see the notes in minijava.jj. */
 import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.*;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
 
 
 public class MiniJavaParser implements MiniJavaParserConstants {
@@ -10,24 +11,53 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    TypeDeclaration n2;
    NodeToken n3;
    Token n4;
-    n0 = MainClass();
-    label_1:
-    while (true) {
-      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
-      case CLASS:
-        ;
+   int start;
+    syntaxErrors.clear();
+    outline = collectOutline ? new ClassOutline() : null;
+    if (parallelParse && jj_pos == -1) {
+      Goal goal = jj_parallel_goal();
+      if (goal != null) {if (true) return goal;}
+    }
+    jj_recovered_pos = -2;
+    start = jj_pos;
+    try {
+      n0 = MainClass();
+    } catch (ParseException e) {
+      jj_recover(e, start, SYNC_CLASS);
+      n0 = null;
+    }
+    for (;;) {
+      label_1:
+      while (true) {
+        switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+        case CLASS:
+          ;
+          break;
+        default:
+          jj_la1[0] = jj_gen;
+          break label_1;
+        }
+        start = jj_pos;
+        try {
+          n2 = TypeDeclaration();
+            n1.addNode(n2);
+        } catch (ParseException e) {
+          jj_recover(e, start, SYNC_CLASS);
+        }
+      }
+      start = jj_pos;
+      try {
+        n4 = jj_consume_token(0);
         break;
-      default:
-        jj_la1[0] = jj_gen;
-        break label_1;
+      } catch (ParseException e) {
+        jj_recover(e, start, SYNC_CLASS);
       }
-      n2 = TypeDeclaration();
-        n1.addNode(n2);
     }
      n1.nodes.trimToSize();
-    n4 = jj_consume_token(0);
-      n4.beginColumn++; n4.endColumn++;
-      n3 = JTBToolkit.makeNodeToken(n4);
+      n4.offset++;
+      n3 = makeNodeToken(n4);
+    // There's no partial tree without a main class
+    if (n0 == null) {if (true) throw syntaxErrors.get(0);}
      {if (true) return new Goal(n0,n1,n3);}
     throw new Error("Missing return statement in function");
   }
@@ -67,32 +97,33 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    Token n31;
    NodeToken n32;
    Token n33;
+   int start;
     n1 = jj_consume_token(CLASS);
-                n0 = JTBToolkit.makeNodeToken(n1);
+                n0 = makeNodeToken(n1);
     n2 = Identifier();
     n4 = jj_consume_token(LBRACE);
-            n3 = JTBToolkit.makeNodeToken(n4);
+            n3 = makeNodeToken(n4);
     n6 = jj_consume_token(PUBLIC);
-                 n5 = JTBToolkit.makeNodeToken(n6);
+                 n5 = makeNodeToken(n6);
     n8 = jj_consume_token(STATIC);
-                 n7 = JTBToolkit.makeNodeToken(n8);
+                 n7 = makeNodeToken(n8);
     n10 = jj_consume_token(VOID);
-                n9 = JTBToolkit.makeNodeToken(n10);
+                n9 = makeNodeToken(n10);
     n12 = jj_consume_token(MAIN);
-                n11 = JTBToolkit.makeNodeToken(n12);
+                n11 = makeNodeToken(n12);
     n14 = jj_consume_token(LPAREN);
-             n13 = JTBToolkit.makeNodeToken(n14);
+             n13 = makeNodeToken(n14);
     n16 = jj_consume_token(STRING);
-                  n15 = JTBToolkit.makeNodeToken(n16);
+                  n15 = makeNodeToken(n16);
     n18 = jj_consume_token(LSQPAREN);
-             n17 = JTBToolkit.makeNodeToken(n18);
+             n17 = makeNodeToken(n18);
     n20 = jj_consume_token(RSQPAREN);
-             n19 = JTBToolkit.makeNodeToken(n20);
+             n19 = makeNodeToken(n20);
     n21 = Identifier();
     n23 = jj_consume_token(RPAREN);
-             n22 = JTBToolkit.makeNodeToken(n23);
+             n22 = makeNodeToken(n23);
     n25 = jj_consume_token(LBRACE);
-             n24 = JTBToolkit.makeNodeToken(n25);
+             n24 = makeNodeToken(n25);
     label_2:
     while (true) {
       if (jj_2_1(2)) {
@@ -100,8 +131,13 @@ public class MiniJavaParser implements MiniJavaParserConstants {
       } else {
         break label_2;
       }
-      n27 = VarDeclaration();
-        n26.addNode(n27);
+      start = jj_pos;
+      try {
+        n27 = VarDeclaration();
+          n26.addNode(n27);
+      } catch (ParseException e) {
+        jj_recover(e, start, SYNC_STATEMENT);
+      }
     }
      n26.nodes.trimToSize();
     label_3:
@@ -118,14 +154,18 @@ public class MiniJavaParser implements MiniJavaParserConstants {
         jj_la1[1] = jj_gen;
         break label_3;
       }
-      n29 = Statement();
-        n28.addNode(n29);
+      start = jj_pos;
+      try {
+        n29 = Statement();
+          n28.addNode(n29);
+      } catch (ParseException e) {
+        jj_recover(e, start, SYNC_STATEMENT);
+      }
     }
      n28.nodes.trimToSize();
-    n31 = jj_consume_token(RBRACE);
-             n30 = JTBToolkit.makeNodeToken(n31);
-    n33 = jj_consume_token(RBRACE);
-             n32 = JTBToolkit.makeNodeToken(n33);
+    n30 = jj_closing_brace();
+    n32 = jj_closing_brace();
+    if (outline != null) outline.addMainClass(n2, n26);
      {if (true) return new MainClass(n0,n2,n3,n5,n7,n9,n11,n13,n15,n17,n19,n21,n22,n24,n26,n28,n30,n32);}
     throw new Error("Missing return statement in function");
   }
@@ -165,11 +205,12 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    MethodDeclaration n8;
    NodeToken n9;
    Token n10;
+   int start;
     n1 = jj_consume_token(CLASS);
-                n0 = JTBToolkit.makeNodeToken(n1);
+                n0 = makeNodeToken(n1);
     n2 = Identifier();
     n4 = jj_consume_token(LBRACE);
-            n3 = JTBToolkit.makeNodeToken(n4);
+            n3 = makeNodeToken(n4);
     label_4:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
@@ -182,8 +223,13 @@ public class MiniJavaParser implements MiniJavaParserConstants {
         jj_la1[3] = jj_gen;
         break label_4;
       }
-      n6 = VarDeclaration();
-        n5.addNode(n6);
+      start = jj_pos;
+      try {
+        n6 = VarDeclaration();
+          n5.addNode(n6);
+      } catch (ParseException e) {
+        jj_recover(e, start, SYNC_STATEMENT);
+      }
     }
      n5.nodes.trimToSize();
     label_5:
@@ -196,12 +242,18 @@ public class MiniJavaParser implements MiniJavaParserConstants {
         jj_la1[4] = jj_gen;
         break label_5;
       }
-      n8 = MethodDeclaration();
-        n7.addNode(n8);
+      start = jj_pos;
+      jj_member_braces = jj_braces;
+      try {
+        n8 = MethodDeclaration();
+          n7.addNode(n8);
+      } catch (ParseException e) {
+        jj_recover(e, start, SYNC_MEMBER);
+      }
     }
      n7.nodes.trimToSize();
-    n10 = jj_consume_token(RBRACE);
-             n9 = JTBToolkit.makeNodeToken(n10);
+    n9 = jj_closing_brace();
+    if (outline != null) outline.addClass(n2, null, n5, n7);
      {if (true) return new ClassDeclaration(n0,n2,n3,n5,n7,n9);}
     throw new Error("Missing return statement in function");
   }
@@ -221,14 +273,15 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    MethodDeclaration n11;
    NodeToken n12;
    Token n13;
+   int start;
     n1 = jj_consume_token(CLASS);
-                n0 = JTBToolkit.makeNodeToken(n1);
+                n0 = makeNodeToken(n1);
     n2 = Identifier();
     n4 = jj_consume_token(EXTENDS);
-                  n3 = JTBToolkit.makeNodeToken(n4);
+                  n3 = makeNodeToken(n4);
     n5 = Identifier();
     n7 = jj_consume_token(LBRACE);
-            n6 = JTBToolkit.makeNodeToken(n7);
+            n6 = makeNodeToken(n7);
     label_6:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
@@ -241,8 +294,13 @@ public class MiniJavaParser implements MiniJavaParserConstants {
         jj_la1[5] = jj_gen;
         break label_6;
       }
-      n9 = VarDeclaration();
-        n8.addNode(n9);
+      start = jj_pos;
+      try {
+        n9 = VarDeclaration();
+          n8.addNode(n9);
+      } catch (ParseException e) {
+        jj_recover(e, start, SYNC_STATEMENT);
+      }
     }
      n8.nodes.trimToSize();
     label_7:
@@ -255,12 +313,18 @@ public class MiniJavaParser implements MiniJavaParserConstants {
         jj_la1[6] = jj_gen;
         break label_7;
       }
-      n11 = MethodDeclaration();
-        n10.addNode(n11);
+      start = jj_pos;
+      jj_member_braces = jj_braces;
+      try {
+        n11 = MethodDeclaration();
+          n10.addNode(n11);
+      } catch (ParseException e) {
+        jj_recover(e, start, SYNC_MEMBER);
+      }
     }
      n10.nodes.trimToSize();
-    n13 = jj_consume_token(RBRACE);
-             n12 = JTBToolkit.makeNodeToken(n13);
+    n12 = jj_closing_brace();
+    if (outline != null) outline.addClass(n2, n5, n8, n10);
      {if (true) return new ClassExtendsDeclaration(n0,n2,n3,n5,n6,n8,n10,n12);}
     throw new Error("Missing return statement in function");
   }
@@ -273,7 +337,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
     n0 = Type();
     n1 = Identifier();
     n3 = jj_consume_token(SEMICOLON);
-            n2 = JTBToolkit.makeNodeToken(n3);
+            n2 = makeNodeToken(n3);
      {if (true) return new VarDeclaration(n0,n1,n2);}
     throw new Error("Missing return statement in function");
   }
@@ -302,12 +366,14 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    Token n20;
    NodeToken n21;
    Token n22;
+   int start;
+   int end;
     n1 = jj_consume_token(PUBLIC);
-                 n0 = JTBToolkit.makeNodeToken(n1);
+                 n0 = makeNodeToken(n1);
     n2 = Type();
     n3 = Identifier();
     n5 = jj_consume_token(LPAREN);
-            n4 = JTBToolkit.makeNodeToken(n5);
+            n4 = makeNodeToken(n5);
     switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
     case BOOLEAN:
     case INTEGER:
@@ -320,9 +386,9 @@ public class MiniJavaParser implements MiniJavaParserConstants {
       ;
     }
     n9 = jj_consume_token(RPAREN);
-            n8 = JTBToolkit.makeNodeToken(n9);
+            n8 = makeNodeToken(n9);
     n11 = jj_consume_token(LBRACE);
-             n10 = JTBToolkit.makeNodeToken(n11);
+             n10 = makeNodeToken(n11);
     label_8:
     while (true) {
       if (jj_2_3(2)) {
@@ -330,10 +396,26 @@ public class MiniJavaParser implements MiniJavaParserConstants {
       } else {
         break label_8;
       }
-      n13 = VarDeclaration();
-        n12.addNode(n13);
+      start = jj_pos;
+      try {
+        n13 = VarDeclaration();
+          n12.addNode(n13);
+      } catch (ParseException e) {
+        jj_recover(e, start, SYNC_STATEMENT);
+      }
     }
      n12.nodes.trimToSize();
+    end = skimBodies ? jj_skim_body() : -1;
+    if (end >= 0) {
+      // The rest of the body is parsed when the method is visited
+      MethodDeclaration.Body body = new SkimmedBody(jj_window.packed(), jj_pos + 1, end, compactTree);
+      jj_window.skipTo(end - 1);
+      token = jj_window.token(jj_pos = end - 1);
+      jj_ntk = -1;
+      jj_gen++;
+      n21 = jj_closing_brace();
+      {if (true) return new MethodDeclaration(n0,n2,n3,n4,n6,n8,n10,n12,body,n21);}
+    }
     label_9:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
@@ -348,21 +430,65 @@ public class MiniJavaParser implements MiniJavaParserConstants {
         jj_la1[8] = jj_gen;
         break label_9;
       }
-      n15 = Statement();
-        n14.addNode(n15);
+      start = jj_pos;
+      try {
+        n15 = Statement();
+          n14.addNode(n15);
+      } catch (ParseException e) {
+        jj_recover(e, start, SYNC_STATEMENT);
+      }
     }
      n14.nodes.trimToSize();
     n17 = jj_consume_token(RETURN);
-                  n16 = JTBToolkit.makeNodeToken(n17);
+                  n16 = makeNodeToken(n17);
     n18 = Expression();
     n20 = jj_consume_token(SEMICOLON);
-             n19 = JTBToolkit.makeNodeToken(n20);
-    n22 = jj_consume_token(RBRACE);
-             n21 = JTBToolkit.makeNodeToken(n22);
+             n19 = makeNodeToken(n20);
+    n21 = jj_closing_brace();
      {if (true) return new MethodDeclaration(n0,n2,n3,n4,n6,n8,n10,n12,n14,n16,n18,n19,n21);}
     throw new Error("Missing return statement in function");
   }
 
+  // The statements and the return of a skimmed method, then the "}" that ends the input (see SkimmedBody)
+  final void MethodBody(MethodDeclaration n) throws ParseException {
+   NodeListOptional n14 = new NodeListOptional();
+   Statement n15;
+   NodeToken n16;
+   Token n17;
+   Expression n18;
+   NodeToken n19;
+   Token n20;
+    label_9:
+    while (true) {
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case LBRACE:
+      case IF:
+      case WHILE:
+      case PRINT:
+      case IDENTIFIER:
+        ;
+        break;
+      default:
+        jj_la1[8] = jj_gen;
+        break label_9;
+      }
+      n15 = Statement();
+        n14.addNode(n15);
+    }
+     n14.nodes.trimToSize();
+    n17 = jj_consume_token(RETURN);
+                  n16 = makeNodeToken(n17);
+    n18 = Expression();
+    n20 = jj_consume_token(SEMICOLON);
+             n19 = makeNodeToken(n20);
+    jj_consume_token(RBRACE);
+    jj_consume_token(EOF);
+    n.f8 = n14;
+    n.f9 = n16;
+    n.f10 = n18;
+    n.f11 = n19;
+  }
+
   final public FormalParameterList FormalParameterList() throws ParseException {
    FormalParameter n0;
    FormalParameterTail n1;
@@ -407,7 +533,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    Token n1;
    FormalParameter n2;
     n1 = jj_consume_token(47);
-            n0 = JTBToolkit.makeNodeToken(n1);
+            n0 = makeNodeToken(n1);
     n2 = FormalParameter();
      {if (true) return new FormalParameterTerm(n0,n2);}
     throw new Error("Missing return statement in function");
@@ -454,11 +580,11 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    NodeToken n4;
    Token n5;
     n1 = jj_consume_token(INTEGER);
-              n0 = JTBToolkit.makeNodeToken(n1);
+              n0 = makeNodeToken(n1);
     n3 = jj_consume_token(LSQPAREN);
-            n2 = JTBToolkit.makeNodeToken(n3);
+            n2 = makeNodeToken(n3);
     n5 = jj_consume_token(RSQPAREN);
-            n4 = JTBToolkit.makeNodeToken(n5);
+            n4 = makeNodeToken(n5);
      {if (true) return new ArrayType(n0,n2,n4);}
     throw new Error("Missing return statement in function");
   }
@@ -467,7 +593,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    NodeToken n0;
    Token n1;
     n1 = jj_consume_token(BOOLEAN);
-                  n0 = JTBToolkit.makeNodeToken(n1);
+                  n0 = makeNodeToken(n1);
      {if (true) return new BooleanType(n0);}
     throw new Error("Missing return statement in function");
   }
@@ -476,7 +602,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    NodeToken n0;
    Token n1;
     n1 = jj_consume_token(INTEGER);
-              n0 = JTBToolkit.makeNodeToken(n1);
+              n0 = makeNodeToken(n1);
      {if (true) return new IntegerType(n0);}
     throw new Error("Missing return statement in function");
   }
@@ -534,8 +660,9 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    Statement n3;
    NodeToken n4;
    Token n5;
+   int start;
     n1 = jj_consume_token(LBRACE);
-            n0 = JTBToolkit.makeNodeToken(n1);
+            n0 = makeNodeToken(n1);
     label_11:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
@@ -550,12 +677,17 @@ public class MiniJavaParser implements MiniJavaParserConstants {
         jj_la1[13] = jj_gen;
         break label_11;
       }
-      n3 = Statement();
-        n2.addNode(n3);
+      start = jj_pos;
+      try {
+        n3 = Statement();
+          n2.addNode(n3);
+      } catch (ParseException e) {
+        jj_recover(e, start, SYNC_STATEMENT);
+      }
     }
      n2.nodes.trimToSize();
     n5 = jj_consume_token(RBRACE);
-            n4 = JTBToolkit.makeNodeToken(n5);
+            n4 = makeNodeToken(n5);
      {if (true) return new Block(n0,n2,n4);}
     throw new Error("Missing return statement in function");
   }
@@ -569,10 +701,10 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    Token n5;
     n0 = Identifier();
     n2 = jj_consume_token(ASSIGN);
-            n1 = JTBToolkit.makeNodeToken(n2);
+            n1 = makeNodeToken(n2);
     n3 = Expression();
     n5 = jj_consume_token(SEMICOLON);
-            n4 = JTBToolkit.makeNodeToken(n5);
+            n4 = makeNodeToken(n5);
      {if (true) return new AssignmentStatement(n0,n1,n3,n4);}
     throw new Error("Missing return statement in function");
   }
@@ -591,15 +723,15 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    Token n10;
     n0 = Identifier();
     n2 = jj_consume_token(LSQPAREN);
-            n1 = JTBToolkit.makeNodeToken(n2);
+            n1 = makeNodeToken(n2);
     n3 = Expression();
     n5 = jj_consume_token(RSQPAREN);
-            n4 = JTBToolkit.makeNodeToken(n5);
+            n4 = makeNodeToken(n5);
     n7 = jj_consume_token(ASSIGN);
-            n6 = JTBToolkit.makeNodeToken(n7);
+            n6 = makeNodeToken(n7);
     n8 = Expression();
     n10 = jj_consume_token(SEMICOLON);
-             n9 = JTBToolkit.makeNodeToken(n10);
+             n9 = makeNodeToken(n10);
      {if (true) return new ArrayAssignmentStatement(n0,n1,n3,n4,n6,n8,n9);}
     throw new Error("Missing return statement in function");
   }
@@ -617,15 +749,15 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    Token n9;
    Statement n10;
     n1 = jj_consume_token(IF);
-             n0 = JTBToolkit.makeNodeToken(n1);
+             n0 = makeNodeToken(n1);
     n3 = jj_consume_token(LPAREN);
-            n2 = JTBToolkit.makeNodeToken(n3);
+            n2 = makeNodeToken(n3);
     n4 = Expression();
     n6 = jj_consume_token(RPAREN);
-            n5 = JTBToolkit.makeNodeToken(n6);
+            n5 = makeNodeToken(n6);
     n7 = Statement();
     n9 = jj_consume_token(ELSE);
-               n8 = JTBToolkit.makeNodeToken(n9);
+               n8 = makeNodeToken(n9);
     n10 = Statement();
      {if (true) return new IfStatement(n0,n2,n4,n5,n7,n8,n10);}
     throw new Error("Missing return statement in function");
@@ -641,12 +773,12 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    Token n6;
    Statement n7;
     n1 = jj_consume_token(WHILE);
-                n0 = JTBToolkit.makeNodeToken(n1);
+                n0 = makeNodeToken(n1);
     n3 = jj_consume_token(LPAREN);
-            n2 = JTBToolkit.makeNodeToken(n3);
+            n2 = makeNodeToken(n3);
     n4 = Expression();
     n6 = jj_consume_token(RPAREN);
-            n5 = JTBToolkit.makeNodeToken(n6);
+            n5 = makeNodeToken(n6);
     n7 = Statement();
      {if (true) return new WhileStatement(n0,n2,n4,n5,n7);}
     throw new Error("Missing return statement in function");
@@ -663,154 +795,214 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    NodeToken n7;
    Token n8;
     n1 = jj_consume_token(PRINT);
-                             n0 = JTBToolkit.makeNodeToken(n1);
+                             n0 = makeNodeToken(n1);
     n3 = jj_consume_token(LPAREN);
-            n2 = JTBToolkit.makeNodeToken(n3);
+            n2 = makeNodeToken(n3);
     n4 = Expression();
     n6 = jj_consume_token(RPAREN);
-            n5 = JTBToolkit.makeNodeToken(n6);
+            n5 = makeNodeToken(n6);
     n8 = jj_consume_token(SEMICOLON);
-            n7 = JTBToolkit.makeNodeToken(n8);
+            n7 = makeNodeToken(n8);
      {if (true) return new PrintStatement(n0,n2,n4,n5,n7);}
     throw new Error("Missing return statement in function");
   }
 
+  /**
+   * Expression is parsed left-factored: the leading Clause or PrimaryExpression
+   * is read exactly once and the operator token that follows it selects the
+   * production. This replaces the eight LOOKAHEAD(Clause() "&&"),
+   * LOOKAHEAD(PrimaryExpression() "<"), ... probes of minijava.jj, each of which
+   * scanned the whole operand again, so the cost per token no longer depends on
+   * how deeply BracketExpressions are nested. The produced nodes (and the
+   * NodeChoice indices) are the same as before.
+   */
   final public Expression Expression() throws ParseException {
    NodeChoice n0;
-   AndExpression n1;
-   CompareExpression n2;
-   PlusExpression n3;
-   MinusExpression n4;
-   TimesExpression n5;
-   ArrayLookup n6;
-   ArrayLength n7;
-   MessageSend n8;
-   Clause n9;
-    if (jj_2_7(2147483647)) {
-      n1 = AndExpression();
-        n0 = new NodeChoice(n1, 0);
-    } else if (jj_2_8(2147483647)) {
-      n2 = CompareExpression();
-        n0 = new NodeChoice(n2, 1);
-    } else if (jj_2_9(2147483647)) {
-      n3 = PlusExpression();
-        n0 = new NodeChoice(n3, 2);
-    } else if (jj_2_10(2147483647)) {
-      n4 = MinusExpression();
-        n0 = new NodeChoice(n4, 3);
-    } else if (jj_2_11(2147483647)) {
-      n5 = TimesExpression();
-        n0 = new NodeChoice(n5, 4);
-    } else if (jj_2_12(2147483647)) {
-      n6 = ArrayLookup();
-        n0 = new NodeChoice(n6, 5);
-    } else if (jj_2_13(2147483647)) {
-      n7 = ArrayLength();
-        n0 = new NodeChoice(n7, 6);
-    } else if (jj_2_14(2147483647)) {
-      n8 = MessageSend();
-        n0 = new NodeChoice(n8, 7);
-    } else {
+   Clause n1;
+   PrimaryExpression n2;
+    switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+    case NOT:
+      n1 = Clause();
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
-      case LPAREN:
-      case NOT:
-      case FALSE:
-      case NEW:
-      case THIS:
-      case TRUE:
-      case INTEGER_LITERAL:
-      case IDENTIFIER:
-        n9 = Clause();
-        n0 = new NodeChoice(n9, 8);
+      case AND:
+        n0 = new NodeChoice(AndExpression(n1), 0);
         break;
       default:
-        jj_la1[14] = jj_gen;
-        jj_consume_token(-1);
-        throw new ParseException();
+        jj_la1[20] = jj_gen;
+        n0 = new NodeChoice(n1, 8);
       }
+      break;
+    case LPAREN:
+    case FALSE:
+    case NEW:
+    case THIS:
+    case TRUE:
+    case INTEGER_LITERAL:
+    case IDENTIFIER:
+      n2 = PrimaryExpression();
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case AND:
+        n0 = new NodeChoice(AndExpression(new Clause(new NodeChoice(n2, 1))), 0);
+        break;
+      case LT:
+        n0 = new NodeChoice(CompareExpression(n2), 1);
+        break;
+      case PLUS:
+        n0 = new NodeChoice(PlusExpression(n2), 2);
+        break;
+      case MINUS:
+        n0 = new NodeChoice(MinusExpression(n2), 3);
+        break;
+      case 48:
+        n0 = new NodeChoice(TimesExpression(n2), 4);
+        break;
+      case LSQPAREN:
+        n0 = new NodeChoice(ArrayLookup(n2), 5);
+        break;
+      case DOT:
+        n0 = DotExpression(n2);
+        break;
+      default:
+        jj_la1[21] = jj_gen;
+        n0 = new NodeChoice(new Clause(new NodeChoice(n2, 1)), 8);
+      }
+      break;
+    default:
+      jj_la1[14] = jj_gen;
+      jj_consume_token(-1);
+      throw new ParseException();
     }
      {if (true) return new Expression(n0);}
     throw new Error("Missing return statement in function");
   }
 
+  /** ArrayLength or MessageSend, after their PrimaryExpression; decided by the token following ".". */
+  private NodeChoice DotExpression(PrimaryExpression n0) throws ParseException {
+   NodeToken n1;
+   Token n2;
+   NodeToken n3;
+   Token n4;
+    n2 = jj_consume_token(DOT);
+            n1 = makeNodeToken(n2);
+    switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+    case LENGTH:
+      n4 = jj_consume_token(LENGTH);
+                 n3 = makeNodeToken(n4);
+      {if (true) return new NodeChoice(new ArrayLength(n0,n1,n3), 6);}
+      break;
+    case IDENTIFIER:
+      {if (true) return new NodeChoice(MessageSend(n0,n1), 7);}
+      break;
+    default:
+      jj_la1[22] = jj_gen;
+      jj_consume_token(-1);
+      throw new ParseException();
+    }
+    throw new Error("Missing return statement in function");
+  }
+
   final public AndExpression AndExpression() throws ParseException {
-   Clause n0;
+    {if (true) return AndExpression(Clause());}
+    throw new Error("Missing return statement in function");
+  }
+
+  /** AndExpression, after its first Clause. */
+  private AndExpression AndExpression(Clause n0) throws ParseException {
    NodeToken n1;
    Token n2;
    Clause n3;
-    n0 = Clause();
     n2 = jj_consume_token(AND);
-             n1 = JTBToolkit.makeNodeToken(n2);
+             n1 = makeNodeToken(n2);
     n3 = Clause();
      {if (true) return new AndExpression(n0,n1,n3);}
     throw new Error("Missing return statement in function");
   }
 
   final public CompareExpression CompareExpression() throws ParseException {
-   PrimaryExpression n0;
+    {if (true) return CompareExpression(PrimaryExpression());}
+    throw new Error("Missing return statement in function");
+  }
+
+  /** CompareExpression, after its first PrimaryExpression. */
+  private CompareExpression CompareExpression(PrimaryExpression n0) throws ParseException {
    NodeToken n1;
    Token n2;
    PrimaryExpression n3;
-    n0 = PrimaryExpression();
     n2 = jj_consume_token(LT);
-            n1 = JTBToolkit.makeNodeToken(n2);
+            n1 = makeNodeToken(n2);
     n3 = PrimaryExpression();
      {if (true) return new CompareExpression(n0,n1,n3);}
     throw new Error("Missing return statement in function");
   }
 
   final public PlusExpression PlusExpression() throws ParseException {
-   PrimaryExpression n0;
+    {if (true) return PlusExpression(PrimaryExpression());}
+    throw new Error("Missing return statement in function");
+  }
+
+  /** PlusExpression, after its first PrimaryExpression. */
+  private PlusExpression PlusExpression(PrimaryExpression n0) throws ParseException {
    NodeToken n1;
    Token n2;
    PrimaryExpression n3;
-    n0 = PrimaryExpression();
     n2 = jj_consume_token(PLUS);
-            n1 = JTBToolkit.makeNodeToken(n2);
+            n1 = makeNodeToken(n2);
     n3 = PrimaryExpression();
      {if (true) return new PlusExpression(n0,n1,n3);}
     throw new Error("Missing return statement in function");
   }
 
   final public MinusExpression MinusExpression() throws ParseException {
-   PrimaryExpression n0;
+    {if (true) return MinusExpression(PrimaryExpression());}
+    throw new Error("Missing return statement in function");
+  }
+
+  /** MinusExpression, after its first PrimaryExpression. */
+  private MinusExpression MinusExpression(PrimaryExpression n0) throws ParseException {
    NodeToken n1;
    Token n2;
    PrimaryExpression n3;
-    n0 = PrimaryExpression();
     n2 = jj_consume_token(MINUS);
-            n1 = JTBToolkit.makeNodeToken(n2);
+            n1 = makeNodeToken(n2);
     n3 = PrimaryExpression();
      {if (true) return new MinusExpression(n0,n1,n3);}
     throw new Error("Missing return statement in function");
   }
 
   final public TimesExpression TimesExpression() throws ParseException {
-   PrimaryExpression n0;
+    {if (true) return TimesExpression(PrimaryExpression());}
+    throw new Error("Missing return statement in function");
+  }
+
+  /** TimesExpression, after its first PrimaryExpression. */
+  private TimesExpression TimesExpression(PrimaryExpression n0) throws ParseException {
    NodeToken n1;
    Token n2;
    PrimaryExpression n3;
-    n0 = PrimaryExpression();
     n2 = jj_consume_token(48);
-            n1 = JTBToolkit.makeNodeToken(n2);
+            n1 = makeNodeToken(n2);
     n3 = PrimaryExpression();
      {if (true) return new TimesExpression(n0,n1,n3);}
     throw new Error("Missing return statement in function");
   }
 
   final public ArrayLookup ArrayLookup() throws ParseException {
-   PrimaryExpression n0;
+    {if (true) return ArrayLookup(PrimaryExpression());}
+    throw new Error("Missing return statement in function");
+  }
+
+  /** ArrayLookup, after its first PrimaryExpression. */
+  private ArrayLookup ArrayLookup(PrimaryExpression n0) throws ParseException {
    NodeToken n1;
    Token n2;
    PrimaryExpression n3;
    NodeToken n4;
    Token n5;
-    n0 = PrimaryExpression();
     n2 = jj_consume_token(LSQPAREN);
-            n1 = JTBToolkit.makeNodeToken(n2);
+            n1 = makeNodeToken(n2);
     n3 = PrimaryExpression();
     n5 = jj_consume_token(RSQPAREN);
-            n4 = JTBToolkit.makeNodeToken(n5);
+            n4 = makeNodeToken(n5);
      {if (true) return new ArrayLookup(n0,n1,n3,n4);}
     throw new Error("Missing return statement in function");
   }
@@ -823,9 +1015,9 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    Token n4;
     n0 = PrimaryExpression();
     n2 = jj_consume_token(DOT);
-            n1 = JTBToolkit.makeNodeToken(n2);
+            n1 = makeNodeToken(n2);
     n4 = jj_consume_token(LENGTH);
-                 n3 = JTBToolkit.makeNodeToken(n4);
+                 n3 = makeNodeToken(n4);
      {if (true) return new ArrayLength(n0,n1,n3);}
     throw new Error("Missing return statement in function");
   }
@@ -834,6 +1026,15 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    PrimaryExpression n0;
    NodeToken n1;
    Token n2;
+    n0 = PrimaryExpression();
+    n2 = jj_consume_token(DOT);
+            n1 = makeNodeToken(n2);
+     {if (true) return MessageSend(n0,n1);}
+    throw new Error("Missing return statement in function");
+  }
+
+  /** MessageSend, after its PrimaryExpression and ".". */
+  private MessageSend MessageSend(PrimaryExpression n0, NodeToken n1) throws ParseException {
    Identifier n3;
    NodeToken n4;
    Token n5;
@@ -841,12 +1042,9 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    ExpressionList n7;
    NodeToken n8;
    Token n9;
-    n0 = PrimaryExpression();
-    n2 = jj_consume_token(DOT);
-            n1 = JTBToolkit.makeNodeToken(n2);
     n3 = Identifier();
     n5 = jj_consume_token(LPAREN);
-            n4 = JTBToolkit.makeNodeToken(n5);
+            n4 = makeNodeToken(n5);
     switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
     case LPAREN:
     case NOT:
@@ -864,7 +1062,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
       ;
     }
     n9 = jj_consume_token(RPAREN);
-            n8 = JTBToolkit.makeNodeToken(n9);
+            n8 = makeNodeToken(n9);
      {if (true) return new MessageSend(n0,n1,n3,n4,n6,n8);}
     throw new Error("Missing return statement in function");
   }
@@ -904,7 +1102,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    Token n1;
    Expression n2;
     n1 = jj_consume_token(47);
-            n0 = JTBToolkit.makeNodeToken(n1);
+            n0 = makeNodeToken(n1);
     n2 = Expression();
      {if (true) return new ExpressionTerm(n0,n2);}
     throw new Error("Missing return statement in function");
@@ -971,7 +1169,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
       break;
     default:
       jj_la1[18] = jj_gen;
-      if (jj_2_15(3)) {
+      if (jj_2_7(3)) {
         n6 = ArrayAllocationExpression();
         n0 = new NodeChoice(n6, 5);
       } else {
@@ -999,7 +1197,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    NodeToken n0;
    Token n1;
     n1 = jj_consume_token(INTEGER_LITERAL);
-                          n0 = JTBToolkit.makeNodeToken(n1);
+                          n0 = makeNodeToken(n1);
      {if (true) return new IntegerLiteral(n0);}
     throw new Error("Missing return statement in function");
   }
@@ -1008,7 +1206,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    NodeToken n0;
    Token n1;
     n1 = jj_consume_token(TRUE);
-               n0 = JTBToolkit.makeNodeToken(n1);
+               n0 = makeNodeToken(n1);
      {if (true) return new TrueLiteral(n0);}
     throw new Error("Missing return statement in function");
   }
@@ -1017,7 +1215,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    NodeToken n0;
    Token n1;
     n1 = jj_consume_token(FALSE);
-                n0 = JTBToolkit.makeNodeToken(n1);
+                n0 = makeNodeToken(n1);
      {if (true) return new FalseLiteral(n0);}
     throw new Error("Missing return statement in function");
   }
@@ -1026,7 +1224,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    NodeToken n0;
    Token n1;
     n1 = jj_consume_token(IDENTIFIER);
-                     n0 = JTBToolkit.makeNodeToken(n1);
+                     n0 = makeNodeToken(n1);
      {if (true) return new Identifier(n0);}
     throw new Error("Missing return statement in function");
   }
@@ -1035,7 +1233,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    NodeToken n0;
    Token n1;
     n1 = jj_consume_token(THIS);
-               n0 = JTBToolkit.makeNodeToken(n1);
+               n0 = makeNodeToken(n1);
      {if (true) return new ThisExpression(n0);}
     throw new Error("Missing return statement in function");
   }
@@ -1051,14 +1249,14 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    NodeToken n7;
    Token n8;
     n1 = jj_consume_token(NEW);
-              n0 = JTBToolkit.makeNodeToken(n1);
+              n0 = makeNodeToken(n1);
     n3 = jj_consume_token(INTEGER);
-              n2 = JTBToolkit.makeNodeToken(n3);
+              n2 = makeNodeToken(n3);
     n5 = jj_consume_token(LSQPAREN);
-            n4 = JTBToolkit.makeNodeToken(n5);
+            n4 = makeNodeToken(n5);
     n6 = Expression();
     n8 = jj_consume_token(RSQPAREN);
-            n7 = JTBToolkit.makeNodeToken(n8);
+            n7 = makeNodeToken(n8);
      {if (true) return new ArrayAllocationExpression(n0,n2,n4,n6,n7);}
     throw new Error("Missing return statement in function");
   }
@@ -1072,12 +1270,12 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    NodeToken n5;
    Token n6;
     n1 = jj_consume_token(NEW);
-              n0 = JTBToolkit.makeNodeToken(n1);
+              n0 = makeNodeToken(n1);
     n2 = Identifier();
     n4 = jj_consume_token(LPAREN);
-            n3 = JTBToolkit.makeNodeToken(n4);
+            n3 = makeNodeToken(n4);
     n6 = jj_consume_token(RPAREN);
-            n5 = JTBToolkit.makeNodeToken(n6);
+            n5 = makeNodeToken(n6);
      {if (true) return new AllocationExpression(n0,n2,n3,n5);}
     throw new Error("Missing return statement in function");
   }
@@ -1087,7 +1285,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    Token n1;
    Clause n2;
     n1 = jj_consume_token(NOT);
-            n0 = JTBToolkit.makeNodeToken(n1);
+            n0 = makeNodeToken(n1);
     n2 = Clause();
      {if (true) return new NotExpression(n0,n2);}
     throw new Error("Missing return statement in function");
@@ -1100,119 +1298,63 @@ public class MiniJavaParser implements MiniJavaParserConstants {
    NodeToken n3;
    Token n4;
     n1 = jj_consume_token(LPAREN);
-            n0 = JTBToolkit.makeNodeToken(n1);
+            n0 = makeNodeToken(n1);
     n2 = Expression();
     n4 = jj_consume_token(RPAREN);
-            n3 = JTBToolkit.makeNodeToken(n4);
+            n3 = makeNodeToken(n4);
      {if (true) return new BracketExpression(n0,n2,n3);}
     throw new Error("Missing return statement in function");
   }
 
   private boolean jj_2_1(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
+    jj_la = xla; jj_lastpos = jj_scanpos = jj_pos;
     try { return !jj_3_1(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(0, xla); }
   }
 
   private boolean jj_2_2(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
+    jj_la = xla; jj_lastpos = jj_scanpos = jj_pos;
     try { return !jj_3_2(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(1, xla); }
   }
 
   private boolean jj_2_3(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
+    jj_la = xla; jj_lastpos = jj_scanpos = jj_pos;
     try { return !jj_3_3(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(2, xla); }
   }
 
   private boolean jj_2_4(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
+    jj_la = xla; jj_lastpos = jj_scanpos = jj_pos;
     try { return !jj_3_4(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(3, xla); }
   }
 
   private boolean jj_2_5(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
+    jj_la = xla; jj_lastpos = jj_scanpos = jj_pos;
     try { return !jj_3_5(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(4, xla); }
   }
 
   private boolean jj_2_6(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
+    jj_la = xla; jj_lastpos = jj_scanpos = jj_pos;
     try { return !jj_3_6(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(5, xla); }
   }
 
   private boolean jj_2_7(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
+    jj_la = xla; jj_lastpos = jj_scanpos = jj_pos;
     try { return !jj_3_7(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(6, xla); }
   }
 
-  private boolean jj_2_8(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
-    try { return !jj_3_8(); }
-    catch(LookaheadSuccess ls) { return true; }
-    finally { jj_save(7, xla); }
-  }
-
-  private boolean jj_2_9(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
-    try { return !jj_3_9(); }
-    catch(LookaheadSuccess ls) { return true; }
-    finally { jj_save(8, xla); }
-  }
-
-  private boolean jj_2_10(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
-    try { return !jj_3_10(); }
-    catch(LookaheadSuccess ls) { return true; }
-    finally { jj_save(9, xla); }
-  }
-
-  private boolean jj_2_11(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
-    try { return !jj_3_11(); }
-    catch(LookaheadSuccess ls) { return true; }
-    finally { jj_save(10, xla); }
-  }
-
-  private boolean jj_2_12(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
-    try { return !jj_3_12(); }
-    catch(LookaheadSuccess ls) { return true; }
-    finally { jj_save(11, xla); }
-  }
-
-  private boolean jj_2_13(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
-    try { return !jj_3_13(); }
-    catch(LookaheadSuccess ls) { return true; }
-    finally { jj_save(12, xla); }
-  }
-
-  private boolean jj_2_14(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
-    try { return !jj_3_14(); }
-    catch(LookaheadSuccess ls) { return true; }
-    finally { jj_save(13, xla); }
-  }
-
-  private boolean jj_2_15(int xla) {
-    jj_la = xla; jj_lastpos = jj_scanpos = token;
-    try { return !jj_3_15(); }
-    catch(LookaheadSuccess ls) { return true; }
-    finally { jj_save(14, xla); }
-  }
-
   private boolean jj_3R_41() {
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_44()) return true;
@@ -1221,7 +1363,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
   }
 
   private boolean jj_3R_18() {
-    Token xsp;
+    int xsp;
     xsp = jj_scanpos;
     if (jj_3R_23()) {
     jj_scanpos = xsp;
@@ -1247,79 +1389,27 @@ public class MiniJavaParser implements MiniJavaParserConstants {
     return false;
   }
 
-  private boolean jj_3R_54() {
-    if (jj_3R_18()) return true;
-    if (jj_scan_token(AND)) return true;
-    if (jj_3R_18()) return true;
-    return false;
-  }
-
-  private boolean jj_3R_66() {
-    if (jj_scan_token(47)) return true;
-    if (jj_3R_44()) return true;
-    return false;
-  }
-
-  private boolean jj_3R_59() {
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(LSQPAREN)) return true;
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(RSQPAREN)) return true;
-    return false;
-  }
-
   private boolean jj_3R_35() {
     if (jj_scan_token(NOT)) return true;
     if (jj_3R_18()) return true;
     return false;
   }
 
-  private boolean jj_3_14() {
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(DOT)) return true;
-    if (jj_3R_20()) return true;
-    if (jj_scan_token(LPAREN)) return true;
-    return false;
-  }
-
   private boolean jj_3R_37() {
     if (jj_scan_token(TRUE)) return true;
     return false;
   }
 
-  private boolean jj_3_13() {
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(DOT)) return true;
-    if (jj_scan_token(LENGTH)) return true;
-    return false;
-  }
-
-  private boolean jj_3R_53() {
-    if (jj_3R_18()) return true;
-    return false;
-  }
-
   private boolean jj_3R_34() {
     if (jj_3R_20()) return true;
     return false;
   }
 
-  private boolean jj_3_12() {
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(LSQPAREN)) return true;
-    return false;
-  }
-
   private boolean jj_3R_33() {
     if (jj_3R_43()) return true;
     return false;
   }
 
-  private boolean jj_3R_52() {
-    if (jj_3R_61()) return true;
-    return false;
-  }
-
   private boolean jj_3_3() {
     if (jj_3R_13()) return true;
     return false;
@@ -1330,22 +1420,6 @@ public class MiniJavaParser implements MiniJavaParserConstants {
     return false;
   }
 
-  private boolean jj_3_11() {
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(48)) return true;
-    return false;
-  }
-
-  private boolean jj_3R_65() {
-    if (jj_3R_66()) return true;
-    return false;
-  }
-
-  private boolean jj_3R_51() {
-    if (jj_3R_60()) return true;
-    return false;
-  }
-
   private boolean jj_3R_36() {
     if (jj_scan_token(INTEGER_LITERAL)) return true;
     return false;
@@ -1356,12 +1430,6 @@ public class MiniJavaParser implements MiniJavaParserConstants {
     return false;
   }
 
-  private boolean jj_3_10() {
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(MINUS)) return true;
-    return false;
-  }
-
   private boolean jj_3R_40() {
     if (jj_scan_token(NEW)) return true;
     if (jj_3R_20()) return true;
@@ -1370,29 +1438,8 @@ public class MiniJavaParser implements MiniJavaParserConstants {
     return false;
   }
 
-  private boolean jj_3R_64() {
-    Token xsp;
-    while (true) {
-      xsp = jj_scanpos;
-      if (jj_3R_65()) { jj_scanpos = xsp; break; }
-    }
-    return false;
-  }
-
-  private boolean jj_3R_50() {
-    if (jj_3R_59()) return true;
-    return false;
-  }
-
-  private boolean jj_3R_58() {
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(48)) return true;
-    if (jj_3R_19()) return true;
-    return false;
-  }
-
   private boolean jj_3R_22() {
-    Token xsp;
+    int xsp;
     xsp = jj_scanpos;
     if (jj_3_4()) {
     jj_scanpos = xsp;
@@ -1407,70 +1454,26 @@ public class MiniJavaParser implements MiniJavaParserConstants {
     return false;
   }
 
-  private boolean jj_3_9() {
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(PLUS)) return true;
-    return false;
-  }
-
-  private boolean jj_3R_49() {
-    if (jj_3R_58()) return true;
-    return false;
-  }
-
-  private boolean jj_3_8() {
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(LT)) return true;
-    return false;
-  }
-
-  private boolean jj_3R_48() {
-    if (jj_3R_57()) return true;
-    return false;
-  }
-
   private boolean jj_3_6() {
     if (jj_3R_17()) return true;
     return false;
   }
 
-  private boolean jj_3_7() {
-    if (jj_3R_18()) return true;
-    if (jj_scan_token(AND)) return true;
-    return false;
-  }
-
   private boolean jj_3R_31() {
     if (jj_3R_41()) return true;
     return false;
   }
 
-  private boolean jj_3R_47() {
-    if (jj_3R_56()) return true;
-    return false;
-  }
-
   private boolean jj_3R_30() {
     if (jj_3R_40()) return true;
     return false;
   }
 
-  private boolean jj_3R_63() {
-    if (jj_3R_44()) return true;
-    if (jj_3R_64()) return true;
-    return false;
-  }
-
   private boolean jj_3_5() {
     if (jj_3R_16()) return true;
     return false;
   }
 
-  private boolean jj_3R_46() {
-    if (jj_3R_55()) return true;
-    return false;
-  }
-
   private boolean jj_3R_14() {
     if (jj_scan_token(CLASS)) return true;
     if (jj_3R_20()) return true;
@@ -1478,23 +1481,11 @@ public class MiniJavaParser implements MiniJavaParserConstants {
     return false;
   }
 
-  private boolean jj_3_15() {
+  private boolean jj_3_7() {
     if (jj_3R_21()) return true;
     return false;
   }
 
-  private boolean jj_3R_57() {
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(MINUS)) return true;
-    if (jj_3R_19()) return true;
-    return false;
-  }
-
-  private boolean jj_3R_45() {
-    if (jj_3R_54()) return true;
-    return false;
-  }
-
   private boolean jj_3R_29() {
     if (jj_3R_39()) return true;
     return false;
@@ -1515,11 +1506,30 @@ public class MiniJavaParser implements MiniJavaParserConstants {
   }
 
   private boolean jj_3R_44() {
-    Token xsp;
+    int xsp;
     xsp = jj_scanpos;
-    if (jj_3R_45()) {
+    if (jj_3R_35()) {
     jj_scanpos = xsp;
-    if (jj_3R_46()) {
+    if (jj_3R_19()) return true;
+    xsp = jj_scanpos;
+    if (jj_3R_46()) jj_scanpos = xsp;
+    return false;
+    }
+    xsp = jj_scanpos;
+    if (jj_3R_45()) jj_scanpos = xsp;
+    return false;
+  }
+
+  private boolean jj_3R_45() {
+    if (jj_scan_token(AND)) return true;
+    if (jj_3R_18()) return true;
+    return false;
+  }
+
+  private boolean jj_3R_46() {
+    int xsp;
+    xsp = jj_scanpos;
+    if (jj_3R_45()) {
     jj_scanpos = xsp;
     if (jj_3R_47()) {
     jj_scanpos = xsp;
@@ -1541,57 +1551,96 @@ public class MiniJavaParser implements MiniJavaParserConstants {
     }
     }
     }
-    }
     return false;
   }
 
-  private boolean jj_3R_27() {
-    if (jj_3R_38()) return true;
+  private boolean jj_3R_47() {
+    if (jj_scan_token(LT)) return true;
+    if (jj_3R_19()) return true;
     return false;
   }
 
-  private boolean jj_3R_62() {
-    if (jj_3R_63()) return true;
+  private boolean jj_3R_48() {
+    if (jj_scan_token(PLUS)) return true;
+    if (jj_3R_19()) return true;
     return false;
   }
 
-  private boolean jj_3R_26() {
-    if (jj_3R_37()) return true;
+  private boolean jj_3R_49() {
+    if (jj_scan_token(MINUS)) return true;
+    if (jj_3R_19()) return true;
     return false;
   }
 
-  private boolean jj_3R_17() {
-    if (jj_3R_20()) return true;
+  private boolean jj_3R_50() {
+    if (jj_scan_token(48)) return true;
+    if (jj_3R_19()) return true;
+    return false;
+  }
+
+  private boolean jj_3R_51() {
     if (jj_scan_token(LSQPAREN)) return true;
+    if (jj_3R_19()) return true;
+    if (jj_scan_token(RSQPAREN)) return true;
     return false;
   }
 
-  private boolean jj_3R_25() {
-    if (jj_3R_36()) return true;
+  private boolean jj_3R_52() {
+    if (jj_scan_token(DOT)) return true;
+    if (jj_scan_token(LENGTH)) return true;
     return false;
   }
 
-  private boolean jj_3R_61() {
-    if (jj_3R_19()) return true;
+  private boolean jj_3R_53() {
     if (jj_scan_token(DOT)) return true;
     if (jj_3R_20()) return true;
     if (jj_scan_token(LPAREN)) return true;
-    Token xsp;
+    int xsp;
     xsp = jj_scanpos;
-    if (jj_3R_62()) jj_scanpos = xsp;
+    if (jj_3R_54()) jj_scanpos = xsp;
     if (jj_scan_token(RPAREN)) return true;
     return false;
   }
 
-  private boolean jj_3R_56() {
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(PLUS)) return true;
-    if (jj_3R_19()) return true;
+  private boolean jj_3R_54() {
+    if (jj_3R_44()) return true;
+    int xsp;
+    while (true) {
+      xsp = jj_scanpos;
+      if (jj_3R_55()) { jj_scanpos = xsp; break; }
+    }
+    return false;
+  }
+
+  private boolean jj_3R_55() {
+    if (jj_scan_token(47)) return true;
+    if (jj_3R_44()) return true;
+    return false;
+  }
+
+  private boolean jj_3R_27() {
+    if (jj_3R_38()) return true;
+    return false;
+  }
+
+  private boolean jj_3R_26() {
+    if (jj_3R_37()) return true;
+    return false;
+  }
+
+  private boolean jj_3R_17() {
+    if (jj_3R_20()) return true;
+    if (jj_scan_token(LSQPAREN)) return true;
+    return false;
+  }
+
+  private boolean jj_3R_25() {
+    if (jj_3R_36()) return true;
     return false;
   }
 
   private boolean jj_3R_19() {
-    Token xsp;
+    int xsp;
     xsp = jj_scanpos;
     if (jj_3R_25()) {
     jj_scanpos = xsp;
@@ -1603,7 +1652,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
     jj_scanpos = xsp;
     if (jj_3R_29()) {
     jj_scanpos = xsp;
-    if (jj_3_15()) {
+    if (jj_3_7()) {
     jj_scanpos = xsp;
     if (jj_3R_30()) {
     jj_scanpos = xsp;
@@ -1639,13 +1688,6 @@ public class MiniJavaParser implements MiniJavaParserConstants {
     return false;
   }
 
-  private boolean jj_3R_55() {
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(LT)) return true;
-    if (jj_3R_19()) return true;
-    return false;
-  }
-
   private boolean jj_3R_42() {
     if (jj_scan_token(BOOLEAN)) return true;
     return false;
@@ -1667,13 +1709,6 @@ public class MiniJavaParser implements MiniJavaParserConstants {
     return false;
   }
 
-  private boolean jj_3R_60() {
-    if (jj_3R_19()) return true;
-    if (jj_scan_token(DOT)) return true;
-    if (jj_scan_token(LENGTH)) return true;
-    return false;
-  }
-
   private boolean jj_3R_23() {
     if (jj_3R_35()) return true;
     return false;
@@ -1684,13 +1719,38 @@ public class MiniJavaParser implements MiniJavaParserConstants {
   JavaCharStream jj_input_stream;
   /** Current token. */
   public Token token;
-  /** Next token. */
-  public Token jj_nt;
+  /** Tokens read so far, see TokenWindow. */
+  private TokenWindow jj_window;
+  /** Index of the current token in jj_window (-1 before the first token). */
+  private int jj_pos;
+  /** Whether fixed tokens are shared NodeTokens, see setCompactTree. */
+  private boolean compactTree;
+  /** Whether Goal() parses the top-level declarations in parallel, see setParallelParse. */
+  private boolean parallelParse;
+  /** Whether the statements of method bodies are parsed only when they're visited, see setSkimBodies. */
+  private boolean skimBodies;
+  /** Whether Goal() collects the outline of the source, see setCollectOutline. */
+  private boolean collectOutline;
+  /** The outline of the declarations parsed since Goal() started, null if it isn't collected. */
+  private ClassOutline outline;
+  /** Whether Goal() recovers from syntax errors, see setErrorRecovery. */
+  private boolean errorRecovery;
+  /** The syntax errors Goal() has recovered from. */
+  private final java.util.List<ParseException> syntaxErrors = new java.util.ArrayList<ParseException>();
+  /** jj_pos where the last recovery stopped: an error right there follows from the one recovered from. */
+  private int jj_recovered_pos;
+  /** Number of "{" consumed so far less the number of "}", and its value when the method being parsed started. */
+  private int jj_braces;
+  private int jj_member_braces;
+  /** Where jj_recover resynchronizes: after a statement, a method declaration or a class declaration. */
+  private static final int SYNC_STATEMENT = 0;
+  private static final int SYNC_MEMBER = 1;
+  private static final int SYNC_CLASS = 2;
   private int jj_ntk;
-  private Token jj_scanpos, jj_lastpos;
+  private int jj_scanpos, jj_lastpos;
   private int jj_la;
   private int jj_gen;
-  final private int[] jj_la1 = new int[20];
+  final private int[] jj_la1 = new int[23];
   static private int[] jj_la1_0;
   static private int[] jj_la1_1;
   static {
@@ -1698,14 +1758,13 @@ public class MiniJavaParser implements MiniJavaParserConstants {
       jj_la1_init_1();
    }
    private static void jj_la1_init_0() {
-      jj_la1_0 = new int[] {0x1000000,0x60002000,0x1000000,0x80800000,0x0,0x80800000,0x0,0x80800000,0x60002000,0x0,0x80800000,0x2000,0x60000000,0x60002000,0x10400200,0x10400200,0x0,0x10400200,0x10000000,0x200,};
+      jj_la1_0 = new int[] {0x1000000,0x60002000,0x1000000,0x80800000,0x0,0x80800000,0x0,0x80800000,0x60002000,0x0,0x80800000,0x2000,0x60000000,0x60002000,0x10400200,0x10400200,0x0,0x10400200,0x10000000,0x200,0x200000,0x3d0800,0x0,};
    }
    private static void jj_la1_init_1() {
-      jj_la1_1 = new int[] {0x0,0x1200,0x0,0x1000,0x8,0x1000,0x8,0x1000,0x1200,0x8000,0x1000,0x0,0x200,0x1200,0x1984,0x1984,0x8000,0x1984,0x1980,0x4,};
+      jj_la1_1 = new int[] {0x0,0x1200,0x0,0x1000,0x8,0x1000,0x8,0x1000,0x1200,0x8000,0x1000,0x0,0x200,0x1200,0x1984,0x1984,0x8000,0x1984,0x1980,0x4,0x0,0x10000,0x1001,};
    }
-  final private JJCalls[] jj_2_rtns = new JJCalls[15];
+  final private JJCalls[] jj_2_rtns = new JJCalls[7];
   private boolean jj_rescan = false;
-  private int jj_gc = 0;
 
   /** Constructor with InputStream. */
   public MiniJavaParser(java.io.InputStream stream) {
@@ -1715,10 +1774,12 @@ public class MiniJavaParser implements MiniJavaParserConstants {
   public MiniJavaParser(java.io.InputStream stream, String encoding) {
     try { jj_input_stream = new JavaCharStream(stream, encoding, 1, 1); } catch(java.io.UnsupportedEncodingException e) { throw new RuntimeException(e); }
     token_source = new MiniJavaParserTokenManager(jj_input_stream);
-    token = new Token();
+    jj_window = new TokenWindow(token_source);
+    token = jj_window.token(jj_pos = -1);
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 20; i++) jj_la1[i] = -1;
+    jj_braces = 0;
+    for (int i = 0; i < 23; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1730,21 +1791,26 @@ public class MiniJavaParser implements MiniJavaParserConstants {
   public void ReInit(java.io.InputStream stream, String encoding) {
     try { jj_input_stream.ReInit(stream, encoding, 1, 1); } catch(java.io.UnsupportedEncodingException e) { throw new RuntimeException(e); }
     token_source.ReInit(jj_input_stream);
-    token = new Token();
+    token = jj_window.reset(token_source);
+    jj_pos = -1;
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 20; i++) jj_la1[i] = -1;
-    for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
+    jj_braces = 0;
+    for (int i = 0; i < 23; i++) jj_la1[i] = -1;
+    jj_reset_calls();
+    syntaxErrors.clear();
   }
 
   /** Constructor. */
   public MiniJavaParser(java.io.Reader stream) {
     jj_input_stream = new JavaCharStream(stream, 1, 1);
     token_source = new MiniJavaParserTokenManager(jj_input_stream);
-    token = new Token();
+    jj_window = new TokenWindow(token_source);
+    token = jj_window.token(jj_pos = -1);
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 20; i++) jj_la1[i] = -1;
+    jj_braces = 0;
+    for (int i = 0; i < 23; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1752,53 +1818,389 @@ public class MiniJavaParser implements MiniJavaParserConstants {
   public void ReInit(java.io.Reader stream) {
     jj_input_stream.ReInit(stream, 1, 1);
     token_source.ReInit(jj_input_stream);
-    token = new Token();
+    token = jj_window.reset(token_source);
+    jj_pos = -1;
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 20; i++) jj_la1[i] = -1;
-    for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
+    jj_braces = 0;
+    for (int i = 0; i < 23; i++) jj_la1[i] = -1;
+    jj_reset_calls();
+    syntaxErrors.clear();
   }
 
   /** Constructor with generated Token Manager. */
   public MiniJavaParser(MiniJavaParserTokenManager tm) {
     token_source = tm;
-    token = new Token();
+    jj_window = new TokenWindow(token_source);
+    token = jj_window.token(jj_pos = -1);
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 20; i++) jj_la1[i] = -1;
+    jj_braces = 0;
+    for (int i = 0; i < 23; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
   /** Reinitialise. */
   public void ReInit(MiniJavaParserTokenManager tm) {
     token_source = tm;
-    token = new Token();
+    token = jj_window.reset(token_source);
+    jj_pos = -1;
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 20; i++) jj_la1[i] = -1;
+    jj_braces = 0;
+    for (int i = 0; i < 23; i++) jj_la1[i] = -1;
+    jj_reset_calls();
+    syntaxErrors.clear();
+  }
+
+  /** Constructor for a source held in a char[]: it's lexed by PackedLexer, unless it has unicode escapes. */
+  public MiniJavaParser(char[] chars, int length) {
+    this(chars, length, true);
+  }
+
+  /**
+   * Constructor for a source held in a char[]: it's lexed by PackedLexer, unless it has unicode escapes.
+   * If keepComments is false, comments are skipped like white space, and tokens have no special tokens.
+   */
+  public MiniJavaParser(char[] chars, int length, boolean keepComments) {
+    if (CharArrayCharStream.hasUnicodeEscape(chars, length)) {
+      token_source = new MiniJavaParserTokenManager(new JavaCharStream(new java.io.CharArrayReader(chars, 0, length)));
+      token_source.setKeepComments(keepComments);
+      jj_window = new TokenWindow(token_source);
+    }
+    else
+      jj_window = new TokenWindow(PackedLexer.lex(chars, length, keepComments));
+    token = jj_window.token(jj_pos = -1);
+    jj_ntk = -1;
+    jj_gen = 0;
+    jj_braces = 0;
+    for (int i = 0; i < 23; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
-  private Token jj_consume_token(int kind) throws ParseException {
-    Token oldToken;
-    if ((oldToken = token).next != null) token = token.next;
-    else token = token.next = token_source.getNextToken();
+  /**
+   * Reinitialise, see MiniJavaParser(char[], int, boolean). The tokens of the previous source are let go,
+   * and the buffers are kept for this one. The settings (compact tree, error recovery) are kept too.
+   */
+  public void ReInit(char[] chars, int length, boolean keepComments) {
+    if (CharArrayCharStream.hasUnicodeEscape(chars, length)) {
+      MiniJavaParserTokenManager tm = new MiniJavaParserTokenManager(new JavaCharStream(new java.io.CharArrayReader(chars, 0, length)));
+      tm.setKeepComments(keepComments);
+      ReInit(tm);
+    }
+    else
+      ReInit(PackedLexer.lex(chars, length, keepComments));
+  }
+
+  /**
+   * Constructor for a UTF-8 source held in bytes, from 0 up to their limit, see MiniJavaParser(byte[], int,
+   * boolean) and PackedLexer.array.
+   */
+  public MiniJavaParser(java.nio.ByteBuffer bytes, boolean keepComments) {
+    this(PackedLexer.array(bytes), bytes.limit(), keepComments);
+  }
+
+  /**
+   * Constructor for a UTF-8 source held in a byte[]: it's lexed from the bytes by PackedLexer, unless it has
+   * unicode escapes. The tokens then have byte offsets, see PackedTokens.
+   * If keepComments is false, comments are skipped like white space, and tokens have no special tokens.
+   */
+  public MiniJavaParser(byte[] bytes, int length, boolean keepComments) {
+    if (PackedLexer.hasUnicodeEscape(bytes, length)) {
+      String chars = new String(bytes, 0, length, java.nio.charset.StandardCharsets.UTF_8);
+      token_source = new MiniJavaParserTokenManager(new JavaCharStream(new java.io.StringReader(chars)));
+      token_source.setKeepComments(keepComments);
+      jj_window = new TokenWindow(token_source);
+    }
+    else
+      jj_window = new TokenWindow(PackedLexer.lex(bytes, length, keepComments));
+    token = jj_window.token(jj_pos = -1);
     jj_ntk = -1;
-    if (token.kind == kind) {
-      jj_gen++;
-      if (++jj_gc > 100) {
-        jj_gc = 0;
-        for (int i = 0; i < jj_2_rtns.length; i++) {
-          JJCalls c = jj_2_rtns[i];
-          while (c != null) {
-            if (c.gen < jj_gen) c.first = null;
-            c = c.next;
+    jj_gen = 0;
+    jj_braces = 0;
+    for (int i = 0; i < 23; i++) jj_la1[i] = -1;
+    for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
+  }
+
+  /** Reinitialise, see MiniJavaParser(byte[], int, boolean) and ReInit(char[], int, boolean). */
+  public void ReInit(byte[] bytes, int length, boolean keepComments) {
+    if (PackedLexer.hasUnicodeEscape(bytes, length)) {
+      char[] chars = new String(bytes, 0, length, java.nio.charset.StandardCharsets.UTF_8).toCharArray();
+      ReInit(chars, chars.length, keepComments);
+    }
+    else
+      ReInit(PackedLexer.lex(bytes, length, keepComments));
+  }
+
+  /** Constructor with tokens lexed by PackedLexer. */
+  public MiniJavaParser(PackedTokens tokens) {
+    jj_window = new TokenWindow(tokens);
+    token = jj_window.token(jj_pos = -1);
+    jj_ntk = -1;
+    jj_gen = 0;
+    jj_braces = 0;
+    for (int i = 0; i < 23; i++) jj_la1[i] = -1;
+    for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
+  }
+
+  /**
+   * Sets whether the trees built from now on are compact: every fixed token (a keyword, a punctuation
+   * mark or EOF) of a kind is then the same NodeToken, which has no position. TokenLocator gives the
+   * positioned tokens of a compact tree on demand.
+   */
+  public void setCompactTree(boolean compactTree) {
+    this.compactTree = compactTree;
+  }
+
+  public boolean isCompactTree() {
+    return compactTree;
+  }
+
+  /**
+   * Sets whether Goal() parses the main class and the type declarations of a large source on the common
+   * fork/join pool, see ParallelGoal. The tree is the same as when they're parsed one after the other. A
+   * source that has syntax errors, or that is read by a token manager, is parsed sequentially.
+   */
+  public void setParallelParse(boolean parallelParse) {
+    this.parallelParse = parallelParse;
+  }
+
+  public boolean isParallelParse() {
+    return parallelParse;
+  }
+
+  /**
+   * Sets whether method bodies are skimmed: after the local variable declarations, which make up the
+   * method's signature as the class members check sees it, the tokens are skipped up to the "}" that matches
+   * the body's "{". The statements and the return are parsed by SkimmedBody once the method is visited (see
+   * MethodDeclaration.parseBody), so the ones that are never visited aren't parsed at all.
+   *
+   * Only a source held in a char[] (see MiniJavaParser(char[], int, boolean)) is skimmed, and only a body
+   * whose braces match before the next "public", "class" or EOF; the others are parsed as usual. A syntax
+   * error in a skimmed body isn't found by Goal(), it's thrown as a RuntimeException when the body is parsed.
+   */
+  public void setSkimBodies(boolean skimBodies) {
+    this.skimBodies = skimBodies;
+  }
+
+  public boolean isSkimBodies() {
+    return skimBodies;
+  }
+
+  /**
+   * Sets whether the main class and the class declarations are added to an outline (see ClassOutline) as
+   * they're parsed: each one once its "}" is read, from the nodes of its header, fields and method headers.
+   * Goal() starts a new outline, which getOutline() then returns. A declaration parsed on its own (e.g. by
+   * TypeDeclaration()) is added to the outline of setCollectOutline(true) or of the last Goal().
+   */
+  public void setCollectOutline(boolean collectOutline) {
+    this.collectOutline = collectOutline;
+    outline = collectOutline ? new ClassOutline() : null;
+  }
+
+  public boolean isCollectOutline() {
+    return collectOutline;
+  }
+
+  /** @return The outline of the declarations parsed so far, or null if it isn't collected */
+  public ClassOutline getOutline() {
+    return outline;
+  }
+
+  // The index of the "}" that closes the body of the method being parsed, or -1 if the rest of the body
+  // isn't skimmed: the tokens aren't packed, it's empty, or there's a "public", "class" or EOF first
+  private int jj_skim_body() {
+    if (jj_window.packed() == null)
+      return -1;
+    int depth = 0;
+    for (int i = jj_pos + 1; ; i++) {
+      int kind = jj_window.kind(i);
+      if (kind == PUBLIC || kind == CLASS || kind == EOF)
+        return -1;
+      if (kind == LBRACE)
+        depth++;
+      else if (kind == RBRACE && depth-- == 0)
+        return i > jj_pos + 1 ? i : -1;
+    }
+  }
+
+  /**
+   * Sets whether a source read by a token manager is parsed in bounded memory: the tokens that are well
+   * behind the current one are let go of (see TokenWindow.setStreaming), and so are the characters of a
+   * token once it's read (see JavaCharStream.setStreaming). What's kept is the tree, the line map and the
+   * symbols. A source held in a char[] is lexed whole anyway, so the setting has no effect on it.
+   *
+   * Since the tokens are gone, TokenLocator and FlatTree.build(goal, parser) can't use them: FlatTree.build
+   * then takes the NodeTokens of the tree, and a compact tree has no positions for its fixed tokens.
+   */
+  public void setStreaming(boolean streaming) {
+    jj_window.setStreaming(streaming);
+    if (token_source != null)
+      token_source.input_stream.setStreaming(streaming);
+  }
+
+  public boolean isStreaming() {
+    return jj_window.isStreaming();
+  }
+
+  // Goal() with the declarations parsed by ParallelGoal, or null if they can't be
+  private Goal jj_parallel_goal() {
+    final PackedTokens packed = jj_window.packed();
+    int[] starts = packed != null ? ParallelGoal.split(packed) : null;
+    if (starts == null)
+      return null;
+    // This parser's own Tokens, that getTokenAt hands out, are created in the meantime
+    java.util.concurrent.ForkJoinTask<Token> eof = java.util.concurrent.ForkJoinTask.adapt(
+        new java.util.concurrent.Callable<Token>() {
+          public Token call() {
+            return jj_window.token(packed.count - 1);
           }
-        }
+        }).fork();
+    Node[] declarations = ParallelGoal.parse(packed, starts, compactTree, skimBodies, outline);
+    Token n4 = eof.join();
+    if (declarations == null)
+      return null;
+    NodeListOptional n1 = new NodeListOptional();
+    for (int i = 1; i < declarations.length; i++)
+      n1.addNode(declarations[i]);
+    n1.nodes.trimToSize();
+    token = n4;
+    jj_pos = packed.count - 1;
+    n4.offset++;
+    return new Goal((MainClass) declarations[0], n1, makeNodeToken(n4));
+  }
+
+  /**
+   * Sets whether Goal() recovers from syntax errors (panic mode). If it does, each error is recorded and
+   * the input is skipped up to the end of the statement, variable, method or class declaration it's in:
+   * past the next ";" or the "}" that closes the declaration, or up to the next "class", "public" or EOF.
+   * A missing "}" before one of those is taken as read. Parsing then goes on, so that one pass finds every
+   * syntax error, and the declarations that failed are left out of the tree.
+   *
+   * An error where the previous recovery stopped follows from the previous error, so it's not recorded.
+   *
+   * Goal() returns the partial tree, and getSyntaxErrors() lists the errors. If the main class can't be
+   * parsed there's no tree, and Goal() throws the first error once it has gone through the whole input.
+   * Since the tokens that were skipped or taken as read aren't those of the tree, TokenLocator needs a tree
+   * without syntax errors, and FlatTree.build(goal, parser) encodes a tree with any from its NodeTokens.
+   */
+  public void setErrorRecovery(boolean errorRecovery) {
+    this.errorRecovery = errorRecovery;
+  }
+
+  public boolean isErrorRecovery() {
+    return errorRecovery;
+  }
+
+  /** @return The syntax errors that the last Goal() recovered from, in the order they were found */
+  public java.util.List<ParseException> getSyntaxErrors() {
+    return java.util.Collections.unmodifiableList(syntaxErrors);
+  }
+
+  // Records e, unless there's no error recovery, and skips to where the given level of declaration ends.
+  // The declaration that failed started after token start.
+  private void jj_recover(ParseException e, int start, int level) throws ParseException {
+    if (!errorRecovery)
+      throw e;
+    if (jj_pos != jj_recovered_pos)
+      syntaxErrors.add(e);
+    // Skip at least the token that failed a declaration at its start, or it would fail it again
+    if (jj_pos == start && jj_window.kind(jj_pos + 1) != EOF)
+      getNextToken();
+    // The braces opened in the declaration, only a method declaration spans its own braces
+    int depth = level == SYNC_MEMBER ? jj_braces - jj_member_braces : 0;
+    for (;;) {
+      int kind = jj_window.kind(jj_pos + 1);
+      if (kind == EOF || kind == CLASS)
+        break;
+      if (level != SYNC_CLASS) {
+        if (kind == PUBLIC)
+          break;
+        if (level == SYNC_STATEMENT && depth == 0 && (kind == RBRACE || kind == RETURN))
+          break;
       }
-      return token;
+      getNextToken();
+      if (kind == LBRACE)
+        depth++;
+      else if (kind == RBRACE && --depth <= 0 && level == SYNC_MEMBER)
+        break;
+      else if (kind == SEMICOLON && depth == 0 && level == SYNC_STATEMENT)
+        break;
+    }
+    jj_recovered_pos = jj_pos;
+  }
+
+  // The "}" that closes a class or method declaration. With error recovery, a missing one before the start
+  // of another declaration or EOF is recorded and taken as read, as a NodeToken that has no position.
+  private NodeToken jj_closing_brace() throws ParseException {
+    int next = jj_window.kind(jj_pos + 1);
+    if (!errorRecovery || !(next == PUBLIC || next == CLASS || next == EOF))
+      return makeNodeToken(jj_consume_token(RBRACE));
+    jj_kind = RBRACE;
+    ParseException e = generateParseException();
+    if (jj_pos != jj_recovered_pos)
+      syntaxErrors.add(e);
+    jj_recovered_pos = jj_pos;
+    return JTBToolkit.fixedNodeToken(RBRACE);
+  }
+
+  private NodeToken makeNodeToken(Token t) {
+    if (compactTree && JTBToolkit.isFixed(t.kind))
+      return JTBToolkit.fixedNodeToken(t.kind);
+    return JTBToolkit.makeNodeToken(t, jj_window.lines());
+  }
+
+  /** @return Whether the tokens of kind are fixed, that is of a single image, and shared in compact trees */
+  static boolean isFixed(int kind) {
+    return JTBToolkit.isFixed(kind);
+  }
+
+  /** @return The NodeToken shared by the fixed tokens of kind in compact trees, null if they aren't fixed */
+  static NodeToken fixedNodeToken(int kind) {
+    return JTBToolkit.fixedNodeToken(kind);
+  }
+
+  /** @return The map that turns the offsets of the tokens of the source into lines and columns */
+  public LineMap getLineMap() {
+    return jj_window.lines();
+  }
+
+  /** @return The pool that the identifiers of the source are interned in */
+  public SymbolPool getSymbols() {
+    return jj_window.symbols;
+  }
+
+  /** Reinitialise. */
+  public void ReInit(PackedTokens tokens) {
+    token_source = null;
+    token = jj_window.reset(tokens);
+    jj_pos = -1;
+    jj_ntk = -1;
+    jj_gen = 0;
+    jj_braces = 0;
+    for (int i = 0; i < 23; i++) jj_la1[i] = -1;
+    jj_reset_calls();
+    syntaxErrors.clear();
+  }
+
+  /** Makes the saved lookahead calls of the previous source free for reuse, instead of allocating new ones. */
+  private void jj_reset_calls() {
+    for (int i = 0; i < jj_2_rtns.length; i++) {
+      for (JJCalls c = jj_2_rtns[i]; c != null; c = c.next)
+        c.gen = 0;
+    }
+  }
+
+  private Token jj_consume_token(int kind) throws ParseException {
+    jj_ntk = -1;
+    if (jj_window.kind(jj_pos + 1) == kind) {
+      jj_gen++;
+      if (kind == LBRACE)
+        jj_braces++;
+      else if (kind == RBRACE)
+        jj_braces--;
+      return token = jj_window.token(++jj_pos);
     }
-    token = oldToken;
     jj_kind = kind;
     throw generateParseException();
   }
@@ -1808,20 +2210,14 @@ public class MiniJavaParser implements MiniJavaParserConstants {
   private boolean jj_scan_token(int kind) {
     if (jj_scanpos == jj_lastpos) {
       jj_la--;
-      if (jj_scanpos.next == null) {
-        jj_lastpos = jj_scanpos = jj_scanpos.next = token_source.getNextToken();
-      } else {
-        jj_lastpos = jj_scanpos = jj_scanpos.next;
-      }
+      jj_lastpos = ++jj_scanpos;
     } else {
-      jj_scanpos = jj_scanpos.next;
+      jj_scanpos++;
     }
     if (jj_rescan) {
-      int i = 0; Token tok = token;
-      while (tok != null && tok != jj_scanpos) { i++; tok = tok.next; }
-      if (tok != null) jj_add_error_token(kind, i);
+      if (jj_scanpos >= jj_pos) jj_add_error_token(kind, jj_scanpos - jj_pos);
     }
-    if (jj_scanpos.kind != kind) return true;
+    if (jj_window.kind(jj_scanpos) != kind) return true;
     if (jj_la == 0 && jj_scanpos == jj_lastpos) throw jj_ls;
     return false;
   }
@@ -1829,8 +2225,11 @@ public class MiniJavaParser implements MiniJavaParserConstants {
 
 /** Get the next.Token. */
   final public Token getNextToken() {
-    if (token.next != null) token = token.next;
-    else token = token.next = token_source.getNextToken();
+    token = jj_window.token(++jj_pos);
+    if (token.kind == LBRACE)
+      jj_braces++;
+    else if (token.kind == RBRACE)
+      jj_braces--;
     jj_ntk = -1;
     jj_gen++;
     return token;
@@ -1838,19 +2237,27 @@ public class MiniJavaParser implements MiniJavaParserConstants {
 
 /** Get the specificToken. */
   final public Token getToken(int index) {
-    Token t = token;
-    for (int i = 0; i < index; i++) {
-      if (t.next != null) t = t.next;
-      else t = t.next = token_source.getNextToken();
-    }
-    return t;
+    return jj_window.token(jj_pos + index);
+  }
+
+  /**
+   * @return The token at the given index of the input (the first token has index 0). A streaming parser
+   *         only has the last few tokens it read, see setStreaming.
+   */
+  final public Token getTokenAt(int index) {
+    return jj_window.token(index);
+  }
+
+  /**
+   * @return The token at the given index of the input as a NodeToken with its position, not the shared one of
+   *         a compact tree; see getTokenAt
+   */
+  final public NodeToken getNodeTokenAt(int index) {
+    return JTBToolkit.makeNodeToken(jj_window.token(index), jj_window.lines());
   }
 
   private int jj_ntk() {
-    if ((jj_nt=token.next) == null)
-      return (jj_ntk = (token.next=token_source.getNextToken()).kind);
-    else
-      return (jj_ntk = jj_nt.kind);
+    return (jj_ntk = jj_window.kind(jj_pos + 1));
   }
 
   private java.util.List<int[]> jj_expentries = new java.util.ArrayList<int[]>();
@@ -1892,7 +2299,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
       la1tokens[jj_kind] = true;
       jj_kind = -1;
     }
-    for (int i = 0; i < 20; i++) {
+    for (int i = 0; i < 23; i++) {
       if (jj_la1[i] == jj_gen) {
         for (int j = 0; j < 32; j++) {
           if ((jj_la1_0[i] & (1<<j)) != 0) {
@@ -1915,10 +2322,14 @@ public class MiniJavaParser implements MiniJavaParserConstants {
     jj_rescan_token();
     jj_add_error_token(0, 0);
     int[][] exptokseq = new int[jj_expentries.size()][];
+    int maxSize = 1;
     for (int i = 0; i < jj_expentries.size(); i++) {
       exptokseq[i] = jj_expentries.get(i);
+      maxSize = Math.max(maxSize, exptokseq[i].length);
     }
-    return new ParseException(token, exptokseq, tokenImage);
+    // ParseException follows token.next for up to maxSize tokens, make sure the ones read have been created
+    jj_window.token(Math.min(jj_pos + maxSize, jj_window.size - 1));
+    return new ParseException(token, exptokseq, tokenImage, jj_window.lines());
   }
 
   /** Enable tracing. */
@@ -1931,7 +2342,7 @@ public class MiniJavaParser implements MiniJavaParserConstants {
 
   private void jj_rescan_token() {
     jj_rescan = true;
-    for (int i = 0; i < 15; i++) {
+    for (int i = 0; i < 7; i++) {
     try {
       JJCalls p = jj_2_rtns[i];
       do {
@@ -1945,14 +2356,6 @@ public class MiniJavaParser implements MiniJavaParserConstants {
             case 4: jj_3_5(); break;
             case 5: jj_3_6(); break;
             case 6: jj_3_7(); break;
-            case 7: jj_3_8(); break;
-            case 8: jj_3_9(); break;
-            case 9: jj_3_10(); break;
-            case 10: jj_3_11(); break;
-            case 11: jj_3_12(); break;
-            case 12: jj_3_13(); break;
-            case 13: jj_3_14(); break;
-            case 14: jj_3_15(); break;
           }
         }
         p = p.next;
@@ -1968,12 +2371,12 @@ public class MiniJavaParser implements MiniJavaParserConstants {
       if (p.next == null) { p = p.next = new JJCalls(); break; }
       p = p.next;
     }
-    p.gen = jj_gen + xla - jj_la; p.first = token; p.arg = xla;
+    p.gen = jj_gen + xla - jj_la; p.first = jj_pos; p.arg = xla;
   }
 
   static final class JJCalls {
     int gen;
-    Token first;
+    int first;
     int arg;
     JJCalls next;
   }
@@ -1981,7 +2384,28 @@ public class MiniJavaParser implements MiniJavaParserConstants {
 }
 
 class JTBToolkit {
-   static NodeToken makeNodeToken(Token t) {
-      return new NodeToken(t.image.intern(), t.kind, t.beginLine, t.beginColumn, t.endLine, t.endColumn);
+   // The NodeToken shared by the fixed tokens of each kind in compact trees, null for other kinds
+   private static final NodeToken[] FIXED_NODE_TOKENS = new NodeToken[MiniJavaParserConstants.tokenImage.length];
+   static {
+      for (int kind = 0; kind < FIXED_NODE_TOKENS.length; kind++) {
+         String image = MiniJavaParserTokenManager.jjstrLiteralImages[kind];
+         if (image != null)
+            FIXED_NODE_TOKENS[kind] = new NodeToken(image, kind, -1, 0, null);
+      }
+   }
+
+   static boolean isFixed(int kind) {
+      return FIXED_NODE_TOKENS[kind] != null;
+   }
+
+   static NodeToken fixedNodeToken(int kind) {
+      return FIXED_NODE_TOKENS[kind];
+   }
+
+   static NodeToken makeNodeToken(Token t, LineMap lines) {
+      // The image of an identifier is already its SymbolPool String
+      NodeToken n = new NodeToken(t.symbol >= 0 ? t.image : t.image.intern(), t.kind, t.offset, t.length, lines);
+      n.symbol = t.symbol;
+      return n;
    }
 }
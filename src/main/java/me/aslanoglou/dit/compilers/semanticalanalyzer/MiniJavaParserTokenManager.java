@@ -1,4 +1,4 @@
-package me.aslanoglou.dit.compilers.semanticalanalyzer;/* Generated By:JavaCC: Do not edit this line. MiniJavaParserTokenManager.java */
+package me.aslanoglou.dit.compilers.semanticalanalyzer;/* Generated By:JavaCC from minijava.jj, and maintained by hand since: see the notes in minijava.jj. */
 
 /** Token Manager. */
 public class MiniJavaParserTokenManager implements MiniJavaParserConstants
@@ -1119,22 +1119,16 @@ protected Token jjFillToken()
 {
    final Token t;
    final String curTokenImage;
-   final int beginLine;
-   final int endLine;
-   final int beginColumn;
-   final int endColumn;
+   final int beginOffset;
+   final int endOffset;
    String im = jjstrLiteralImages[jjmatchedKind];
    curTokenImage = (im == null) ? input_stream.GetImage() : im;
-   beginLine = input_stream.getBeginLine();
-   beginColumn = input_stream.getBeginColumn();
-   endLine = input_stream.getEndLine();
-   endColumn = input_stream.getEndColumn();
+   beginOffset = input_stream.getBeginOffset();
+   endOffset = input_stream.getEndOffset();
    t = Token.newToken(jjmatchedKind, curTokenImage);
 
-   t.beginLine = beginLine;
-   t.endLine = endLine;
-   t.beginColumn = beginColumn;
-   t.endColumn = endColumn;
+   t.offset = beginOffset;
+   t.length = endOffset - beginOffset + 1;
 
    return t;
 }
@@ -1145,6 +1139,19 @@ int jjnewStateCnt;
 int jjround;
 int jjmatchedPos;
 int jjmatchedKind;
+// If false, comments are skipped like white space instead of being returned as special tokens
+private boolean keepComments = true;
+
+/** Sets whether comments are kept, as the special tokens of the token that follows them. */
+public void setKeepComments(boolean keepComments)
+{
+  this.keepComments = keepComments;
+}
+
+public boolean isKeepComments()
+{
+  return keepComments;
+}
 
 /** Get the next Token. */
 public Token getNextToken() 
@@ -1188,7 +1195,7 @@ public Token getNextToken()
       }
       else
       {
-         if ((jjtoSpecial[jjmatchedKind >> 6] & (1L << (jjmatchedKind & 077))) != 0L)
+         if (keepComments && (jjtoSpecial[jjmatchedKind >> 6] & (1L << (jjmatchedKind & 077))) != 0L)
          {
             matchedToken = jjFillToken();
             if (specialToken == null)
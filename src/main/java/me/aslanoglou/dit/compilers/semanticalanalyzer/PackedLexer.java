@@ -0,0 +1,475 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A table-driven lexer for the tokens of minijava.jj, an alternative to MiniJavaParserTokenManager for
+ * sources held in a char[] that contain no unicode escapes.
+ *
+ * Every character is mapped to a character class, and a dense state x class transition table is followed
+ * from the first character of a token until there is no transition. As in JavaCC the longest match wins:
+ * the token is the one of the last accepting state passed, which is almost always the last state (the
+ * exception is "/**" "/", a MULTI_LINE_COMMENT unless a FORMAL_COMMENT goes on to end at a later "*" "/").
+ * Identifiers are then looked up in a perfect hash of the keywords, and "System" followed by ".out.println"
+ * becomes a PRINT token.
+ *
+ * The output is a PackedTokens: no Token, String or other object is created per token.
+ *
+ * A UTF-8 source can be lexed from a byte[] or a ByteBuffer, without decoding it into chars first. Every token
+ * of MiniJava is ASCII, and the bytes of a multi-byte character are never ASCII, so such a character is only
+ * decoded where it could be a <LETTER>: at the start or in the middle of an identifier. Anywhere else it's
+ * C_OTHER, one byte at a time, and inside a comment that's all it needs to be.
+ */
+public final class PackedLexer implements MiniJavaParserConstants {
+    // Character classes
+    private static final int C_OTHER = 0;
+    private static final int C_SPACE = 1;
+    private static final int C_LF = 2;
+    private static final int C_CR = 3;
+    private static final int C_SLASH = 4;
+    private static final int C_STAR = 5;
+    private static final int C_ZERO = 6;
+    private static final int C_DIGIT = 7;
+    private static final int C_LETTER = 8;
+    private static final int C_AMPERSAND = 9;
+    // Single character tokens, from C_PUNCTUATION on in the order of PUNCTUATION
+    private static final int C_PUNCTUATION = 10;
+    private static final String PUNCTUATION = "()[]{};.=<+-!,";
+    private static final int[] PUNCTUATION_KINDS = {LPAREN, RPAREN, LSQPAREN, RSQPAREN, LBRACE, RBRACE, SEMICOLON,
+            DOT, ASSIGN, LT, PLUS, MINUS, NOT, 47 /* "," */};
+    private static final int CLASSES = C_PUNCTUATION + PUNCTUATION.length();
+
+    // States, S_START doubles as "no transition" since no token goes back to it
+    private static final int S_START = 0;
+    private static final int S_IDENTIFIER = 1;
+    private static final int S_ZERO = 2;
+    private static final int S_NUMBER = 3;
+    private static final int S_AMPERSAND = 4;
+    private static final int S_AND = 5;
+    private static final int S_SLASH = 6;
+    private static final int S_LINE_COMMENT = 7;
+    private static final int S_LINE_COMMENT_CR = 8;
+    private static final int S_LINE_COMMENT_END = 9;
+    // "/*" and "/**"
+    private static final int S_BLOCK_COMMENT = 10;
+    private static final int S_BLOCK_COMMENT_STAR = 11;
+    private static final int S_MULTI_LINE = 12;
+    private static final int S_MULTI_LINE_STAR = 13;
+    private static final int S_MULTI_LINE_END = 14;
+    private static final int S_FORMAL = 15;
+    private static final int S_FORMAL_STAR = 16;
+    private static final int S_FORMAL_END = 17;
+    // "/**" "/", which FORMAL_COMMENT may continue
+    private static final int S_EMPTY_COMMENT = 18;
+    private static final int S_TIMES = 19;
+    // Single character tokens, from S_PUNCTUATION on in the order of PUNCTUATION
+    private static final int S_PUNCTUATION = 20;
+    private static final int STATES = S_PUNCTUATION + PUNCTUATION.length();
+
+    private static final byte[] ASCII_CLASSES = new byte[128];
+    // TRANSITIONS[state * CLASSES + class] is the next state
+    private static final byte[] TRANSITIONS = new byte[STATES * CLASSES];
+    // Kind of the token that ends in each state, -1 if the state doesn't end a token
+    private static final int[] ACCEPTS = new int[STATES];
+
+    // Keywords by perfect hash, see keywordHash
+    private static final int[] KEYWORD_KINDS = new int[64];
+    private static final char[][] KEYWORD_IMAGES = new char[64][];
+    private static final char[] PRINT_PREFIX = "System".toCharArray();
+    private static final char[] PRINT_SUFFIX = ".out.println".toCharArray();
+
+    static {
+        ASCII_CLASSES[' '] = ASCII_CLASSES['\t'] = ASCII_CLASSES['\f'] = C_SPACE;
+        ASCII_CLASSES['\n'] = C_LF;
+        ASCII_CLASSES['\r'] = C_CR;
+        ASCII_CLASSES['/'] = C_SLASH;
+        ASCII_CLASSES['*'] = C_STAR;
+        ASCII_CLASSES['0'] = C_ZERO;
+        for (char c = '1'; c <= '9'; c++)
+            ASCII_CLASSES[c] = C_DIGIT;
+        for (char c = 'a'; c <= 'z'; c++)
+            ASCII_CLASSES[c] = ASCII_CLASSES[c - 'a' + 'A'] = C_LETTER;
+        ASCII_CLASSES['$'] = ASCII_CLASSES['_'] = C_LETTER;
+        ASCII_CLASSES['&'] = C_AMPERSAND;
+        for (int p = 0; p < PUNCTUATION.length(); p++)
+            ASCII_CLASSES[PUNCTUATION.charAt(p)] = (byte) (C_PUNCTUATION + p);
+
+        java.util.Arrays.fill(ACCEPTS, -1);
+        transition(S_START, C_SLASH, S_SLASH);
+        transition(S_START, C_STAR, S_TIMES);
+        transition(S_START, C_ZERO, S_ZERO);
+        transition(S_START, C_DIGIT, S_NUMBER);
+        transition(S_START, C_LETTER, S_IDENTIFIER);
+        transition(S_START, C_AMPERSAND, S_AMPERSAND);
+        for (int p = 0; p < PUNCTUATION.length(); p++) {
+            transition(S_START, C_PUNCTUATION + p, S_PUNCTUATION + p);
+            ACCEPTS[S_PUNCTUATION + p] = PUNCTUATION_KINDS[p];
+        }
+        ACCEPTS[S_TIMES] = 48; // "*"
+
+        transition(S_IDENTIFIER, C_LETTER, S_IDENTIFIER);
+        transition(S_IDENTIFIER, C_ZERO, S_IDENTIFIER);
+        transition(S_IDENTIFIER, C_DIGIT, S_IDENTIFIER);
+        ACCEPTS[S_IDENTIFIER] = IDENTIFIER;
+        ACCEPTS[S_ZERO] = INTEGER_LITERAL;
+        transition(S_NUMBER, C_ZERO, S_NUMBER);
+        transition(S_NUMBER, C_DIGIT, S_NUMBER);
+        ACCEPTS[S_NUMBER] = INTEGER_LITERAL;
+        transition(S_AMPERSAND, C_AMPERSAND, S_AND);
+        ACCEPTS[S_AND] = AND;
+
+        // "//" (~["\n","\r"])* ("\n"|"\r"|"\r\n")
+        transition(S_SLASH, C_SLASH, S_LINE_COMMENT);
+        for (int c = 0; c < CLASSES; c++)
+            transition(S_LINE_COMMENT, c, S_LINE_COMMENT);
+        transition(S_LINE_COMMENT, C_LF, S_LINE_COMMENT_END);
+        transition(S_LINE_COMMENT, C_CR, S_LINE_COMMENT_CR);
+        transition(S_LINE_COMMENT_CR, C_LF, S_LINE_COMMENT_END);
+        ACCEPTS[S_LINE_COMMENT_CR] = ACCEPTS[S_LINE_COMMENT_END] = SINGLE_LINE_COMMENT;
+
+        // "/*" ... "*/", and "/**" ... "*/" which is a FORMAL_COMMENT, except for "/**/" on its own
+        transition(S_SLASH, C_STAR, S_BLOCK_COMMENT);
+        for (int c = 0; c < CLASSES; c++) {
+            transition(S_BLOCK_COMMENT, c, S_MULTI_LINE);
+            transition(S_BLOCK_COMMENT_STAR, c, S_FORMAL);
+            transition(S_MULTI_LINE, c, S_MULTI_LINE);
+            transition(S_MULTI_LINE_STAR, c, S_MULTI_LINE);
+            transition(S_FORMAL, c, S_FORMAL);
+            transition(S_FORMAL_STAR, c, S_FORMAL);
+            transition(S_EMPTY_COMMENT, c, S_FORMAL);
+        }
+        transition(S_BLOCK_COMMENT, C_STAR, S_BLOCK_COMMENT_STAR);
+        transition(S_BLOCK_COMMENT_STAR, C_STAR, S_FORMAL_STAR);
+        transition(S_BLOCK_COMMENT_STAR, C_SLASH, S_EMPTY_COMMENT);
+        transition(S_EMPTY_COMMENT, C_STAR, S_FORMAL_STAR);
+        transition(S_MULTI_LINE, C_STAR, S_MULTI_LINE_STAR);
+        transition(S_MULTI_LINE_STAR, C_STAR, S_MULTI_LINE_STAR);
+        transition(S_MULTI_LINE_STAR, C_SLASH, S_MULTI_LINE_END);
+        transition(S_FORMAL, C_STAR, S_FORMAL_STAR);
+        transition(S_FORMAL_STAR, C_STAR, S_FORMAL_STAR);
+        transition(S_FORMAL_STAR, C_SLASH, S_FORMAL_END);
+        ACCEPTS[S_MULTI_LINE_END] = ACCEPTS[S_EMPTY_COMMENT] = MULTI_LINE_COMMENT;
+        ACCEPTS[S_FORMAL_END] = FORMAL_COMMENT;
+
+        for (int kind = BOOLEAN; kind <= VOID; kind++) {
+            if (kind == PRINT)
+                continue;
+            char[] image = MiniJavaParserTokenManager.jjstrLiteralImages[kind].toCharArray();
+            int h = keywordHash(image, 0, image.length);
+            if (KEYWORD_IMAGES[h] != null)
+                throw new AssertionError("Keywords " + new String(image) + " and " +
+                        new String(KEYWORD_IMAGES[h]) + " have the same hash");
+            KEYWORD_IMAGES[h] = image;
+            KEYWORD_KINDS[h] = kind;
+        }
+    }
+
+    private static void transition(int state, int c, int next) {
+        TRANSITIONS[state * CLASSES + c] = (byte) next;
+    }
+
+    // Collision free for the keywords of MiniJava (checked above), for identifiers of two or more characters
+    private static int keywordHash(char[] chars, int start, int length) {
+        return (3 * (chars[start] + chars[start + 1]) + length) & 63;
+    }
+
+    private PackedLexer() {}
+
+    /**
+     * Lexes the first length chars, which must not contain unicode escapes (see
+     * CharArrayCharStream.hasUnicodeEscape).
+     */
+    public static PackedTokens lex(char[] chars, int length) {
+        return lex(chars, length, true);
+    }
+
+    /**
+     * Lexes the first length chars, which must not contain unicode escapes (see
+     * CharArrayCharStream.hasUnicodeEscape).
+     * @param keepComments If false, comments are skipped like white space: the tokens then have no special
+     *                     tokens, and no Token is ever created for a comment
+     */
+    public static PackedTokens lex(char[] chars, int length, boolean keepComments) {
+        // About one token every four characters in typical sources
+        PackedTokens tokens = new PackedTokens(chars, length, Math.max(16, length >> 2));
+        lex(tokens, 0, keepComments);
+        return tokens;
+    }
+
+    /**
+     * Lexes chars from up to to (excluded), a region of a source that starts with a token, dropping the
+     * comments. The tokens keep their offsets in chars, their identifiers are interned in pool, and their
+     * positions are looked up in lines, the map of the whole source. The EOF token is at to.
+     */
+    static PackedTokens lex(char[] chars, int from, int to, SymbolPool pool, LineMap lines) {
+        PackedTokens tokens = new PackedTokens(chars, to, Math.max(16, (to - from) >> 2), pool, lines);
+        lex(tokens, from, false);
+        return tokens;
+    }
+
+    /**
+     * Lexes the UTF-8 bytes of bytes from 0 up to its limit, which must not contain unicode escapes, from the
+     * array of the buffer (see array). The tokens have byte offsets.
+     * @param keepComments See lex(char[], int, boolean)
+     */
+    public static PackedTokens lex(ByteBuffer bytes, boolean keepComments) {
+        return lex(array(bytes), bytes.limit(), keepComments);
+    }
+
+    /**
+     * Lexes the first length bytes of a UTF-8 source, which must not contain unicode escapes (see
+     * hasUnicodeEscape). The tokens have byte offsets.
+     * @param keepComments See lex(char[], int, boolean)
+     */
+    public static PackedTokens lex(byte[] bytes, int length, boolean keepComments) {
+        PackedTokens tokens = new PackedTokens(bytes, length, Math.max(16, length >> 2));
+        int i = 0;
+        for (;;) {
+            while (i < length && isSkipped(bytes[i]))
+                i++;
+            if (i == length) {
+                tokens.add(EOF, length, 0);
+                return tokens;
+            }
+            int start = i;
+            int state = S_START;
+            int kind = -1;
+            int end = i;
+            do {
+                // Plain runs of ASCII, which the states they're in go on over, are skipped without the table
+                if (state == S_IDENTIFIER) {
+                    while (i < length && isIdentifierPart(bytes[i]))
+                        i++;
+                    end = i;
+                }
+                else if (state == S_LINE_COMMENT) {
+                    while (i < length && bytes[i] != '\n' && bytes[i] != '\r')
+                        i++;
+                }
+                else if (state == S_MULTI_LINE || state == S_FORMAL) {
+                    while (i < length && bytes[i] != '*')
+                        i++;
+                }
+                if (i == length)
+                    break;
+                int b = bytes[i];
+                int c;
+                int size = 1;
+                if (b >= 0)
+                    c = ASCII_CLASSES[b];
+                else if (state == S_START || state == S_IDENTIFIER) {
+                    size = sequenceLength(b);
+                    c = size > 1 && i + size <= length && isLetter(decode(bytes, i, size)) ? C_LETTER : C_OTHER;
+                }
+                else
+                    c = C_OTHER;
+                int next = TRANSITIONS[state * CLASSES + c];
+                if (next == S_START)
+                    break;
+                state = next;
+                i += next == S_IDENTIFIER ? size : 1;
+                if (ACCEPTS[state] >= 0) {
+                    kind = ACCEPTS[state];
+                    end = i;
+                }
+            } while (i < length);
+            i = end;
+            if (kind == IDENTIFIER) {
+                kind = keyword(bytes, start, i - start);
+                if (kind == IDENTIFIER && isPrint(bytes, start, i, length)) {
+                    kind = PRINT;
+                    i += PRINT_SUFFIX.length;
+                }
+            }
+            if (kind < 0) {
+                tokens.hasLexicalError = true;
+                return tokens;
+            }
+            if (kind == SINGLE_LINE_COMMENT || kind == FORMAL_COMMENT || kind == MULTI_LINE_COMMENT) {
+                if (keepComments)
+                    tokens.addComment(kind, start, i - start);
+            }
+            else
+                tokens.add(kind, start, i - start);
+        }
+    }
+
+    /**
+     * @return The bytes of a buffer from 0 up to its limit, in its own array if it's a heap buffer that starts
+     *         there, else in a copy. A direct buffer, such as a mapped file, is copied with one bulk get: its get
+     *         of a single byte is too slow for the lexer, and the copy is still half the size of the chars.
+     */
+    public static byte[] array(ByteBuffer bytes) {
+        if (bytes.hasArray() && bytes.arrayOffset() == 0)
+            return bytes.array();
+        byte[] array = new byte[bytes.limit()];
+        ByteBuffer all = bytes.duplicate();
+        all.position(0);
+        all.get(array);
+        return array;
+    }
+
+    /** @return Whether the first length bytes contain a unicode escape, see CharArrayCharStream.hasUnicodeEscape */
+    public static boolean hasUnicodeEscape(byte[] bytes, int length) {
+        for (int i = 0; i < length - 1; i++) {
+            if (bytes[i] == '\\' && bytes[i + 1] == 'u')
+                return true;
+        }
+        return false;
+    }
+
+    // Adds the tokens of tokens.chars from i up to tokens.length, ending in EOF or a lexical error
+    private static void lex(PackedTokens tokens, int i, boolean keepComments) {
+        char[] chars = tokens.chars;
+        int length = tokens.length;
+        for (;;) {
+            while (i < length && isSkipped(chars[i]))
+                i++;
+            if (i == length) {
+                tokens.add(EOF, length, 0);
+                return;
+            }
+            int start = i;
+            int state = S_START;
+            int kind = -1;
+            int end = i;
+            do {
+                int next = TRANSITIONS[state * CLASSES + classOf(chars[i])];
+                if (next == S_START)
+                    break;
+                state = next;
+                i++;
+                if (ACCEPTS[state] >= 0) {
+                    kind = ACCEPTS[state];
+                    end = i;
+                }
+            } while (i < length);
+            i = end;
+            if (kind == IDENTIFIER) {
+                kind = keyword(chars, start, i - start);
+                if (kind == IDENTIFIER && isPrint(chars, start, i, length)) {
+                    kind = PRINT;
+                    i += PRINT_SUFFIX.length;
+                }
+            }
+            if (kind < 0) {
+                tokens.hasLexicalError = true;
+                return;
+            }
+            if (kind == SINGLE_LINE_COMMENT || kind == FORMAL_COMMENT || kind == MULTI_LINE_COMMENT) {
+                if (keepComments)
+                    tokens.addComment(kind, start, i - start);
+            }
+            else
+                tokens.add(kind, start, i - start);
+        }
+    }
+
+    // The white space that minijava.jj SKIPs
+    private static boolean isSkipped(char c) {
+        return c <= ' ' && (0x100003600L & (1L << c)) != 0L;
+    }
+
+    private static boolean isSkipped(byte b) {
+        return b >= 0 && isSkipped((char) b);
+    }
+
+    // An ASCII letter or digit
+    private static boolean isIdentifierPart(byte b) {
+        return b >= 0 && ASCII_CLASSES[b] >= C_ZERO && ASCII_CLASSES[b] <= C_LETTER;
+    }
+
+    // The number of bytes of the UTF-8 sequence that starts with b, which isn't ASCII; 1 if b can't start one
+    private static int sequenceLength(int b) {
+        if ((b & 0xe0) == 0xc0)
+            return 2;
+        if ((b & 0xf0) == 0xe0)
+            return 3;
+        return (b & 0xf8) == 0xf0 ? 4 : 1;
+    }
+
+    // The char of the UTF-8 sequence of the given size at i, 0 if it's malformed, overlong or beyond the BMP
+    private static char decode(byte[] bytes, int i, int size) {
+        int c = bytes[i] & (0x7f >> size);
+        for (int k = 1; k < size; k++) {
+            int b = bytes[i + k];
+            if ((b & 0xc0) != 0x80)
+                return 0;
+            c = (c << 6) | (b & 0x3f);
+        }
+        return size < 4 && c >= (size == 2 ? 0x80 : 0x800) ? (char) c : 0;
+    }
+
+    private static int classOf(char c) {
+        if (c < 128)
+            return ASCII_CLASSES[c];
+        return isLetter(c) ? C_LETTER : C_OTHER;
+    }
+
+    // <LETTER> of minijava.jj beyond ASCII. Its non-ASCII <DIGIT>s all lie in the U+0100 to U+1FFF range.
+    private static boolean isLetter(char c) {
+        return (c >= '\u00c0' && c <= '\u00d6') || (c >= '\u00d8' && c <= '\u00f6') ||
+                (c >= '\u00f8' && c <= '\u1fff') || (c >= '\u3040' && c <= '\u318f') ||
+                (c >= '\u3300' && c <= '\u337f') || (c >= '\u3400' && c <= '\u3d2d') ||
+                (c >= '\u4e00' && c <= '\u9fff') || (c >= '\uf900' && c <= '\ufaff');
+    }
+
+    private static int keyword(char[] chars, int start, int length) {
+        if (length < 2)
+            return IDENTIFIER;
+        int h = keywordHash(chars, start, length);
+        char[] image = KEYWORD_IMAGES[h];
+        if (image == null || image.length != length)
+            return IDENTIFIER;
+        for (int k = 0; k < length; k++) {
+            if (image[k] != chars[start + k])
+                return IDENTIFIER;
+        }
+        return KEYWORD_KINDS[h];
+    }
+
+    private static int keyword(byte[] bytes, int start, int length) {
+        if (length < 2 || bytes[start] < 0 || bytes[start + 1] < 0)
+            return IDENTIFIER;
+        int h = (3 * (bytes[start] + bytes[start + 1]) + length) & 63;
+        char[] image = KEYWORD_IMAGES[h];
+        if (image == null || image.length != length)
+            return IDENTIFIER;
+        for (int k = 0; k < length; k++) {
+            if (image[k] != bytes[start + k])
+                return IDENTIFIER;
+        }
+        return KEYWORD_KINDS[h];
+    }
+
+    private static boolean isPrint(byte[] bytes, int start, int end, int length) {
+        if (end - start != PRINT_PREFIX.length || end + PRINT_SUFFIX.length > length)
+            return false;
+        for (int k = 0; k < PRINT_PREFIX.length; k++) {
+            if (bytes[start + k] != PRINT_PREFIX[k])
+                return false;
+        }
+        for (int k = 0; k < PRINT_SUFFIX.length; k++) {
+            if (bytes[end + k] != PRINT_SUFFIX[k])
+                return false;
+        }
+        return true;
+    }
+
+    // The identifier from start to end is "System" and it's followed by ".out.println"
+    private static boolean isPrint(char[] chars, int start, int end, int length) {
+        if (end - start != PRINT_PREFIX.length || end + PRINT_SUFFIX.length > length)
+            return false;
+        for (int k = 0; k < PRINT_PREFIX.length; k++) {
+            if (chars[start + k] != PRINT_PREFIX[k])
+                return false;
+        }
+        for (int k = 0; k < PRINT_SUFFIX.length; k++) {
+            if (chars[end + k] != PRINT_SUFFIX[k])
+                return false;
+        }
+        return true;
+    }
+}
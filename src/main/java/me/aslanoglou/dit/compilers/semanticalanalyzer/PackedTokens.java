@@ -0,0 +1,232 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The tokens of a source as produced by PackedLexer: parallel int arrays holding the kind, start offset and
+ * length of each token, with no object per token. Identifiers also have their symbol in the SymbolPool of the
+ * source, which holds the only String of each distinct identifier.
+ *
+ * Tokens (the last one is EOF) and comments are kept apart, so that token indices are the ones the parser
+ * sees. Token objects, with their positions and their comments chained as special tokens, are created by
+ * TokenWindow only for the tokens the parser actually consumes.
+ *
+ * The source is either held in a char[], or in a byte[] of UTF-8 (see PackedLexer.lex(byte[], int, boolean)),
+ * which isn't decoded as a whole unless it has a lexical error: offsets and lengths are then in bytes, and only
+ * the images of the tokens that are created are decoded.
+ *
+ * If the source has a lexical error, the tokens stop before it and there is no EOF token; lexicalError()
+ * then gives the TokenMgrError that MiniJavaParserTokenManager throws on reaching it.
+ */
+public final class PackedTokens implements MiniJavaParserConstants {
+    // The source, one of them is null
+    final char[] chars;
+    final byte[] bytes;
+    final int length;
+
+    int[] kinds;
+    int[] starts;
+    int[] lengths;
+    // Symbol of each IDENTIFIER token, SymbolPool.NONE for the other kinds
+    int[] symbols;
+    int count;
+
+    int[] commentKinds;
+    int[] commentStarts;
+    int[] commentLengths;
+    int commentCount;
+
+    boolean hasLexicalError;
+
+    final SymbolPool pool;
+    final LineMap lines;
+
+    PackedTokens(char[] chars, int length, int capacity) {
+        this(chars, length, capacity, new SymbolPool(), new LineMap(chars, length, 8));
+    }
+
+    PackedTokens(char[] chars, int length, int capacity, SymbolPool pool, LineMap lines) {
+        this(chars, null, length, capacity, pool, lines);
+    }
+
+    PackedTokens(byte[] bytes, int length, int capacity) {
+        this(null, bytes, length, capacity, new SymbolPool(), new LineMap(bytes, length, 8));
+    }
+
+    private PackedTokens(char[] chars, byte[] bytes, int length, int capacity, SymbolPool pool, LineMap lines) {
+        this.chars = chars;
+        this.bytes = bytes;
+        this.length = length;
+        this.pool = pool;
+        kinds = new int[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        symbols = new int[capacity];
+        commentKinds = new int[16];
+        commentStarts = new int[16];
+        commentLengths = new int[16];
+        this.lines = lines;
+    }
+
+    /** @return The number of tokens, including the final EOF token */
+    public int count() {
+        return count;
+    }
+
+    public int kind(int i) {
+        return kinds[i];
+    }
+
+    public int start(int i) {
+        return starts[i];
+    }
+
+    public int length(int i) {
+        return lengths[i];
+    }
+
+    /** @return The symbol of the i-th token if it's an IDENTIFIER, else SymbolPool.NONE */
+    public int symbol(int i) {
+        return symbols[i];
+    }
+
+    /** @return The pool that the identifiers of this source are interned in */
+    public SymbolPool symbolPool() {
+        return pool;
+    }
+
+    /** @return The map that turns the offsets of the tokens into lines and columns */
+    public LineMap lineMap() {
+        return lines;
+    }
+
+    public int commentCount() {
+        return commentCount;
+    }
+
+    public boolean hasLexicalError() {
+        return hasLexicalError;
+    }
+
+    /**
+     * @return The tokens from the from-th up to the to-th (excluded), with the comments before each of them,
+     *         ending in EOF: this EOF if to is count(), else one at the start of the to-th token. The source,
+     *         its symbols and its line map are shared, so the tokens have the same positions and symbols here.
+     */
+    PackedTokens slice(int from, int to) {
+        PackedTokens slice = new PackedTokens(this);
+        int end = to == count ? to : to + 1;
+        slice.kinds = java.util.Arrays.copyOfRange(kinds, from, end);
+        slice.starts = java.util.Arrays.copyOfRange(starts, from, end);
+        slice.lengths = java.util.Arrays.copyOfRange(lengths, from, end);
+        slice.symbols = java.util.Arrays.copyOfRange(symbols, from, end);
+        slice.count = end - from;
+        if (to < count) {
+            slice.kinds[slice.count - 1] = EOF;
+            slice.lengths[slice.count - 1] = 0;
+            slice.symbols[slice.count - 1] = SymbolPool.NONE;
+        }
+        int firstComment = commentsBefore(from);
+        int lastComment = to == count ? commentCount : commentsBefore(to);
+        slice.commentKinds = java.util.Arrays.copyOfRange(commentKinds, firstComment, lastComment);
+        slice.commentStarts = java.util.Arrays.copyOfRange(commentStarts, firstComment, lastComment);
+        slice.commentLengths = java.util.Arrays.copyOfRange(commentLengths, firstComment, lastComment);
+        slice.commentCount = lastComment - firstComment;
+        return slice;
+    }
+
+    // For a slice of source
+    private PackedTokens(PackedTokens source) {
+        chars = source.chars;
+        bytes = source.bytes;
+        length = source.length;
+        pool = source.pool;
+        lines = source.lines;
+    }
+
+    // The number of comments before the i-th token
+    int commentsBefore(int i) {
+        int k = java.util.Arrays.binarySearch(commentStarts, 0, commentCount, starts[i]);
+        return k >= 0 ? k : -k - 1;
+    }
+
+    /** @return A new Token for the i-th token, without special tokens */
+    public Token newToken(int i) {
+        Token t = newToken(kinds[i], starts[i], lengths[i]);
+        if (symbols[i] != SymbolPool.NONE) {
+            t.symbol = symbols[i];
+            t.image = pool.name(symbols[i]);
+        }
+        return t;
+    }
+
+    /** @return A new Token for the i-th comment, without special tokens */
+    public Token newComment(int i) {
+        return newToken(commentKinds[i], commentStarts[i], commentLengths[i]);
+    }
+
+    /**
+     * Runs MiniJavaParserTokenManager over the source up to the lexical error, so that the error is reported
+     * exactly as the generated lexer reports it.
+     */
+    public TokenMgrError lexicalError() {
+        // The token manager reports the line and column of the error, which are the same in the decoded chars
+        char[] source = chars != null ? chars : decode(0, length).toCharArray();
+        MiniJavaParserTokenManager tokenManager = new MiniJavaParserTokenManager(
+                new CharArrayCharStream(source, chars != null ? length : source.length));
+        try {
+            while (tokenManager.getNextToken().kind != EOF)
+                ;
+        } catch (TokenMgrError ex) {
+            return ex;
+        }
+        throw new IllegalStateException("MiniJavaParserTokenManager finds no lexical error in this source");
+    }
+
+    // Like MiniJavaParserTokenManager.jjFillToken, with the EOF token placed at the last character
+    private Token newToken(int kind, int start, int length) {
+        String image = MiniJavaParserTokenManager.jjstrLiteralImages[kind];
+        if (image == null && kind != IDENTIFIER)
+            image = chars != null ? new String(chars, start, length) : decode(start, length);
+        Token t = Token.newToken(kind, image);
+        t.offset = kind == EOF ? this.length - 1 : start;
+        t.length = kind == EOF ? 1 : length;
+        return t;
+    }
+
+    // The text of the given bytes of the source
+    private String decode(int start, int length) {
+        return new String(bytes, start, length, StandardCharsets.UTF_8);
+    }
+
+    void add(int kind, int start, int length) {
+        if (count == kinds.length) {
+            kinds = java.util.Arrays.copyOf(kinds, count * 2);
+            starts = java.util.Arrays.copyOf(starts, count * 2);
+            lengths = java.util.Arrays.copyOf(lengths, count * 2);
+            symbols = java.util.Arrays.copyOf(symbols, count * 2);
+        }
+        kinds[count] = kind;
+        starts[count] = start;
+        lengths[count] = length;
+        if (kind != IDENTIFIER)
+            symbols[count] = SymbolPool.NONE;
+        else
+            symbols[count] = chars != null ? pool.intern(chars, start, length) : pool.intern(bytes, start, length);
+        count++;
+    }
+
+    void addComment(int kind, int start, int length) {
+        if (commentCount == commentKinds.length) {
+            commentKinds = java.util.Arrays.copyOf(commentKinds, commentCount * 2);
+            commentStarts = java.util.Arrays.copyOf(commentStarts, commentCount * 2);
+            commentLengths = java.util.Arrays.copyOf(commentLengths, commentCount * 2);
+        }
+        commentKinds[commentCount] = kind;
+        commentStarts[commentCount] = start;
+        commentLengths[commentCount] = length;
+        commentCount++;
+    }
+}
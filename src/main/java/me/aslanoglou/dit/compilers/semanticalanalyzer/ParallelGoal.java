@@ -0,0 +1,140 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Node;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses the top-level declarations of a source in parallel, for MiniJavaParser.Goal (see
+ * MiniJavaParser.setParallelParse).
+ *
+ * The tokens are split before every "class" that's outside braces: the first part is the main class, and
+ * every other part a type declaration. Runs of consecutive parts are parsed on the common fork/join pool,
+ * each run by a parser of its own over a slice of the tokens. The slices share the source, its symbols and
+ * its line map, so the declarations are the ones a sequential parse builds, and they're put back in source
+ * order. So is the outline each parser collects, if there's one to collect.
+ *
+ * A part that doesn't parse as exactly one declaration (a syntax error, or braces that don't match) makes
+ * the whole parse fail, and the source is then parsed sequentially, which reports the errors as usual.
+ */
+final class ParallelGoal implements MiniJavaParserConstants {
+    // A run of parts isn't split any further once it's this many tokens at most
+    static final int LEAF_TOKENS = 4096;
+
+    private ParallelGoal() {
+    }
+
+    /**
+     * @return The index of the first token of every part, or null if the source isn't worth splitting, has
+     *         a lexical error or doesn't start with "class"
+     */
+    static int[] split(PackedTokens tokens) {
+        if (tokens.hasLexicalError() || tokens.count < 2 * LEAF_TOKENS)
+            return null;
+        int[] starts = new int[16];
+        int parts = 0;
+        int depth = 0;
+        for (int i = 0; i < tokens.count; i++) {
+            int kind = tokens.kinds[i];
+            if (kind == LBRACE)
+                depth++;
+            else if (kind == RBRACE)
+                depth--;
+            else if (kind == CLASS && depth == 0) {
+                if (parts == starts.length)
+                    starts = Arrays.copyOf(starts, parts * 2);
+                starts[parts++] = i;
+            }
+        }
+        if (parts < 2 || starts[0] != 0)
+            return null;
+        return Arrays.copyOf(starts, parts);
+    }
+
+    /**
+     * @param starts The parts of tokens, as returned by split
+     * @param outline The outline the declarations are added to if they all parse, null if none is collected
+     * @return The MainClass followed by the TypeDeclarations, or null if a part doesn't parse
+     */
+    static Node[] parse(PackedTokens tokens, int[] starts, boolean compactTree, boolean skimBodies,
+                        ClassOutline outline) {
+        Node[] declarations = new Node[starts.length];
+        // The outline of each run, at the index of its first part
+        ClassOutline[] outlines = outline != null ? new ClassOutline[starts.length] : null;
+        boolean parsed = new Task(tokens, starts, 0, starts.length, declarations, outlines, compactTree,
+                skimBodies).invoke();
+        if (!parsed)
+            return null;
+        for (int i = 0; outlines != null && i < outlines.length; i++) {
+            if (outlines[i] != null)
+                outline.append(outlines[i]);
+        }
+        return declarations;
+    }
+
+    // Parses the parts from lo up to hi (excluded) into declarations, and tells whether they all parsed
+    private static class Task extends RecursiveTask<Boolean> {
+        private final PackedTokens tokens;
+        private final int[] starts;
+        private final int lo;
+        private final int hi;
+        private final Node[] declarations;
+        private final ClassOutline[] outlines;
+        private final boolean compactTree;
+        private final boolean skimBodies;
+
+        Task(PackedTokens tokens, int[] starts, int lo, int hi, Node[] declarations, ClassOutline[] outlines,
+             boolean compactTree, boolean skimBodies) {
+            this.tokens = tokens;
+            this.starts = starts;
+            this.lo = lo;
+            this.hi = hi;
+            this.declarations = declarations;
+            this.outlines = outlines;
+            this.compactTree = compactTree;
+            this.skimBodies = skimBodies;
+        }
+
+        // The index of the token that follows part i
+        private int end(int i) {
+            return i + 1 < starts.length ? starts[i + 1] : tokens.count;
+        }
+
+        @Override
+        protected Boolean compute() {
+            int from = starts[lo];
+            int to = end(hi - 1);
+            if (hi - lo == 1 || to - from <= LEAF_TOKENS)
+                return parseParts(from, to);
+            // Split where half of the tokens are on each side
+            int mid = Arrays.binarySearch(starts, lo, hi, from + (to - from) / 2);
+            mid = Math.min(Math.max(mid >= 0 ? mid : -mid - 1, lo + 1), hi - 1);
+            Task left = new Task(tokens, starts, lo, mid, declarations, outlines, compactTree, skimBodies);
+            Task right = new Task(tokens, starts, mid, hi, declarations, outlines, compactTree, skimBodies);
+            invokeAll(left, right);
+            return left.join() && right.join();
+        }
+
+        private boolean parseParts(int from, int to) {
+            MiniJavaParser parser = new MiniJavaParser(tokens.slice(from, to));
+            parser.setCompactTree(compactTree);
+            parser.setSkimBodies(skimBodies);
+            parser.setCollectOutline(outlines != null);
+            try {
+                for (int i = lo; i < hi; i++) {
+                    declarations[i] = i == 0 ? parser.MainClass() : parser.TypeDeclaration();
+                    // The declaration must end where the next part starts
+                    Token next = parser.getToken(1);
+                    if (i + 1 < hi ? next.offset != tokens.starts[end(i)] : next.kind != EOF)
+                        return false;
+                }
+                if (outlines != null)
+                    outlines[lo] = parser.getOutline();
+                return true;
+            } catch (ParseException ex) {
+                return false;
+            }
+        }
+    }
+}
@@ -1,4 +1,4 @@
-package me.aslanoglou.dit.compilers.semanticalanalyzer;/* Generated By:JavaCC: Do not edit this line. ParseException.java Version 5.0 */
+package me.aslanoglou.dit.compilers.semanticalanalyzer;/* Generated By:JavaCC Version 5.0 from minijava.jj, and maintained by hand since: see the notes in minijava.jj. */
 /* JavaCCOptions:KEEP_LINE_COL=null */
 /**
  * This exception is thrown when parse errors are encountered.
@@ -22,14 +22,16 @@ public class ParseException extends Exception {
    * This constructor is used by the method "generateParseException"
    * in the generated parser.  Calling this constructor generates
    * a new object of this type with the fields "currentToken",
-   * "expectedTokenSequences", and "tokenImage" set.
+   * "expectedTokenSequences", and "tokenImage" set.  The line and column
+   * of the error are looked up in "lines", the LineMap of the input.
    */
   public ParseException(Token currentTokenVal,
                         int[][] expectedTokenSequencesVal,
-                        String[] tokenImageVal
+                        String[] tokenImageVal,
+                        LineMap lines
                        )
   {
-    super(initialise(currentTokenVal, expectedTokenSequencesVal, tokenImageVal));
+    super(initialise(currentTokenVal, expectedTokenSequencesVal, tokenImageVal, lines));
     currentToken = currentTokenVal;
     expectedTokenSequences = expectedTokenSequencesVal;
     tokenImage = tokenImageVal;
@@ -85,7 +87,8 @@ public class ParseException extends Exception {
    */
   private static String initialise(Token currentToken,
                            int[][] expectedTokenSequences,
-                           String[] tokenImage) {
+                           String[] tokenImage,
+                           LineMap lines) {
     String eol = System.getProperty("line.separator", "\n");
     StringBuffer expected = new StringBuffer();
     int maxSize = 0;
@@ -115,7 +118,7 @@ public class ParseException extends Exception {
       retval += " \"";
       tok = tok.next;
     }
-    retval += "\" at line " + currentToken.next.beginLine + ", column " + currentToken.next.beginColumn;
+    retval += "\" at line " + lines.line(currentToken.next.offset) + ", column " + lines.column(currentToken.next.offset);
     retval += "." + eol;
     if (expectedTokenSequences.length == 1) {
       retval += "Was expecting:" + eol + "    ";
@@ -182,4 +185,3 @@ public class ParseException extends Exception {
    }
 
 }
-/* JavaCC - OriginalChecksum=c5a983a229aa877dc2b3b3b9933cdd6b (do not edit this line) */
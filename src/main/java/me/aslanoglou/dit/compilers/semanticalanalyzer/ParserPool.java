@@ -0,0 +1,47 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+/**
+ * One MiniJavaParser per thread, re-initialised with ReInit for every source instead of being built anew.
+ * A new parser allocates its token window and lookahead state; a reused one keeps them, and only lets go of
+ * the tokens of the source it parsed before, so that many small sources are parsed without per-source setup
+ * or garbage.
+ *
+ * The parser returned to a thread is valid until that thread asks for the next one. Its settings (compact
+ * tree, error recovery) are the ones it was last given.
+ */
+public final class ParserPool {
+    private static final ThreadLocal<MiniJavaParser> PARSERS = new ThreadLocal<MiniJavaParser>();
+
+    private ParserPool() {
+    }
+
+    /**
+     * @return This thread's parser, ready to parse the first length chars, see
+     *         MiniJavaParser(char[], int, boolean)
+     */
+    public static MiniJavaParser parser(char[] chars, int length, boolean keepComments) {
+        MiniJavaParser parser = PARSERS.get();
+        if (parser == null) {
+            parser = new MiniJavaParser(chars, length, keepComments);
+            PARSERS.set(parser);
+        }
+        else
+            parser.ReInit(chars, length, keepComments);
+        return parser;
+    }
+
+    /**
+     * @return This thread's parser, ready to parse the first length bytes of a UTF-8 source, see
+     *         MiniJavaParser(byte[], int, boolean)
+     */
+    public static MiniJavaParser parser(byte[] bytes, int length, boolean keepComments) {
+        MiniJavaParser parser = PARSERS.get();
+        if (parser == null) {
+            parser = new MiniJavaParser(bytes, length, keepComments);
+            PARSERS.set(parser);
+        }
+        else
+            parser.ReInit(bytes, length, keepComments);
+        return parser;
+    }
+}
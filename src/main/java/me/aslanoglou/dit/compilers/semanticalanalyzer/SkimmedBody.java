@@ -0,0 +1,38 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.MethodDeclaration;
+
+/**
+ * The statements and the return of a method that MiniJavaParser skimmed over (see
+ * MiniJavaParser.setSkimBodies): the tokens from the first statement up to the "}" that closes the body.
+ *
+ * They're parsed by a parser of their own over a slice of the tokens, which shares the source, its symbols
+ * and its line map, so the nodes are the ones the skimming parser would have built. A syntax error in them is
+ * only found then, and it's thrown as a RuntimeException with the message of the ParseException.
+ */
+final class SkimmedBody implements MethodDeclaration.Body {
+    private final PackedTokens tokens;
+    private final int from;
+    private final int to;
+    private final boolean compactTree;
+
+    /** @param to The index of the "}" that closes the body */
+    SkimmedBody(PackedTokens tokens, int from, int to, boolean compactTree) {
+        this.tokens = tokens;
+        this.from = from;
+        this.to = to;
+        this.compactTree = compactTree;
+    }
+
+    @Override
+    public void parse(MethodDeclaration method) {
+        // The "}" is parsed again, so that an error before it is reported as it is in a full parse
+        MiniJavaParser parser = new MiniJavaParser(tokens.slice(from, to + 1));
+        parser.setCompactTree(compactTree);
+        try {
+            parser.MethodBody(method);
+        } catch (ParseException ex) {
+            throw new RuntimeException(ex.getMessage(), ex);
+        }
+    }
+}
@@ -1,4 +1,4 @@
-package me.aslanoglou.dit.compilers.semanticalanalyzer;/* Generated By:JavaCC: Do not edit this line. Token.java Version 5.0 */
+package me.aslanoglou.dit.compilers.semanticalanalyzer;/* Generated By:JavaCC Version 5.0 from minijava.jj, and maintained by hand since: see the notes in minijava.jj. */
 /* JavaCCOptions:TOKEN_EXTENDS=,KEEP_LINE_COL=null,SUPPORT_CLASS_VISIBILITY_PUBLIC=true */
 /**
  * Describes the input token stream.
@@ -20,20 +20,25 @@ public class Token implements java.io.Serializable {
    */
   public int kind;
 
-  /** The line number of the first character of this Token. */
-  public int beginLine;
-  /** The column number of the first character of this Token. */
-  public int beginColumn;
-  /** The line number of the last character of this Token. */
-  public int endLine;
-  /** The column number of the last character of this Token. */
-  public int endColumn;
+  /**
+   * The offset in the input of the first character of this Token. The
+   * LineMap of the input turns it into a line and a column.
+   */
+  public int offset;
+  /** The number of characters of the input that this Token spans. */
+  public int length;
 
   /**
    * The string image of the token.
    */
   public String image;
 
+  /**
+   * The symbol of an IDENTIFIER token in the parser's SymbolPool (image is then the
+   * pool's String), or SymbolPool.NONE for any other kind of token.
+   */
+  public int symbol = -1;
+
   /**
    * A reference to the next regular (non-special) token from the input
    * stream.  If this is the last token from the input stream, or if the
@@ -92,6 +97,14 @@ public class Token implements java.io.Serializable {
     this.image = image;
   }
 
+  /**
+   * Returns the offset of the last character of this Token.
+   */
+  public int endOffset()
+  {
+    return offset + length - 1;
+  }
+
   /**
    * Returns the image.
    */
@@ -126,4 +139,3 @@ public class Token implements java.io.Serializable {
   }
 
 }
-/* JavaCC - OriginalChecksum=6145f5d5b504ccb4f95e09f2ce3e748a (do not edit this line) */
@@ -0,0 +1,134 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.*;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.visitor.DepthFirstVisitor;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Supplies the tokens of a tree built by a MiniJavaParser, with their positions. In a compact tree (see
+ * MiniJavaParser.setCompactTree) this is the only way to get the positions of the fixed tokens, which are
+ * shared NodeTokens that have none.
+ *
+ * The tokens of a node are its NodeTokens in source order, which are the tokens the parser consumed for it.
+ * The first time a node is asked about, the whole tree is walked once to find the range of tokens of every
+ * node; the tokens themselves are then taken from the parser, which keeps their offsets in the source.
+ */
+public class TokenLocator {
+    private final MiniJavaParser parser;
+    private final Node root;
+    // Node -> {index of its first token, index after its last token}
+    private Map<Node, int[]> ranges;
+
+    /**
+     * @param parser The parser that built the tree, it must not have been re-initialised since nor be
+     *               streaming
+     * @param root The tree, as returned by parser.Goal()
+     */
+    public TokenLocator(MiniJavaParser parser, Node root) {
+        this.parser = parser;
+        this.root = root;
+    }
+
+    /** @return The i-th token of node (the first one has index 0), as a NodeToken with its position */
+    public NodeToken token(Node node, int i) {
+        int[] range = range(node);
+        if (i < 0 || range[0] + i >= range[1])
+            throw new IndexOutOfBoundsException("Token " + i + " of a node of " + (range[1] - range[0]) + " tokens");
+        return parser.getNodeTokenAt(range[0] + i);
+    }
+
+    /** @return The number of tokens of node */
+    public int tokenCount(Node node) {
+        int[] range = range(node);
+        return range[1] - range[0];
+    }
+
+    /** @return The index in the input of the first token of node */
+    public int firstToken(Node node) {
+        return range(node)[0];
+    }
+
+    private int[] range(Node node) {
+        // A NodeChoice is visited as its choice
+        while (node instanceof NodeChoice)
+            node = ((NodeChoice) node).choice;
+        if (ranges == null) {
+            Numbering numbering = new Numbering();
+            root.accept(numbering);
+            ranges = numbering.ranges;
+        }
+        int[] range = ranges.get(node);
+        if (range == null && node instanceof NodeToken)
+            throw new IllegalArgumentException("A NodeToken is not located by itself, ask its parent node for it");
+        if (range == null)
+            throw new IllegalArgumentException("The node is not part of the tree");
+        return range;
+    }
+
+    // Numbers the tokens in source order, recording the range of every node
+    private static class Numbering extends DepthFirstVisitor {
+        final Map<Node, int[]> ranges = new IdentityHashMap<>();
+        int tokens;
+
+        void leave(Node n, int first) {
+            ranges.put(n, new int[]{first, tokens});
+        }
+
+        @Override
+        public void visit(NodeToken n) {
+            tokens++;
+        }
+
+        @Override public void visit(NodeList n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(NodeListOptional n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(NodeOptional n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(NodeSequence n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(Goal n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(MainClass n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(TypeDeclaration n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(ClassDeclaration n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(ClassExtendsDeclaration n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(VarDeclaration n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(MethodDeclaration n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(FormalParameterList n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(FormalParameter n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(FormalParameterTail n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(FormalParameterTerm n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(Type n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(ArrayType n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(BooleanType n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(IntegerType n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(Statement n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(Block n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(AssignmentStatement n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(ArrayAssignmentStatement n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(IfStatement n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(WhileStatement n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(PrintStatement n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(Expression n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(AndExpression n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(CompareExpression n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(PlusExpression n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(MinusExpression n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(TimesExpression n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(ArrayLookup n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(ArrayLength n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(MessageSend n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(ExpressionList n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(ExpressionTail n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(ExpressionTerm n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(Clause n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(PrimaryExpression n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(IntegerLiteral n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(TrueLiteral n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(FalseLiteral n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(Identifier n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(ThisExpression n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(ArrayAllocationExpression n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(AllocationExpression n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(NotExpression n) { int first = tokens; super.visit(n); leave(n, first); }
+        @Override public void visit(BracketExpression n) { int first = tokens; super.visit(n); leave(n, first); }
+    }
+}
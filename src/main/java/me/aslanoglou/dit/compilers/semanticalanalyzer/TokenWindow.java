@@ -0,0 +1,255 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+
+/**
+ * The tokens that MiniJavaParser has read from its token source, indexed by their position in the input
+ * (the first token has index 0).
+ *
+ * Token kinds are kept in a growable int[] so that the lookahead routines (jj_scan_token and the jj_3R_*
+ * scans) advance an int index and compare integers, instead of following Token.next through a linked list.
+ * The Token objects themselves are handed out through token(i) only when the parser consumes a token, and
+ * are chained through Token.next as ParseException expects.
+ *
+ * The tokens come either from a MiniJavaParserTokenManager, one at a time, or from a PackedTokens that holds
+ * the whole source already lexed. In the latter case the kinds are PackedTokens' own array and a Token is
+ * created only when token(i) first asks for it. The parser can also skip a run of packed tokens (see
+ * skipTo): their Tokens are then created only if one of them is asked for later on.
+ *
+ * Identifiers are interned in symbols, PackedTokens' own pool or a new one for a token manager, and their
+ * Tokens carry their symbol.
+ *
+ * A window over a token manager can be streaming (see setStreaming): it then keeps only the last KEPT tokens
+ * read, and indexes below base have been let go of. The parser never looks more than a few tokens back, to
+ * rescan a lookahead when it reports an error, so a source of any size is parsed in a window of fixed size.
+ */
+class TokenWindow {
+    private static final int INITIAL_CAPACITY = 256;
+    // Tokens a streaming window keeps behind the last one read
+    private static final int KEPT = 64;
+
+    private MiniJavaParserTokenManager tokenSource;
+    private PackedTokens packed;
+    // The identifiers read so far
+    SymbolPool symbols;
+    // Kind of the i-th token at kinds[i - base], valid for base <= i < size
+    int[] kinds;
+    // kinds is the array of packed, it's copied before anything is added to it
+    private boolean sharedKinds;
+    private Token[] tokens;
+    // Number of tokens read so far
+    int size;
+    // Index of the first token still held, the ones before it have been released (streaming only)
+    private int base;
+    private boolean streaming;
+    // Tokens before this index have been created (packed source only), and comments before this one
+    private int created;
+    private int createdComments;
+    // Placeholder before the first token, it's the parser's current token before anything is consumed
+    private Token head;
+    // The last Token created in order (packed source only), the next one is chained to it
+    private Token last;
+
+    TokenWindow(MiniJavaParserTokenManager tokenSource) {
+        tokens = new Token[INITIAL_CAPACITY];
+        reset(tokenSource);
+    }
+
+    TokenWindow(PackedTokens packed) {
+        tokens = new Token[Math.max(INITIAL_CAPACITY, packed.count)];
+        reset(packed);
+    }
+
+    /**
+     * Forgets all tokens read so far and starts reading from the given token source. The buffers are kept.
+     * @return The new head token, i.e. the one that precedes the first token of the input
+     */
+    Token reset(MiniJavaParserTokenManager tokenSource) {
+        clear();
+        if (kinds == null)
+            kinds = new int[INITIAL_CAPACITY];
+        this.tokenSource = tokenSource;
+        symbols = new SymbolPool();
+        return head;
+    }
+
+    /**
+     * Forgets all tokens read so far and continues with the given, already lexed, tokens.
+     * @return The new head token, i.e. the one that precedes the first token of the input
+     */
+    Token reset(PackedTokens packed) {
+        clear();
+        this.packed = packed;
+        symbols = packed.pool;
+        kinds = packed.kinds;
+        sharedKinds = true;
+        size = packed.count;
+        if (tokens.length < size)
+            tokens = new Token[size];
+        return head;
+    }
+
+    // Lets go of the tokens of the previous input, so that none of them is kept alive by a reused parser
+    private void clear() {
+        java.util.Arrays.fill(tokens, 0, size - base, null);
+        if (sharedKinds) {
+            kinds = null;
+            sharedKinds = false;
+        }
+        tokenSource = null;
+        packed = null;
+        size = base = created = createdComments = 0;
+        last = head = new Token();
+    }
+
+    /**
+     * Sets whether tokens that are well behind the last one read are let go of, so that they can be garbage
+     * collected as soon as the parser is done with them. A window over already lexed tokens holds them all
+     * anyway, so the setting only applies while the source is a token manager.
+     */
+    final void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    final boolean isStreaming() {
+        return streaming && packed == null;
+    }
+
+    /** @return The tokens, if they're already lexed, else null */
+    final PackedTokens packed() {
+        return packed;
+    }
+
+    /** @return The map that turns the offsets of the tokens into lines and columns */
+    final LineMap lines() {
+        return packed != null ? packed.lines : tokenSource.input_stream.getLineMap();
+    }
+
+    /** @return The kind of the i-th token (reading it if needed) */
+    final int kind(int i) {
+        while (i >= size)
+            fill();
+        return kinds[i - base];
+    }
+
+    /** @return The i-th token, or the head token for i == -1 */
+    final Token token(int i) {
+        if (i < base) {
+            if (i < 0)
+                return head;
+            throw new IllegalStateException("Token " + i + " has been released");
+        }
+        while (i >= size)
+            fill();
+        Token t = tokens[i - base];
+        return t != null ? t : create(i);
+    }
+
+    // Creates the packed tokens up to the i-th, with the comments before each one as its special tokens
+    private Token create(int i) {
+        if (i < created)
+            return createSkipped(i);
+        for (; created <= i; created++) {
+            Token t = packed.newToken(created);
+            Token special = null;
+            while (createdComments < packed.commentCount &&
+                    packed.commentStarts[createdComments] < packed.starts[created]) {
+                // chained as MiniJavaParserTokenManager.getNextToken does
+                Token comment = packed.newComment(createdComments++);
+                if (special != null) {
+                    comment.specialToken = special;
+                    special.next = comment;
+                }
+                special = comment;
+            }
+            t.specialToken = special;
+            last.next = t;
+            last = tokens[created] = t;
+        }
+        return tokens[i];
+    }
+
+    /**
+     * Moves past the packed tokens before the i-th one without creating them. The token that was created
+     * last is chained to the i-th token, and a skipped one is created only if token(j) asks for it.
+     */
+    final void skipTo(int i) {
+        if (packed == null || i <= created)
+            return;
+        created = i;
+        // The comments before the (i-1)-th token are the special tokens of skipped ones
+        createdComments = packed.commentsBefore(i - 1);
+    }
+
+    // Creates the i-th packed token, that was skipped, and links it in between the tokens created around it
+    private Token createSkipped(int i) {
+        Token t = packed.newToken(i);
+        Token special = null;
+        for (int c = i == 0 ? 0 : packed.commentsBefore(i - 1); c < packed.commentsBefore(i); c++) {
+            Token comment = packed.newComment(c);
+            if (special != null) {
+                comment.specialToken = special;
+                special.next = comment;
+            }
+            special = comment;
+        }
+        t.specialToken = special;
+        Token previous = i == 0 ? head : tokens[i - 1];
+        if (previous != null) {
+            t.next = previous.next;
+            previous.next = t;
+        }
+        else {
+            int j = i + 1;
+            while (j < created && tokens[j] == null)
+                j++;
+            t.next = tokens[j];
+        }
+        return tokens[i] = t;
+    }
+
+    // Reads one more token from the token source
+    private void fill() {
+        if (streaming && packed == null && size - base == kinds.length)
+            release(size - KEPT);
+        if (size - base == kinds.length || sharedKinds) {
+            kinds = java.util.Arrays.copyOf(kinds, Math.max(size * 2, INITIAL_CAPACITY));
+            sharedKinds = false;
+        }
+        if (size - base == tokens.length)
+            tokens = java.util.Arrays.copyOf(tokens, tokens.length * 2);
+        Token t;
+        if (packed == null) {
+            t = tokenSource.getNextToken();
+            if (t.kind == MiniJavaParserConstants.IDENTIFIER) {
+                t.symbol = symbols.intern(t.image);
+                t.image = symbols.name(t.symbol);
+            }
+        }
+        else {
+            // All packed tokens have been read: the source ends either in a lexical error, or in EOF which the
+            // token manager would return again and again
+            if (packed.hasLexicalError())
+                throw packed.lexicalError();
+            token(size - 1);
+            t = packed.newToken(packed.count - 1);
+            created++;
+        }
+        kinds[size - base] = t.kind;
+        tokens[size - base] = t;
+        (size == 0 ? head : tokens[size - 1 - base]).next = t;
+        size++;
+    }
+
+    // Lets go of the tokens before the given index, moving the rest to the start of the buffers
+    private void release(int before) {
+        int released = before - base;
+        // A Token that's still referenced, by a recorded ParseException say, doesn't keep the ones after it
+        tokens[released - 1].next = null;
+        head = null;
+        System.arraycopy(kinds, released, kinds, 0, size - before);
+        System.arraycopy(tokens, released, tokens, 0, size - before);
+        java.util.Arrays.fill(tokens, size - before, size - base, null);
+        base = before;
+    }
+}
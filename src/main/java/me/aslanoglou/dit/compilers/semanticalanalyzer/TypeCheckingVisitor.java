@@ -4,37 +4,48 @@ package me.aslanoglou.dit.compilers.semanticalanalyzer;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.containers.ClassContainer;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.containers.FunctionContainer;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.containers.VariableContainer;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.ClassHierarchy;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SemanticType;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolMap;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolTable;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.TypeTable;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.*;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.visitor.GJDepthFirst;
 
 import java.util.*;
 
-public class TypeCheckingVisitor extends GJDepthFirst<String, String> {
+// Every visit of an expression returns its type, the canonical instance of the TypeTable
+public class TypeCheckingVisitor extends GJDepthFirst<SemanticType, String> {
     private SymbolTable symbolTable;
-    private Map<String, ClassContainer> classInfo;
+    private SymbolMap<ClassContainer> classInfo;
+    private TypeTable types;
+    private SymbolPool symbols;
+    // The types of the arguments of the calls being checked, those of a nested call on top of its caller's
+    private SemanticType[] argumentStack = new SemanticType[16];
+    private int argumentTop;
     private ClassContainer currentClass;
     private FunctionContainer currentFunction;
 
-    public TypeCheckingVisitor(Set<String> verifiedClassNames,
-                               Map<String, List<String>> superClassRelation,
-                               Map<String, ClassContainer> classInfo) {
-        symbolTable = new SymbolTable(verifiedClassNames, superClassRelation, classInfo);
+    public TypeCheckingVisitor(BitSet verifiedClasses,
+                               ClassHierarchy hierarchy,
+                               SymbolMap<ClassContainer> classInfo,
+                               TypeTable types,
+                               SymbolPool symbols) {
+        symbolTable = new SymbolTable(verifiedClasses, hierarchy, classInfo, types, symbols);
         this.classInfo = classInfo;
+        this.types = types;
+        this.symbols = symbols;
     }
 
     //**************************************************//
     // SymbolTablePopulate related functions
     //**************************************************//
     // Add all fields of the given class into the current level of the symbol table
-    public void insertVariables(Map<String, VariableContainer> variables) {
-        if (variables.size() == 0)
-            return;
-        Iterator it = variables.entrySet().iterator();
-        while(it.hasNext()) {
-            Map.Entry fieldsEntry = (Map.Entry) it.next();
+    public void insertVariables(SymbolMap<VariableContainer> variables) {
+        for (int i = 0; i < variables.size(); i++) {
             // insert into current scope
-            symbolTable.insert((String) fieldsEntry.getKey(), (VariableContainer) fieldsEntry.getValue());
+            symbolTable.insert(variables.keyAt(i), variables.valueAt(i));
         }
     }
 
@@ -44,41 +55,38 @@ public class TypeCheckingVisitor extends GJDepthFirst<String, String> {
     // Simple Class and Class with extends
     //**************************************************//
     @Override
-    public String visit(ClassDeclaration n, String argu) {
+    public SemanticType visit(ClassDeclaration n, String argu) {
         // Find out in which class we are now, and add its fields at the scope
-        String className = n.f1.accept(this, "name");
-        currentClass = symbolTable.getClass(className);
+        currentClass = symbolTable.getClass(n.f1.f0.symbol);
         if (n.f3.present()) {
             insertVariables(currentClass.getFields());
         }
         if (n.f4.present()) {
             n.f4.accept(this, argu);
         }
-        return argu;
+        return null;
     }
 
     @Override
-    public String visit(ClassExtendsDeclaration n, String argu) {
+    public SemanticType visit(ClassExtendsDeclaration n, String argu) {
         // Find out in which class we are now, and add its fields at the scope
-        String className = n.f1.accept(this, "name");
-        currentClass = symbolTable.getClass(className);
+        currentClass = symbolTable.getClass(n.f1.f0.symbol);
         if (n.f5.present()) {
             insertVariables(currentClass.getFields());
         }
         if (n.f6.present()) {
             n.f6.accept(this, argu);
         }
-        return argu;
+        return null;
     }
 
     @Override
-    public String visit(MainClass n, String argu) {
+    public SemanticType visit(MainClass n, String argu) {
         // special case
         // Find out in which class we are now, and add its fields at the scope
-        String className = n.f1.accept(this, "name");
-        currentClass = symbolTable.getClass(className);
+        currentClass = symbolTable.getClass(n.f1.f0.symbol);
         symbolTable.enter();
-        FunctionContainer main = currentClass.getFunctions().get("main");
+        FunctionContainer main = currentClass.getFunctions().get(symbols.lookup("main"));
         currentFunction = main;
         // Add local vars into symbol table
         insertVariables(main.getVars());
@@ -91,17 +99,16 @@ public class TypeCheckingVisitor extends GJDepthFirst<String, String> {
             }
         }
         symbolTable.exit();
-        return argu;
+        return null;
     }
     //**************************************************//
 
 
-    public String visit(MethodDeclaration n, String argu) {
+    public SemanticType visit(MethodDeclaration n, String argu) {
         // Enter a new scope for the method declaration
         symbolTable.enter();
-        // Get method name
-        String methodName = n.f2.accept(this, "name");
-        currentFunction = currentClass.getFunctions().get(methodName);
+        // Get method
+        currentFunction = currentClass.getFunctions().get(n.f2.f0.symbol);
         // Insert formal parameters
         insertVariables(currentFunction.getParams());
         // and variables
@@ -114,15 +121,15 @@ public class TypeCheckingVisitor extends GJDepthFirst<String, String> {
                 stmt.accept(this, argu);
             }
         }
-        String returnValueType = n.f10.accept(this, argu);
+        SemanticType returnValueType = n.f10.accept(this, argu);
         ensureType(currentFunction.getType(), returnValueType);
         symbolTable.exit();
-        return argu;
+        return null;
     }
 
 
     // Ensures that the variable with identifier == variableName is of the same type as the "foundType" one
-    public void typeChecker(String variableName, String foundType) {
+    public void typeChecker(String variableName, SemanticType foundType) {
         // look up variable
         VariableContainer variable = symbolTable.lookup(variableName);
         if (variable == null)
@@ -134,8 +141,8 @@ public class TypeCheckingVisitor extends GJDepthFirst<String, String> {
     }
 
     // Ensures that the foundType is of type "type"
-    public static void ensureType(String type, String foundType) {
-        if (!type.equals(foundType)) {
+    public static void ensureType(SemanticType type, SemanticType foundType) {
+        if (type != foundType) {
             String error = "Incompatible types. Required '" + type + "' and found: '" + foundType + "'";
             throw new RuntimeException(error);
         }
@@ -145,19 +152,13 @@ public class TypeCheckingVisitor extends GJDepthFirst<String, String> {
     // Level 1 Visitors (BFS - k = 1)
     //**********************************************//
     @Override
-    public String visit(AssignmentStatement n, String argu) {
-        String idType = n.f0.accept(this, argu);
-        String exprType = n.f2.accept(this, argu);
+    public SemanticType visit(AssignmentStatement n, String argu) {
+        SemanticType idType = n.f0.accept(this, argu);
+        SemanticType exprType = n.f2.accept(this, argu);
         // If the identifier refers to a Class, check subtyping due to inheritance
-        if (symbolTable.getClass(idType) != null && !idType.equals(exprType)) {
-            List<String> supers = symbolTable.getSuperClasses(exprType);
-            if (supers != null) {
-                if (!supers.contains(idType)) {
-                    String error = "Incompatible types. Required '" + idType + "' and found: '" + exprType + "'";
-                    throw new RuntimeException(error);
-                }
-            }
-            else {
+        if (idType.isClass() && symbolTable.getClass(idType.getClassSymbol()) != null && idType != exprType) {
+            if (!exprType.isClass() || !symbolTable.getHierarchy().isSubclass(exprType.getClassSymbol(),
+                    idType.getClassSymbol())) {
                 // Identifier isn't a subtype and types mismatch.
                 String error = "Incompatible types. Required '" + idType + "' and found: '" + exprType + "'";
                 throw new RuntimeException(error);
@@ -169,49 +170,49 @@ public class TypeCheckingVisitor extends GJDepthFirst<String, String> {
     }
 
     @Override
-    public String visit(ArrayAssignmentStatement n, String argu) {
+    public SemanticType visit(ArrayAssignmentStatement n, String argu) {
         // Identifier must be of type int[]
         // Expressions must be Integers
-        String identifier = n.f0.accept(this, argu);
-        ensureType("int[]", identifier);
-        String idxExprType = n.f2.accept(this, argu);
-        ensureType("int", idxExprType);
-        String rvalueType = n.f5.accept(this, argu);
-        ensureType("int", rvalueType);
+        SemanticType identifier = n.f0.accept(this, argu);
+        ensureType(SemanticType.INT_ARRAY, identifier);
+        SemanticType idxExprType = n.f2.accept(this, argu);
+        ensureType(SemanticType.INT, idxExprType);
+        SemanticType rvalueType = n.f5.accept(this, argu);
+        ensureType(SemanticType.INT, rvalueType);
         return rvalueType;
     }
 
     @Override
-    public String visit(IfStatement n, String argu) {
+    public SemanticType visit(IfStatement n, String argu) {
         // Expression must be of type boolean
-        String ifExprType = n.f2.accept(this, argu);
-        ensureType("boolean", ifExprType);
+        SemanticType ifExprType = n.f2.accept(this, argu);
+        ensureType(SemanticType.BOOLEAN, ifExprType);
         n.f4.accept(this, argu);
         n.f6.accept(this, argu);
-        return "";
+        return null;
     }
 
     @Override
-    public String visit(PrintStatement n, String argu) {
+    public SemanticType visit(PrintStatement n, String argu) {
         // Expression can be either int or boolean
-        String exprType = n.f2.accept(this, argu);
-        if (!exprType.equals("boolean") && !exprType.equals("int")) {
+        SemanticType exprType = n.f2.accept(this, argu);
+        if (exprType != SemanticType.BOOLEAN && exprType != SemanticType.INT) {
             String error = "Incompatible types. Required 'int' or 'boolean' and found: '" + exprType + "'";
             throw new RuntimeException(error);
         }
-        return "";
+        return null;
     }
 
     @Override
-    public String visit(WhileStatement n, String argu) {
+    public SemanticType visit(WhileStatement n, String argu) {
         // expr must be of type boolean
-        String exprType = n.f2.accept(this, argu);
-        ensureType("boolean", exprType);
+        SemanticType exprType = n.f2.accept(this, argu);
+        ensureType(SemanticType.BOOLEAN, exprType);
         n.f4.accept(this, argu);
-        return "";
+        return null;
     }
 
-    public String visit(Block n, String argu) {
+    public SemanticType visit(Block n, String argu) {
         if (n.f1.present()) {
             Enumeration<Node> statements = n.f1.elements();
             while (statements.hasMoreElements()) {
@@ -219,209 +220,178 @@ public class TypeCheckingVisitor extends GJDepthFirst<String, String> {
                 stmt.accept(this, argu);
             }
         }
-        return argu;
+        return null;
     }
     //**********************************************//
     // Level 2 Visitors (BFS - k = 2)
     //**********************************************//
-    public String binaryOperators(String primAType, String primBType, String reqType, String retType) {
+    public SemanticType binaryOperators(SemanticType primAType, SemanticType primBType, SemanticType reqType,
+                                        SemanticType retType) {
         ensureType(reqType, primAType);
         ensureType(reqType, primBType);
         return retType;
     }
 
-    public String arithmeticBinaryOpers(String primAType, String primBType) {
-        return binaryOperators(primAType, primBType, "int", "int");
+    public SemanticType arithmeticBinaryOpers(SemanticType primAType, SemanticType primBType) {
+        return binaryOperators(primAType, primBType, SemanticType.INT, SemanticType.INT);
     }
 
     @Override
-    public String visit(Expression n, String argu) {
+    public SemanticType visit(Expression n, String argu) {
         return n.f0.accept(this, argu);
     }
 
 
     @Override
-    public String visit(AndExpression n, String argu) {
+    public SemanticType visit(AndExpression n, String argu) {
         // Both clauses must be of type boolean
-        String clause1Type = n.f0.accept(this, argu);
-        String clause2Type = n.f2.accept(this, argu);
-        return binaryOperators(clause1Type, clause2Type, "boolean", "boolean");
+        SemanticType clause1Type = n.f0.accept(this, argu);
+        SemanticType clause2Type = n.f2.accept(this, argu);
+        return binaryOperators(clause1Type, clause2Type, SemanticType.BOOLEAN, SemanticType.BOOLEAN);
     }
 
     @Override
-    public String visit(CompareExpression n, String argu) {
+    public SemanticType visit(CompareExpression n, String argu) {
         // Both primary expressions must be integers
-        String prim1Type = n.f0.accept(this, argu);
-        String prim2Type = n.f2.accept(this, argu);
-        return binaryOperators(prim1Type, prim2Type, "int", "boolean");
+        SemanticType prim1Type = n.f0.accept(this, argu);
+        SemanticType prim2Type = n.f2.accept(this, argu);
+        return binaryOperators(prim1Type, prim2Type, SemanticType.INT, SemanticType.BOOLEAN);
     }
 
     @Override
-    public String visit(PlusExpression n, String argu) {
+    public SemanticType visit(PlusExpression n, String argu) {
         // Both primary expressions must be integers
-        String prim1Type = n.f0.accept(this, argu);
-        String prim2Type = n.f2.accept(this, argu);
+        SemanticType prim1Type = n.f0.accept(this, argu);
+        SemanticType prim2Type = n.f2.accept(this, argu);
         return arithmeticBinaryOpers(prim1Type, prim2Type);
     }
 
     @Override
-    public String visit(MinusExpression n, String argu) {
+    public SemanticType visit(MinusExpression n, String argu) {
         // Both primary expressions must be integers
-        String prim1Type = n.f0.accept(this, argu);
-        String prim2Type = n.f2.accept(this, argu);
+        SemanticType prim1Type = n.f0.accept(this, argu);
+        SemanticType prim2Type = n.f2.accept(this, argu);
         return arithmeticBinaryOpers(prim1Type, prim2Type);
     }
 
     @Override
-    public String visit(TimesExpression n, String argu) {
+    public SemanticType visit(TimesExpression n, String argu) {
         // Both primary expressions must be integers
-        String prim1Type = n.f0.accept(this, argu);
-        String prim2Type = n.f2.accept(this, argu);
+        SemanticType prim1Type = n.f0.accept(this, argu);
+        SemanticType prim2Type = n.f2.accept(this, argu);
         return arithmeticBinaryOpers(prim1Type, prim2Type);
     }
 
     @Override
-    public String visit(ArrayLength n, String argu) {
-        String arrayType = n.f0.accept(this, argu);
-        ensureType("int[]", arrayType);
-        return "int";
+    public SemanticType visit(ArrayLength n, String argu) {
+        SemanticType arrayType = n.f0.accept(this, argu);
+        ensureType(SemanticType.INT_ARRAY, arrayType);
+        return SemanticType.INT;
     }
 
     @Override
-    public String visit(ArrayLookup n, String argu) {
-        String arrayType = n.f0.accept(this, argu);
-        ensureType("int[]", arrayType);
-        String idxType = n.f2.accept(this, argu);
-        ensureType("int", idxType);
-        return "int";
+    public SemanticType visit(ArrayLookup n, String argu) {
+        SemanticType arrayType = n.f0.accept(this, argu);
+        ensureType(SemanticType.INT_ARRAY, arrayType);
+        SemanticType idxType = n.f2.accept(this, argu);
+        ensureType(SemanticType.INT, idxType);
+        return SemanticType.INT;
     }
 
     @Override
-    public String visit(MessageSend n, String argu) {
+    public SemanticType visit(MessageSend n, String argu) {
         // PrimaryExpr must be of type class
-        String className = n.f0.accept(this, argu);
-        if (className.startsWith("class "))
+        SemanticType className = n.f0.accept(this, argu);
+        if (className.isClassReference())
             throw new RuntimeException("No static methods allowed");
-        VariableContainer dummy = symbolTable.lookup(className);
-        ClassContainer classContainer = symbolTable.getClass(dummy.getClassName());
-        String methodName = n.f2.accept(this, "name");
-        boolean superClassMethod = false;
-        FunctionContainer functionContainer = null;
-        if (!classContainer.getFunctions().containsKey(methodName)) {
-            // look for the method in its superclasses
-            List<String> supers = symbolTable.getSuperClasses(classContainer.getName());
-            for (String superClass: supers) {
-                ClassContainer superCl = symbolTable.getClass(superClass);
-                if (superCl.getFunctions().containsKey(methodName)) {
-                    superClassMethod = true;
-                    functionContainer = superCl.getFunctions().get(methodName);
-                    break;
-                }
-            }
-            if (!superClassMethod) {
-                String error = "Cannot find method '" + methodName + "' in '" + className + "'";
-                throw new RuntimeException(error);
-            }
-        }
-        StringBuilder argsB = new StringBuilder();
-        if (n.f4.present()) {
-            argsB.append(n.f4.accept(this, argu));
+        ClassContainer classContainer = className.isClass() ? symbolTable.getClass(className.getClassSymbol()) : null;
+        String methodName = n.f2.f0.tokenImage;
+        int methodSymbol = n.f2.f0.symbol;
+        // one lookup in the method table, which has the inherited methods too
+        FunctionContainer functionContainer = classContainer.lookupMethod(methodSymbol);
+        if (functionContainer == null) {
+            String error = "Cannot find method '" + methodName + "' in '" + className + "'";
+            throw new RuntimeException(error);
         }
-        String[] args = argsB.toString().split(",");
-        if (!superClassMethod)
-            functionContainer = classContainer.getFunctions().get(methodName);
-        functionContainer.checkCorrectParams(args, symbolTable.getSuperClassRelation());
+        int from = argumentTop;
+        if (n.f4.present())
+            pushArguments((ExpressionList) n.f4.node, argu);
+        functionContainer.checkCorrectParams(argumentStack, from, argumentTop - from, symbolTable.getHierarchy());
+        argumentTop = from;
         return functionContainer.getType();
     }
 
 
-    // Will return all args, in this form type1, type2, type1
-    @Override
-    public String visit(ExpressionList n, String argu) {
-        StringBuilder args = new StringBuilder();
-        args.append(n.f0.accept(this, argu) + ", ");
-        args.append(n.f1.accept(this, argu));
-        args.delete(args.length() - 2, args.length() - 1);
-        return args.toString().trim();
+    // Pushes the types of all args, in order, onto the argument stack
+    private void pushArguments(ExpressionList n, String argu) {
+        pushArgument(n.f0.accept(this, argu));
+        for (int i = 0; i < n.f1.f0.size(); i++)
+            pushArgument(((ExpressionTerm) n.f1.f0.elementAt(i)).f1.accept(this, argu));
     }
 
-
-    @Override
-    public String visit(ExpressionTail n, String argu) {
-        StringBuilder args = new StringBuilder();
-        if (n.f0.present()) {
-            Enumeration<Node> argsEnum = n.f0.elements();
-            while(argsEnum.hasMoreElements()) {
-                ExpressionTerm term = (ExpressionTerm) argsEnum.nextElement();
-                String argType = term.f1.accept(this, argu);
-                args.append(argType + ", ");
-            }
-        }
-        return args.toString();
+    private void pushArgument(SemanticType type) {
+        if (argumentTop == argumentStack.length)
+            argumentStack = Arrays.copyOf(argumentStack, 2 * argumentTop);
+        argumentStack[argumentTop++] = type;
     }
 
-    @Override
-    public String visit(ExpressionTerm n, String argu) {
-        return n.f1.accept(this, argu);
-    }
     //**********************************************//
     // Level 3 Visitors (BFS - k = 3)
     //**********************************************//
     @Override
-    public String visit(Clause n, String argu) {
+    public SemanticType visit(Clause n, String argu) {
         return n.f0.accept(this, argu);
     }
 
     @Override
-    public String visit(NotExpression n, String argu) {
+    public SemanticType visit(NotExpression n, String argu) {
         return n.f1.accept(this, argu);
     }
 
     @Override
-    public String visit(PrimaryExpression n, String argu) {
+    public SemanticType visit(PrimaryExpression n, String argu) {
         return n.f0.accept(this, argu);
     }
 
 
     @Override
-    public String visit(FalseLiteral n, String argu) {
-        return "boolean";
+    public SemanticType visit(FalseLiteral n, String argu) {
+        return SemanticType.BOOLEAN;
     }
 
     @Override
-    public String visit(TrueLiteral n, String argu) {
-        return "boolean";
+    public SemanticType visit(TrueLiteral n, String argu) {
+        return SemanticType.BOOLEAN;
     }
 
     @Override
-    public String visit(IntegerLiteral n, String argu) {
-        return "int";
+    public SemanticType visit(IntegerLiteral n, String argu) {
+        return SemanticType.INT;
     }
 
     @Override
-    public String visit(ThisExpression n, String argu) {
-        return currentClass.getName();
+    public SemanticType visit(ThisExpression n, String argu) {
+        return currentClass.getType();
     }
 
     @Override
-    public String visit(AllocationExpression n, String argu) {
+    public SemanticType visit(AllocationExpression n, String argu) {
         // the identifier must be a Class
-        String className = n.f1.accept(this, "name");
-        ClassContainer classContainer = symbolTable.getClass(className);
+        ClassContainer classContainer = symbolTable.getClass(n.f1.f0.symbol);
         if (classContainer == null)
-            throw new RuntimeException("Cannot resolve symbol '" + className + "'");
-        return className;
+            throw new RuntimeException("Cannot resolve symbol '" + n.f1.f0.tokenImage + "'");
+        return classContainer.getType();
     }
 
     @Override
-    public String visit(ArrayAllocationExpression n, String argu) {
-        String idxType = n.f3.accept(this, argu);
-        ensureType("int", idxType);
-        return "int[]";
+    public SemanticType visit(ArrayAllocationExpression n, String argu) {
+        SemanticType idxType = n.f3.accept(this, argu);
+        ensureType(SemanticType.INT, idxType);
+        return SemanticType.INT_ARRAY;
     }
 
     @Override
-    public String visit(BracketExpression n, String argu) {
+    public SemanticType visit(BracketExpression n, String argu) {
         return n.f1.accept(this, argu);
     }
 
@@ -429,37 +399,31 @@ public class TypeCheckingVisitor extends GJDepthFirst<String, String> {
     // Returning the correct type
     //**********************************************//
     @Override
-    public String visit(Type n, String argu) {
+    public SemanticType visit(Type n, String argu) {
         return n.f0.accept(this, argu);
     }
 
     @Override
-    public String visit(ArrayType n, String argu) {
-        return "int[]";
+    public SemanticType visit(ArrayType n, String argu) {
+        return SemanticType.INT_ARRAY;
     }
 
     @Override
-    public String visit(BooleanType n, String argu) {
-        return "boolean";
+    public SemanticType visit(BooleanType n, String argu) {
+        return SemanticType.BOOLEAN;
     }
 
     @Override
-    public String visit(IntegerType n, String argu) {
-        return "int";
+    public SemanticType visit(IntegerType n, String argu) {
+        return SemanticType.INT;
     }
 
     @Override
-    public String visit(Identifier n, String argu) {
-        if (argu.equals("name")) {
-            return n.f0.withSpecials();
-        }
-        else {
-            String identifier = n.f0.withSpecials();
-            VariableContainer varID = symbolTable.lookup(identifier);
-            if (varID == null)
-                throw new RuntimeException("Cannot resolve symbol '" + identifier + "'");
-            return varID.getType();
-        }
+    public SemanticType visit(Identifier n, String argu) {
+        VariableContainer varID = symbolTable.lookup(n.f0.symbol);
+        if (varID == null)
+            throw new RuntimeException("Cannot resolve symbol '" + n.f0.tokenImage + "'");
+        return varID.getType();
     }
     //**********************************************//
 }
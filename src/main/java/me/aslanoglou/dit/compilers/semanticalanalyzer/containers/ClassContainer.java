@@ -1,40 +1,103 @@
 package me.aslanoglou.dit.compilers.semanticalanalyzer.containers;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SemanticType;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolMap;
+
+import java.util.Arrays;
 
 /**
  * Holds information for classes.
  */
 public class ClassContainer extends Container {
-    // fieldName -> fieldType
-    private Map<String, VariableContainer> fields;
-    // functionName -> FunctionContainer
-    private Map<String, FunctionContainer> functions;
+    // fieldSymbol -> field
+    private SymbolMap<VariableContainer> fields;
+    // functionSymbol -> FunctionContainer
+    private SymbolMap<FunctionContainer> functions;
+    // The methods of the class and the ones it inherits, by slot (see buildMethodTable)
+    private FunctionContainer[] methodTable;
+    // methodSymbol -> slot in methodTable
+    private SymbolMap<Integer> methodSlots;
 
-    public ClassContainer(String name) {
-        super(name, "class", name, 0, false);
-        fields = new HashMap<>();
-        functions = new HashMap<>();
+    // type is the type of the instances of the class
+    public ClassContainer(int symbol, String name, SemanticType type) {
+        super(symbol, name, type, name, 0, false);
+        fields = new SymbolMap<>();
+        functions = new SymbolMap<>();
+        methodTable = new FunctionContainer[0];
+        methodSlots = new SymbolMap<>();
     }
 
 
-    public Map<String, FunctionContainer> getFunctions() {
+    public SymbolMap<FunctionContainer> getFunctions() {
         return functions;
     }
 
 
-    public Map<String, VariableContainer> getFields() {
+    public SymbolMap<VariableContainer> getFields() {
         return fields;
     }
 
 
-    public void addField(String fieldName, String fieldType) {
-        if (fields.containsKey(fieldName))
+    /**
+     * Builds the method table of the class, once its functions are collected. The slots of the superclass come
+     * first, in its order, and a method that overrides one takes its slot; the methods that don't follow in the
+     * order they're declared. So a method has the same slot in a class and in all of its subclasses.
+     * @param superClass The superclass, with its table built, or null if the class doesn't extend one
+     */
+    public void buildMethodTable(ClassContainer superClass) {
+        int inherited = superClass != null ? superClass.methodTable.length : 0;
+        methodTable = new FunctionContainer[inherited + functions.size()];
+        methodSlots = new SymbolMap<>();
+        for (int slot = 0; slot < inherited; slot++) {
+            methodTable[slot] = superClass.methodTable[slot];
+            methodSlots.put(superClass.methodSlots.keyAt(slot), slot);
+        }
+        int size = inherited;
+        for (int i = 0; i < functions.size(); i++) {
+            Integer slot = methodSlots.get(functions.keyAt(i));
+            if (slot != null) {
+                methodTable[slot] = functions.valueAt(i);
+            }
+            else {
+                methodSlots.put(functions.keyAt(i), size);
+                methodTable[size++] = functions.valueAt(i);
+            }
+        }
+        if (size < methodTable.length)
+            methodTable = Arrays.copyOf(methodTable, size);
+    }
+
+
+    /** @return The method that a call of methodSymbol on an instance resolves to, own or inherited, or null */
+    public FunctionContainer lookupMethod(int methodSymbol) {
+        Integer slot = methodSlots.get(methodSymbol);
+        return slot != null ? methodTable[slot] : null;
+    }
+
+
+    /** @return The slot of methodSymbol in the method table, -1 if the class has no such method */
+    public int getMethodSlot(int methodSymbol) {
+        Integer slot = methodSlots.get(methodSymbol);
+        return slot != null ? slot : -1;
+    }
+
+
+    /** @return The method in slot of the method table */
+    public FunctionContainer getMethodAt(int slot) {
+        return methodTable[slot];
+    }
+
+
+    public int getMethodTableSize() {
+        return methodTable.length;
+    }
+
+
+    public void addField(int fieldSymbol, String fieldName, SemanticType fieldType) {
+        if (fields.containsKey(fieldSymbol))
             throw new RuntimeException("Variable '" + fieldName + "' is already defined in this scope");
-        VariableContainer var = new VariableContainer(fieldName, fieldType, this.name, this.fields.size() + 1);
-        fields.put(fieldName, var);
+        VariableContainer var = new VariableContainer(fieldSymbol, fieldName, fieldType, this.name, this.fields.size() + 1);
+        fields.put(fieldSymbol, var);
     }
 
 
@@ -42,18 +105,22 @@ public class ClassContainer extends Container {
     public String toString() {
         StringBuilder fieldsStr = new StringBuilder();
         if (fields.size() != 0) {
-            Iterator it = fields.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry fieldEntry = (Map.Entry) it.next();
-                VariableContainer field = (VariableContainer) fieldEntry.getValue();
+            for (int i = 0; i < fields.size(); i++) {
+                VariableContainer field = fields.valueAt(i);
                 fieldsStr.append(field.getType() + " " + field.getName() + ",");
             }
             fieldsStr.delete(fieldsStr.length() - 1, fieldsStr.length());
         }
+        StringBuilder functionsStr = new StringBuilder("{");
+        for (int i = 0; i < functions.size(); i++) {
+            FunctionContainer function = functions.valueAt(i);
+            functionsStr.append(i == 0 ? "" : ", ").append(function.getName()).append("=").append(function);
+        }
+        functionsStr.append("}");
         return "ClassContainer {" +
                 "name='" + name + "'" +
                 ", \n\t\tfields=" + fieldsStr.toString() +
-                ", \n\t\tfunctions=" + functions +
+                ", \n\t\tfunctions=" + functionsStr.toString() +
                 '}';
     }
 }
@@ -1,16 +1,22 @@
 package me.aslanoglou.dit.compilers.semanticalanalyzer.containers;
 
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SemanticType;
+
 /**
  * Generic container (aka wrapper) class for Classes, Functions, Variables.
  */
 public class Container {
+    // Symbol of the name in the SymbolPool of the compilation
+    int symbol;
     String name;
-    String type;
+    // Canonical instance from the TypeTable of the compilation, compared by reference
+    SemanticType type;
     String className;
     int order;
     boolean isMethod;
 
-    public Container(String name, String type, String className, int order, boolean isMethod) {
+    public Container(int symbol, String name, SemanticType type, String className, int order, boolean isMethod) {
+        this.symbol = symbol;
         this.name = name;
         this.type = type;
         this.className = className;
@@ -18,11 +24,15 @@ public class Container {
         this.isMethod = isMethod;
     }
 
+    public int getSymbol() {
+        return symbol;
+    }
+
     public String getName() {
         return name;
     }
 
-    public String getType() {
+    public SemanticType getType() {
         return type;
     }
 
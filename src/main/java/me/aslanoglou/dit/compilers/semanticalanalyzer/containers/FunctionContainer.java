@@ -1,53 +1,57 @@
 package me.aslanoglou.dit.compilers.semanticalanalyzer.containers;
 
 import me.aslanoglou.dit.compilers.semanticalanalyzer.TypeCheckingVisitor;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.ClassHierarchy;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SemanticType;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolMap;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Holds information for functions.
  */
 public class FunctionContainer extends Container{
-    // ParamName -> ParamType
-    private Map<String, VariableContainer> params;
-    // VarName -> VarType
-    private Map<String, VariableContainer> vars;
+    // The params in order: their symbols, their types and their containers
+    private int[] paramSymbols;
+    private SemanticType[] paramTypes;
+    private VariableContainer[] paramList;
+    private int paramCount;
+    // ParamSymbol -> param, for the lookups by name
+    private SymbolMap<VariableContainer> params;
+    // VarSymbol -> var
+    private SymbolMap<VariableContainer> vars;
 
-    public FunctionContainer(String name, String type, String className, int index) {
-        super(name, type, className, index, true);
-        params = new HashMap<>();
-        vars = new HashMap<>();
+    public FunctionContainer(int symbol, String name, SemanticType type, String className, int index) {
+        super(symbol, name, type, className, index, true);
+        paramSymbols = new int[2];
+        paramTypes = new SemanticType[2];
+        paramList = new VariableContainer[2];
+        params = new SymbolMap<>();
+        vars = new SymbolMap<>();
     }
 
-    public Map<String, VariableContainer> getParams() {
+    public SymbolMap<VariableContainer> getParams() {
         return params;
     }
 
-    public Map<String, VariableContainer> getVars() {
+    public SymbolMap<VariableContainer> getVars() {
         return vars;
     }
 
     @Override
     public String toString() {
         StringBuilder paramsStr = new StringBuilder();
-        if (params.size() != 0) {
-            Iterator it = params.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry paramEntry = (Map.Entry) it.next();
-                VariableContainer param = (VariableContainer) paramEntry.getValue();
+        if (paramCount != 0) {
+            for (int i = 0; i < paramCount; i++) {
+                VariableContainer param = paramList[i];
                 paramsStr.append(param.getType() + " " + param.getName() + ", ");
             }
             paramsStr.delete(paramsStr.length() - 2, paramsStr.length());
         }
         StringBuilder varsStr = new StringBuilder();
         if (vars.size() != 0) {
-            Iterator it = vars.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry varEntry = (Map.Entry) it.next();
-                VariableContainer var = (VariableContainer) varEntry.getValue();
+            for (int i = 0; i < vars.size(); i++) {
+                VariableContainer var = vars.valueAt(i);
                 varsStr.append("\t" + var.getType() + " " + var.getName() + ";\n");
             }
             varsStr.delete(varsStr.length() - 1, varsStr.length());
@@ -57,22 +61,15 @@ public class FunctionContainer extends Container{
 
     public boolean isIdentical(FunctionContainer function) {
         // Check if return type is the same
-        if (!this.type.equals(function.type))
+        if (this.type != function.type)
             return false;
         else {
             // Check formalParameters, but firstly check their number
-            if (this.params.size() != function.params.size())
+            if (this.paramCount != function.paramCount)
                 return false;
-            Iterator it = params.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry paramEntry = (Map.Entry) it.next();
-                // Extract param from current and given
-                VariableContainer param = (VariableContainer) paramEntry.getValue();
-                // Check if it exists
-                if (!function.params.containsKey(param.name))
-                    return false;
-                VariableContainer paramOther = (VariableContainer) function.params.get(param.name);
-                if (!param.isIdenticalOrdered(paramOther))
+            // The params in the same order must have the same names and types
+            for (int i = 0; i < paramCount; i++) {
+                if (paramSymbols[i] != function.paramSymbols[i] || paramTypes[i] != function.paramTypes[i])
                     return false;
             }
             return true;
@@ -80,62 +77,63 @@ public class FunctionContainer extends Container{
     }
 
 
-    public void addParam(String paramName, String paramType) {
-        if (params.containsKey(paramName))
+    public void addParam(int paramSymbol, String paramName, SemanticType paramType) {
+        if (params.containsKey(paramSymbol))
             throw new RuntimeException("Variable '" + paramName + "' is already defined in this scope");
-        VariableContainer param = new VariableContainer(paramName, paramType, this.className, this.params.size() + 1);
-        params.put(paramName, param);
+        VariableContainer param = new VariableContainer(paramSymbol, paramName, paramType, this.className, this.params.size() + 1);
+        params.put(paramSymbol, param);
+        if (paramCount == paramList.length) {
+            paramSymbols = Arrays.copyOf(paramSymbols, 2 * paramCount);
+            paramTypes = Arrays.copyOf(paramTypes, 2 * paramCount);
+            paramList = Arrays.copyOf(paramList, 2 * paramCount);
+        }
+        paramSymbols[paramCount] = paramSymbol;
+        paramTypes[paramCount] = paramType;
+        paramList[paramCount++] = param;
     }
 
-    public void addVar(String varName, String varType) {
-        if (vars.containsKey(varName))
+    public void addVar(int varSymbol, String varName, SemanticType varType) {
+        if (vars.containsKey(varSymbol))
             throw new RuntimeException("Variable '" + varName + "' is already defined in this scope");
         // Variable must not already be defined as a parameter.
-        if (params.containsKey(varName))
+        if (params.containsKey(varSymbol))
             throw new RuntimeException("Variable '" + varName + "' is already defined in this scope");
-        VariableContainer var = new VariableContainer(varName, varType, this.className, this.vars.size() + 1);
-        vars.put(varName, var);
+        VariableContainer var = new VariableContainer(varSymbol, varName, varType, this.className, this.vars.size() + 1);
+        vars.put(varSymbol, var);
     }
 
     // responsible for returning the VariableContainer that represents the i-th parameter
     public VariableContainer getParam(int i) {
-        for(String varName: params.keySet()) {
-            VariableContainer variable = params.get(varName);
-            if (variable.getOrder() == i)
-                return variable;
-        }
-        return null;
+        return i >= 1 && i <= paramCount ? paramList[i - 1] : null;
     }
 
     public int getParamsSize() {
-        return params.size();
+        return paramCount;
     }
 
-    public void checkCorrectParams(String[] args, Map<String, List<String>> classInfo) {
+    /**
+     * Checks the types of the arguments of a call against those of the parameters. An argument can be of the
+     * type of its parameter or of a subclass of it. A call without arguments isn't checked.
+     * @param args The types of the arguments, in order, from args[from] on
+     * @param from The index of the first argument in args
+     * @param count The number of the arguments
+     * @param hierarchy The classes with their superclasses
+     */
+    public void checkCorrectParams(SemanticType[] args, int from, int count, ClassHierarchy hierarchy) {
         // check equal number
-        if (args[0].equals(""))
+        if (count == 0)
             return;
-        if (args.length != params.size()){
-            String error = "ParametersNumber - Expected: " + params.size() + " Found: " + args.length;
+        if (count != paramCount){
+            String error = "ParametersNumber - Expected: " + paramCount + " Found: " + count;
             throw new RuntimeException(error);
         }
-        // Build array with the types of the parameters
-        String[] paramTypes = new String[args.length];
-        for(String paramName: params.keySet()) {
-            VariableContainer tmp = params.get(paramName);
-            paramTypes[tmp.getOrder() - 1] = tmp.getType();
-        }
-        for (int i = 0; i < args.length; i++) {
+        for (int i = 0; i < count; i++) {
+            SemanticType arg = args[from + i];
             // check for subType
-            List<String> supers = classInfo.get(args[i]);
-            if (supers != null) {
-                if (!supers.contains(paramTypes[i])) {
-                    String error = "Incompatible types. Required '" + paramTypes[i] + "' and found: '" + args[i] + "'";
-                    throw new RuntimeException(error);
-                }
-            }
-            else
-                TypeCheckingVisitor.ensureType(paramTypes[i], args[i].trim());
+            if (arg.isClass() && paramTypes[i].isClass()
+                    && hierarchy.isSubclass(arg.getClassSymbol(), paramTypes[i].getClassSymbol()))
+                continue;
+            TypeCheckingVisitor.ensureType(paramTypes[i], arg);
         }
     }
 }
@@ -1,24 +1,26 @@
 package me.aslanoglou.dit.compilers.semanticalanalyzer.containers;
 
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SemanticType;
+
 /**
  * Holds information for variables.
  */
 public class VariableContainer extends Container {
 
-    public VariableContainer(String name, String type, String className, int index) {
-        super(name, type, className, index, false);
+    public VariableContainer(int symbol, String name, SemanticType type, String className, int index) {
+        super(symbol, name, type, className, index, false);
     }
 
     public boolean isIdentical(VariableContainer other) {
-        return this.name.equals(other.name) && this.type.equals(other.type);
+        return this.symbol == other.symbol && this.type == other.type;
     }
 
     public boolean isIdenticalOrdered(VariableContainer other) {
-        return this.name.equals(other.name) && this.type.equals(other.type) && (this.order == other.order);
+        return this.symbol == other.symbol && this.type == other.type && (this.order == other.order);
     }
 
-    public boolean hasSameType(String othType) {
-        return this.type.equals(othType);
+    public boolean hasSameType(SemanticType othType) {
+        return this.type == othType;
     }
 
     public static boolean isInteger(String s) {
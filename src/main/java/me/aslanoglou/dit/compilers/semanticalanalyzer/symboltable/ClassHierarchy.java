@@ -0,0 +1,150 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable;
+
+import java.util.Arrays;
+
+/**
+ * The classes of a compilation and their superclasses, keyed by the symbols of their names. ClassNameCollector
+ * adds every class in phase 1, after its superclass, so the hierarchy is a forest.
+ *
+ * The forest is numbered by a depth first walk, which gives every class the preorder number of the walk entering
+ * it and the postorder number of the walk leaving it. A class is a subclass of another exactly if the walk enters
+ * it after the other and leaves it before, so isSubclass is two comparisons however deep the chains are. The
+ * numbering is done on the first query after classes were added.
+ */
+public final class ClassHierarchy {
+    // By class symbol: the superclass, SymbolPool.NONE for a class that doesn't extend one or isn't declared
+    private int[] superclasses;
+    // By class symbol: the first subclass, and the next subclass of the same superclass, as lists of children
+    private int[] firstSubclasses;
+    private int[] nextSiblings;
+    private int[] preorder;
+    private int[] postorder;
+    // The classes, in the order they were added
+    private int[] classes;
+    private int size;
+    private boolean numbered;
+
+    public ClassHierarchy() {
+        superclasses = new int[16];
+        firstSubclasses = new int[16];
+        nextSiblings = new int[16];
+        Arrays.fill(superclasses, SymbolPool.NONE);
+        Arrays.fill(firstSubclasses, SymbolPool.NONE);
+        preorder = new int[16];
+        postorder = new int[16];
+        classes = new int[16];
+    }
+
+    /**
+     * Adds a class, after its superclass. A class that extends itself is added as one that doesn't extend any,
+     * which is all it inherits.
+     * @param classSymbol The symbol of the class name
+     * @param superclassSymbol The symbol of the superclass name, SymbolPool.NONE if it doesn't extend one
+     */
+    public void add(int classSymbol, int superclassSymbol) {
+        if (superclassSymbol == classSymbol)
+            superclassSymbol = SymbolPool.NONE;
+        ensureCapacity(classSymbol);
+        if (size == classes.length)
+            classes = Arrays.copyOf(classes, size * 2);
+        classes[size++] = classSymbol;
+        superclasses[classSymbol] = superclassSymbol;
+        if (superclassSymbol != SymbolPool.NONE) {
+            nextSiblings[classSymbol] = firstSubclasses[superclassSymbol];
+            firstSubclasses[superclassSymbol] = classSymbol;
+        }
+        numbered = false;
+    }
+
+    /** @return The number of classes */
+    public int size() {
+        return size;
+    }
+
+    /** @return Whether classSymbol was added */
+    public boolean contains(int classSymbol) {
+        number();
+        return classSymbol >= 0 && classSymbol < preorder.length && preorder[classSymbol] != 0;
+    }
+
+    /** @return The superclass of classSymbol, SymbolPool.NONE if it doesn't extend one */
+    public int superclass(int classSymbol) {
+        return classSymbol >= 0 && classSymbol < superclasses.length ? superclasses[classSymbol] : SymbolPool.NONE;
+    }
+
+    /** @return Whether classSymbol is superclassSymbol or one of its subclasses, at any depth */
+    public boolean isSubclass(int classSymbol, int superclassSymbol) {
+        if (!contains(classSymbol) || !contains(superclassSymbol))
+            return false;
+        return preorder[superclassSymbol] <= preorder[classSymbol]
+                && postorder[classSymbol] <= postorder[superclassSymbol];
+    }
+
+    /**
+     * @return The closest class that both classes are, or are subclasses of, SymbolPool.NONE if there's none
+     * (they're in separate trees, or one isn't a class)
+     */
+    public int commonAncestor(int classSymbol, int otherSymbol) {
+        if (!contains(otherSymbol))
+            return SymbolPool.NONE;
+        int ancestor = contains(classSymbol) ? classSymbol : SymbolPool.NONE;
+        while (ancestor != SymbolPool.NONE && !isSubclass(otherSymbol, ancestor))
+            ancestor = superclasses[ancestor];
+        return ancestor;
+    }
+
+    // Numbers the classes, walking every tree from its root without recursion (the chains can be deep)
+    private void number() {
+        if (numbered)
+            return;
+        Arrays.fill(preorder, 0);
+        // numbers start at 1, so that 0 marks a symbol that isn't a class
+        int pre = 1;
+        int post = 1;
+        for (int c = 0; c < size; c++) {
+            int root = classes[c];
+            if (superclasses[root] != SymbolPool.NONE)
+                continue;
+            int current = root;
+            preorder[current] = pre++;
+            while (current != SymbolPool.NONE) {
+                int child = firstSubclasses[current];
+                if (child != SymbolPool.NONE && preorder[child] == 0) {
+                    current = child;
+                    preorder[current] = pre++;
+                    continue;
+                }
+                // the subclasses of current are done, go on with its next sibling or back up to its superclass
+                while (current != SymbolPool.NONE) {
+                    postorder[current] = post++;
+                    if (current == root) {
+                        current = SymbolPool.NONE;
+                        break;
+                    }
+                    int sibling = nextSiblings[current];
+                    if (sibling != SymbolPool.NONE) {
+                        current = sibling;
+                        preorder[current] = pre++;
+                        break;
+                    }
+                    current = superclasses[current];
+                }
+            }
+        }
+        numbered = true;
+    }
+
+    private void ensureCapacity(int classSymbol) {
+        if (classSymbol >= superclasses.length) {
+            int oldLength = superclasses.length;
+            int length = Math.max(classSymbol + 1, oldLength * 2);
+            superclasses = Arrays.copyOf(superclasses, length);
+            firstSubclasses = Arrays.copyOf(firstSubclasses, length);
+            nextSiblings = Arrays.copyOf(nextSiblings, length);
+            preorder = Arrays.copyOf(preorder, length);
+            postorder = Arrays.copyOf(postorder, length);
+            Arrays.fill(superclasses, oldLength, length, SymbolPool.NONE);
+            Arrays.fill(firstSubclasses, oldLength, length, SymbolPool.NONE);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable;
+
+/**
+ * A type as the checks see it: int, boolean, int[], void (the main method's), a class, or a class named as a
+ * variable would be ("class X", see SymbolTable.lookup). A TypeTable has one instance of each type, so types are
+ * compared by reference, and each has a dense id.
+ */
+public final class SemanticType {
+    public static final SemanticType INT = new SemanticType(0, "int", SymbolPool.NONE, false);
+    public static final SemanticType BOOLEAN = new SemanticType(1, "boolean", SymbolPool.NONE, false);
+    public static final SemanticType INT_ARRAY = new SemanticType(2, "int[]", SymbolPool.NONE, false);
+    public static final SemanticType VOID = new SemanticType(3, "void", SymbolPool.NONE, false);
+    // The number of the types above, which every TypeTable has
+    static final int BUILTIN_COUNT = 4;
+
+    private final int id;
+    private final String name;
+    private final int classSymbol;
+    private final boolean classReference;
+
+    SemanticType(int id, String name, int classSymbol, boolean classReference) {
+        this.id = id;
+        this.name = name;
+        this.classSymbol = classSymbol;
+        this.classReference = classReference;
+    }
+
+    /** @return The id of the type, unique in its TypeTable */
+    public int getId() {
+        return id;
+    }
+
+    /** @return The type as the error messages spell it */
+    public String getName() {
+        return name;
+    }
+
+    /** @return The symbol of the name of the class of a class type or a class reference, or SymbolPool.NONE */
+    public int getClassSymbol() {
+        return classSymbol;
+    }
+
+    /** @return Whether it's the type of instances of a class */
+    public boolean isClass() {
+        return classSymbol != SymbolPool.NONE && !classReference;
+    }
+
+    /** @return Whether it's the type of a class named as a variable, "class X" */
+    public boolean isClassReference() {
+        return classReference;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
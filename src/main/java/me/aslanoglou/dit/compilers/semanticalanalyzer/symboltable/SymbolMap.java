@@ -0,0 +1,98 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable;
+
+import java.util.Arrays;
+
+/**
+ * A map from the symbols of a SymbolPool to values, which keeps its entries in insertion order.
+ *
+ * Keys are plain ints, so a lookup neither boxes its key nor calls hashCode or equals. Maps of a few entries
+ * (most classes and methods) are searched linearly; an index is built once a map grows past that.
+ */
+public final class SymbolMap<V> {
+    // Maps up to this size have no index
+    private static final int LINEAR_LIMIT = 8;
+
+    private int[] keys = new int[4];
+    private Object[] values = new Object[4];
+    private int size;
+    // Open addressing hash table of entry position + 1, 0 marks a free slot, null until size > LINEAR_LIMIT
+    private int[] index;
+
+    /** @return The value of symbol, or null if there's none */
+    @SuppressWarnings("unchecked")
+    public V get(int symbol) {
+        int i = find(symbol);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    public boolean containsKey(int symbol) {
+        return find(symbol) >= 0;
+    }
+
+    /** Sets the value of symbol, an existing entry keeps its position */
+    public void put(int symbol, V value) {
+        int i = find(symbol);
+        if (i >= 0) {
+            values[i] = value;
+            return;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = symbol;
+        values[size] = value;
+        size++;
+        if (index != null)
+            insert(index, size - 1);
+        else if (size > LINEAR_LIMIT)
+            reindex(LINEAR_LIMIT * 4);
+        if (index != null && size * 2 > index.length)
+            reindex(index.length * 2);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** @return The symbol of the i-th entry, in insertion order */
+    public int keyAt(int i) {
+        return keys[i];
+    }
+
+    /** @return The value of the i-th entry, in insertion order */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int i) {
+        return (V) values[i];
+    }
+
+    private int find(int symbol) {
+        if (index == null) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == symbol)
+                    return i;
+            }
+            return -1;
+        }
+        int mask = index.length - 1;
+        for (int slot = symbol & mask; ; slot = (slot + 1) & mask) {
+            int i = index[slot] - 1;
+            if (i < 0 || keys[i] == symbol)
+                return i;
+        }
+    }
+
+    private void reindex(int capacity) {
+        index = new int[capacity];
+        for (int i = 0; i < size; i++)
+            insert(index, i);
+    }
+
+    private void insert(int[] index, int i) {
+        int mask = index.length - 1;
+        int slot = keys[i] & mask;
+        while (index[slot] != 0)
+            slot = (slot + 1) & mask;
+        index[slot] = i + 1;
+    }
+}
@@ -0,0 +1,146 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Interns the identifiers of a compilation: every distinct identifier gets a dense int symbol (0, 1, 2, ...)
+ * and a single String for its text.
+ *
+ * The lexer interns each identifier as it reads it, so later phases compare and hash symbols instead of
+ * Strings, and the AST holds one String per distinct identifier instead of one per occurrence.
+ */
+public final class SymbolPool {
+    /** The symbol of no identifier */
+    public static final int NONE = -1;
+
+    private String[] names = new String[64];
+    private int[] hashes = new int[64];
+    private int size;
+    // Open addressing hash table of symbol + 1, 0 marks a free slot
+    private int[] table = new int[128];
+
+    /** @return The symbol of the identifier held in chars[start, start + length), interning it if it's new */
+    public int intern(char[] chars, int start, int length) {
+        // String.hashCode, so that both intern methods agree
+        int hash = 0;
+        for (int i = start; i < start + length; i++)
+            hash = 31 * hash + chars[i];
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int symbol = table[slot] - 1;
+            if (symbol == NONE)
+                return add(new String(chars, start, length), hash, slot);
+            if (hashes[symbol] == hash && matches(names[symbol], chars, start, length))
+                return symbol;
+        }
+    }
+
+    /**
+     * @return The symbol of the UTF-8 identifier held in bytes[start, start + length), interning it if it's
+     *         new. An ASCII identifier is looked up in place, any other is decoded first.
+     */
+    public int intern(byte[] bytes, int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            byte b = bytes[i];
+            if (b < 0) {
+                return intern(new String(bytes, start, length, StandardCharsets.UTF_8));
+            }
+            hash = 31 * hash + b;
+        }
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int symbol = table[slot] - 1;
+            if (symbol == NONE)
+                return add(new String(bytes, start, length, StandardCharsets.US_ASCII), hash, slot);
+            if (hashes[symbol] == hash && matches(names[symbol], bytes, start, length))
+                return symbol;
+        }
+    }
+
+    /** @return The symbol of name, interning it if it's new */
+    public int intern(String name) {
+        int hash = name.hashCode();
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int symbol = table[slot] - 1;
+            if (symbol == NONE)
+                return add(name, hash, slot);
+            if (hashes[symbol] == hash && names[symbol].equals(name))
+                return symbol;
+        }
+    }
+
+    /** @return The symbol of name, or NONE if it hasn't been interned */
+    public int lookup(String name) {
+        int hash = name.hashCode();
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int symbol = table[slot] - 1;
+            if (symbol == NONE || (hashes[symbol] == hash && names[symbol].equals(name)))
+                return symbol;
+        }
+    }
+
+    /** @return The text of the given symbol */
+    public String name(int symbol) {
+        return names[symbol];
+    }
+
+    /** @return The number of symbols, all of them are less than it */
+    public int size() {
+        return size;
+    }
+
+    private int add(String name, int hash, int slot) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        names[size] = name;
+        hashes[size] = hash;
+        table[slot] = size + 1;
+        size++;
+        // keep the table at most half full
+        if (size * 2 > table.length)
+            rehash();
+        return size - 1;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int symbol = 0; symbol < size; symbol++) {
+            int slot = mix(hashes[symbol]) & mask;
+            while (table[slot] != 0)
+                slot = (slot + 1) & mask;
+            table[slot] = symbol + 1;
+        }
+    }
+
+    private static boolean matches(String name, char[] chars, int start, int length) {
+        if (name.length() != length)
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != chars[start + i])
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean matches(String name, byte[] bytes, int start, int length) {
+        if (name.length() != length)
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != bytes[start + i])
+                return false;
+        }
+        return true;
+    }
+
+    // Folds the high bits of the hash into the low bits that pick the slot
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
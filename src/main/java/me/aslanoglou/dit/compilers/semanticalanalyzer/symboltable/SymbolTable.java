@@ -7,48 +7,70 @@ import java.util.*;
 
 /**
  * Captures data of the source file, such as subtyping relations, classesInfo while providing lookup facility.
+ * Classes and variables are keyed by the symbols of their names in the SymbolPool of the compilation, and their
+ * types are those of its TypeTable.
  */
 public class SymbolTable {
-    private Set<String> verifiedClassNames;
-    private Map<String, List<String>> superClassRelation;
-    private Map<String, ClassContainer> classInfo;
-
-    // Actual symbol table structure
-    private ArrayList<Map<String, VariableContainer>> symbolTable;
-
-    public SymbolTable(Set<String> verifiedClassNames,
-                       Map<String, List<String>> superClassRelation,
-                       Map<String, ClassContainer> classInfo) {
-        this.verifiedClassNames = verifiedClassNames;
-        this.superClassRelation = superClassRelation;
+    private BitSet verifiedClasses;
+    private ClassHierarchy hierarchy;
+    private SymbolMap<ClassContainer> classInfo;
+    private SymbolPool symbols;
+    private TypeTable types;
+
+    // Actual symbol table structure: the innermost binding of every symbol, by symbol (the symbols are dense, so
+    // this is the hash from names to their bindings), with the bindings it shadows kept in the undo log below
+    private VariableContainer[] bindings;
+    // The binding of every class name, made on its first lookup
+    private VariableContainer[] classBindings;
+    // Undo log, an entry per insert: the symbol, the binding it shadowed (null if none) and the one inserted
+    private int[] logSymbols;
+    private VariableContainer[] logShadowed;
+    private VariableContainer[] logInserted;
+    private int logSize;
+    // The first log entry of every scope level, from the outermost one
+    private int[] scopeStarts;
+    private int depth;
+
+    public SymbolTable(BitSet verifiedClasses,
+                       ClassHierarchy hierarchy,
+                       SymbolMap<ClassContainer> classInfo,
+                       TypeTable types,
+                       SymbolPool symbols) {
+        this.verifiedClasses = verifiedClasses;
+        this.hierarchy = hierarchy;
         this.classInfo = classInfo;
-        symbolTable = new ArrayList<>();
+        this.types = types;
+        this.symbols = symbols;
+        bindings = new VariableContainer[Math.max(16, symbols.size())];
+        classBindings = new VariableContainer[bindings.length];
+        logSymbols = new int[16];
+        logShadowed = new VariableContainer[16];
+        logInserted = new VariableContainer[16];
+        scopeStarts = new int[4];
     }
 
-    public ClassContainer getClass(String className) {
-        if (classInfo.containsKey(className))
-            return classInfo.get(className);
-        return null;
+    public ClassContainer getClass(int classSymbol) {
+        return classInfo.get(classSymbol);
     }
 
-    public Map<String, List<String>> getSuperClassRelation() {
-        return superClassRelation;
+    // Looks up a class by a type name, which is a class name unless it's a builtin type
+    public ClassContainer getClass(String className) {
+        return classInfo.get(symbols.lookup(className));
     }
 
-    public List<String> getSuperClasses(String className) {
-        return superClassRelation.get(className);
+    public ClassHierarchy getHierarchy() {
+        return hierarchy;
     }
 
     public void print() {
         System.out.println("========== Symbol Table ==========");
-        for (int i = 0; i < symbolTable.size(); i++) {
+        for (int i = 0; i < depth; i++) {
             System.out.println("__________________________________");
             System.out.println("Scope: " + i);
-            Iterator it = symbolTable.get(i).entrySet().iterator();
-            while(it.hasNext()) {
-                Map.Entry STEntry = (Map.Entry) it.next();
-                System.out.println(STEntry.getKey() + "\t->\t"
-                        + ((VariableContainer)STEntry.getValue()).getType());
+            int end = i + 1 < depth ? scopeStarts[i + 1] : logSize;
+            for (int j = scopeStarts[i]; j < end; j++) {
+                System.out.println(symbols.name(logSymbols[j]) + "\t->\t"
+                        + logInserted[j].getType());
             }
         }
         System.out.println("==================================");
@@ -56,47 +78,74 @@ public class SymbolTable {
 
     // Symbol Table interface
     public boolean isEmpty() {
-        return symbolTable.size() == 0;
+        return depth == 0;
     }
 
-    // Leaves a scope level
+    // Leaves a scope level, its bindings are undone latest first
     public void exit() {
-        symbolTable.remove(symbolTable.size() - 1);
+        int start = scopeStarts[--depth];
+        while (logSize > start) {
+            logSize--;
+            bindings[logSymbols[logSize]] = logShadowed[logSize];
+            logShadowed[logSize] = null;
+            logInserted[logSize] = null;
+        }
     }
 
     // Creates a new scope level
     public void enter() {
-        symbolTable.ensureCapacity(symbolTable.size());
-        symbolTable.add(new HashMap<String, VariableContainer>());
+        if (depth == scopeStarts.length)
+            scopeStarts = Arrays.copyOf(scopeStarts, depth * 2);
+        scopeStarts[depth++] = logSize;
     }
 
     // Inserts at the current (latest) level
-    public void insert(String varName, VariableContainer variable){
+    public void insert(int varSymbol, VariableContainer variable){
         if (this.isEmpty())
             enter();
-        symbolTable.get(symbolTable.size() - 1).put(varName, variable);
+        if (varSymbol >= bindings.length) {
+            bindings = Arrays.copyOf(bindings, Math.max(varSymbol + 1, bindings.length * 2));
+            classBindings = Arrays.copyOf(classBindings, bindings.length);
+        }
+        if (logSize == logSymbols.length) {
+            logSymbols = Arrays.copyOf(logSymbols, logSize * 2);
+            logShadowed = Arrays.copyOf(logShadowed, logSize * 2);
+            logInserted = Arrays.copyOf(logInserted, logSize * 2);
+        }
+        logSymbols[logSize] = varSymbol;
+        logShadowed[logSize] = bindings[varSymbol];
+        logInserted[logSize] = variable;
+        logSize++;
+        bindings[varSymbol] = variable;
     }
 
-    // Looks for a variable into the SymbolTable
+    // Looks for a variable into the SymbolTable, the innermost binding of the name shadows the others
     // If there's no related info, null is returned
-    public VariableContainer lookup(String varName) {
-        for (int i = 0; i < symbolTable.size(); i++) {
-            VariableContainer variable = lookupHere(varName, i);
-            if (variable != null)
-                return variable;
-        }
+    public VariableContainer lookup(int varSymbol) {
+        if (varSymbol < bindings.length && bindings[varSymbol] != null)
+            return bindings[varSymbol];
         // if it's not found up until now, maybe it's a class, so global scope
-        if (classInfo.containsKey(varName))
-            return new VariableContainer(varName, "class " + varName, varName, -1);
+        if (classInfo.containsKey(varSymbol)) {
+            if (varSymbol >= classBindings.length) {
+                bindings = Arrays.copyOf(bindings, varSymbol + 1);
+                classBindings = Arrays.copyOf(classBindings, varSymbol + 1);
+            }
+            if (classBindings[varSymbol] == null) {
+                String varName = symbols.name(varSymbol);
+                classBindings[varSymbol] =
+                        new VariableContainer(varSymbol, varName, types.classReference(varSymbol), varName, -1);
+            }
+            return classBindings[varSymbol];
+        }
         else
             return null;
     }
 
-
-    private VariableContainer lookupHere(String varName, int idx){
-        if (symbolTable.get(idx).containsKey(varName))
-            return symbolTable.get(idx).get(varName);
-        else
+    // Same as above, for a name that is only known as a String (e.g. a type name)
+    public VariableContainer lookup(String varName) {
+        int varSymbol = symbols.lookup(varName);
+        if (varSymbol == SymbolPool.NONE)
             return null;
+        return lookup(varSymbol);
     }
 }
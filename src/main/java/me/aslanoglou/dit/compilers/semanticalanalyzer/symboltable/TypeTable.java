@@ -0,0 +1,83 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The types of a compilation, one SemanticType each. The builtin ones are shared by every table. The type of a
+ * class, and its class reference, are made the first time they're asked for and kept by the symbol of the class
+ * name; ClassNameCollector asks for those of the declared classes in phase 1, so they get the ids after the
+ * builtin ones in declaration order.
+ *
+ * A type that's neither builtin nor named by an identifier (the main method's local vars can have one, see
+ * ClassMembersVisitor) is kept by its name.
+ */
+public final class TypeTable {
+    private final SymbolPool symbols;
+    // By class symbol, null if not made yet
+    private SemanticType[] classTypes;
+    private SemanticType[] classReferences;
+    private final Map<String, SemanticType> others = new HashMap<>();
+    private int size = SemanticType.BUILTIN_COUNT;
+
+    public TypeTable(SymbolPool symbols) {
+        this.symbols = symbols;
+        classTypes = new SemanticType[Math.max(16, symbols.size())];
+        classReferences = new SemanticType[classTypes.length];
+    }
+
+    /** @return The number of types made so far, builtin ones included */
+    public int size() {
+        return size;
+    }
+
+    /** @return The type of the instances of the class whose name is classSymbol */
+    public SemanticType classType(int classSymbol) {
+        ensureCapacity(classSymbol);
+        SemanticType type = classTypes[classSymbol];
+        if (type == null)
+            type = classTypes[classSymbol] = new SemanticType(size++, symbols.name(classSymbol), classSymbol, false);
+        return type;
+    }
+
+    /** @return The type of the class whose name is classSymbol named as a variable, "class X" */
+    public SemanticType classReference(int classSymbol) {
+        ensureCapacity(classSymbol);
+        SemanticType type = classReferences[classSymbol];
+        if (type == null) {
+            type = classReferences[classSymbol] =
+                    new SemanticType(size++, "class " + symbols.name(classSymbol), classSymbol, true);
+        }
+        return type;
+    }
+
+    /** @return The type that name spells: a builtin type, the type of a class, or else one kept by its name */
+    public SemanticType type(String name) {
+        switch (name) {
+            case "int":
+                return SemanticType.INT;
+            case "boolean":
+                return SemanticType.BOOLEAN;
+            case "int[]":
+                return SemanticType.INT_ARRAY;
+            case "void":
+                return SemanticType.VOID;
+        }
+        int symbol = symbols.lookup(name);
+        if (symbol != SymbolPool.NONE)
+            return classType(symbol);
+        SemanticType type = others.get(name);
+        if (type == null)
+            others.put(name, type = new SemanticType(size++, name, SymbolPool.NONE, false));
+        return type;
+    }
+
+    private void ensureCapacity(int classSymbol) {
+        if (classSymbol >= classTypes.length) {
+            int length = Math.max(classSymbol + 1, classTypes.length * 2);
+            classTypes = Arrays.copyOf(classTypes, length);
+            classReferences = Arrays.copyOf(classReferences, length);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 //
-// Generated by JTB 1.3.2 DIT@UoA patched
+// Generated by JTB 1.3.2 DIT@UoA patched, and maintained by hand since: see the notes in minijava.jj
 //
 
 package me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree;
@@ -24,8 +24,17 @@ import me.aslanoglou.dit.compilers.semanticalanalyzer.visitor.Visitor;
  * f10 -> Expression()
  * f11 -> ";"
  * f12 -> "}"
+ *
+ * A parser that skims method bodies (see MiniJavaParser.setSkimBodies) leaves f8 to f11 out, and they're
+ * parsed by the method's Body when the method is first visited, or asked for with parseBody().
  */
 public class MethodDeclaration implements Node {
+   /** The statements and the return of a method, not parsed yet. */
+   public interface Body {
+      /** Parses them into f8 to f11 of method. */
+      void parse(MethodDeclaration method);
+   }
+
    public NodeToken f0;
    public Type f1;
    public Identifier f2;
@@ -39,6 +48,8 @@ public class MethodDeclaration implements Node {
    public Expression f10;
    public NodeToken f11;
    public NodeToken f12;
+   // Parses f8 to f11 of a skimmed method, null once they're parsed
+   private transient Body body;
 
    public MethodDeclaration(NodeToken n0, Type n1, Identifier n2, NodeToken n3, NodeOptional n4, NodeToken n5, NodeToken n6, NodeListOptional n7, NodeListOptional n8, NodeToken n9, Expression n10, NodeToken n11, NodeToken n12) {
       f0 = n0;
@@ -56,6 +67,19 @@ public class MethodDeclaration implements Node {
       f12 = n12;
    }
 
+   public MethodDeclaration(NodeToken n0, Type n1, Identifier n2, NodeToken n3, NodeOptional n4, NodeToken n5, NodeToken n6, NodeListOptional n7, Body body, NodeToken n12) {
+      f0 = n0;
+      f1 = n1;
+      f2 = n2;
+      f3 = n3;
+      f4 = n4;
+      f5 = n5;
+      f6 = n6;
+      f7 = n7;
+      this.body = body;
+      f12 = n12;
+   }
+
    public MethodDeclaration(Type n0, Identifier n1, NodeOptional n2, NodeListOptional n3, NodeListOptional n4, Expression n5) {
       f0 = new NodeToken("public");
       f1 = n0;
@@ -72,16 +96,38 @@ public class MethodDeclaration implements Node {
       f12 = new NodeToken("}");
    }
 
+   /** @return Whether f8 to f11 are still to be parsed */
+   public boolean isSkimmed() {
+      return body != null;
+   }
+
+   /** Parses f8 to f11, if they haven't been yet. */
+   public void parseBody() {
+      if (body != null) {
+         body.parse(this);
+         body = null;
+      }
+   }
+
+   private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+      parseBody();
+      out.defaultWriteObject();
+   }
+
    public void accept(Visitor v) {
+      parseBody();
       v.visit(this);
    }
    public <R,A> R accept(GJVisitor<R,A> v, A argu) {
+      parseBody();
       return v.visit(this,argu);
    }
    public <R> R accept(GJNoArguVisitor<R> v) {
+      parseBody();
       return v.visit(this);
    }
    public <A> void accept(GJVoidVisitor<A> v, A argu) {
+      parseBody();
       v.visit(this,argu);
    }
 }
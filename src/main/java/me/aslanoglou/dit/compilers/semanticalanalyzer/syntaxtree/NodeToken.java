@@ -1,9 +1,10 @@
 //
-// Generated by JTB 1.3.2 DIT@UoA patched
+// Generated by JTB 1.3.2 DIT@UoA patched, and maintained by hand since: see the notes in minijava.jj
 //
 
 package me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree;
 
+import me.aslanoglou.dit.compilers.semanticalanalyzer.LineMap;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.visitor.GJNoArguVisitor;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.visitor.GJVisitor;
 import me.aslanoglou.dit.compilers.semanticalanalyzer.visitor.GJVoidVisitor;
@@ -17,18 +18,23 @@ import java.util.Vector;
  */
 public class NodeToken implements Node {
    public NodeToken(String s) {
-      this(s, -1, -1, -1, -1, -1);    }
+      this(s, -1, -1, 0, null);    }
 
-   public NodeToken(String s, int kind, int beginLine, int beginColumn, int endLine, int endColumn) {
+   public NodeToken(String s, int kind, int offset, int length, LineMap lines) {
       tokenImage = s;
       specialTokens = null;
       this.kind = kind;
-      this.beginLine = beginLine;
-      this.beginColumn = beginColumn;
-      this.endLine = endLine;
-      this.endColumn = endColumn;
+      this.offset = offset;
+      this.length = length;
+      this.lines = lines;
    }
 
+   // -1 for these if no position info is available.
+   public int getBeginLine()   { return lines == null ? -1 : lines.line(offset); }
+   public int getBeginColumn() { return lines == null ? -1 : lines.column(offset); }
+   public int getEndLine()     { return lines == null ? -1 : lines.line(offset + length - 1); }
+   public int getEndColumn()   { return lines == null ? -1 : lines.column(offset + length - 1); }
+
    public NodeToken getSpecialAt(int i) {
       if ( specialTokens == null )
          throw new java.util.NoSuchElementException("No specials in token");
@@ -83,11 +89,17 @@ public class NodeToken implements Node {
    // Stores a list of NodeTokens
    public Vector<NodeToken> specialTokens;
 
-   // -1 for these ints means no position info is available.
-   public int beginLine, beginColumn, endLine, endColumn;
+   // Offset in the source of the first character, and number of characters.
+   // The position is looked up in lines, null if no position info is available.
+   public int offset, length;
+   public LineMap lines;
 
    // Equal to the JavaCC token "kind" integer.
    // -1 if not available.
    public int kind;
+
+   // Symbol of an identifier in the parser's SymbolPool.
+   // -1 (SymbolPool.NONE) for other tokens.
+   public int symbol = -1;
 }
 
@@ -0,0 +1,80 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.containers.FunctionContainer;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.containers.VariableContainer;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.ClassHierarchy;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SemanticType;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolMap;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.TypeTable;
+
+/**
+ * Measures checking the arguments of a call against the parameters of a method, of a growing number of them,
+ * half ints and half of a class that the arguments are subclasses of: with FunctionContainer.checkCorrectParams,
+ * which goes over the params in order, and as it was done before, collecting the types of the params into a new
+ * array from the map of the params, by their order, on every call.
+ *
+ * Usage: java ArgumentCheckBenchmark
+ */
+public class ArgumentCheckBenchmark {
+    // Arguments checked per measurement
+    private static final long ARGUMENT_BUDGET = 200_000_000L;
+    private static final int[] PARAMS = {1, 2, 4, 8};
+
+    public static void main(String[] args) {
+        // warm up both before measuring either
+        for (int params : PARAMS)
+            measure(params);
+        System.out.println("params\tcheckCorrectParams ns/argument\tarray per call ns/argument");
+        for (int params : PARAMS) {
+            double[] times = measure(params);
+            System.out.printf("%d\t%.2f\t%.2f%n", params, times[0], times[1]);
+        }
+    }
+
+    // Times of an argument check in order and with an array per call
+    static double[] measure(int params) {
+        SymbolPool symbols = new SymbolPool();
+        TypeTable types = new TypeTable(symbols);
+        ClassHierarchy hierarchy = new ClassHierarchy();
+        int base = symbols.intern("Base");
+        int derived = symbols.intern("Derived");
+        hierarchy.add(base, SymbolPool.NONE);
+        hierarchy.add(derived, base);
+        FunctionContainer function = new FunctionContainer(symbols.intern("f"), "f", SemanticType.INT, "A", 1);
+        SemanticType[] arguments = new SemanticType[params];
+        for (int p = 0; p < params; p++) {
+            String name = "p" + p;
+            function.addParam(symbols.intern(name), name, p % 2 == 0 ? SemanticType.INT : types.classType(base));
+            arguments[p] = p % 2 == 0 ? SemanticType.INT : types.classType(derived);
+        }
+        long rounds = ARGUMENT_BUDGET / params;
+        long start = System.nanoTime();
+        for (long r = 0; r < rounds; r++)
+            function.checkCorrectParams(arguments, 0, params, hierarchy);
+        double ordered = (System.nanoTime() - start) / (double) (rounds * params);
+        start = System.nanoTime();
+        for (long r = 0; r < rounds; r++)
+            checkWithArray(function.getParams(), arguments, hierarchy);
+        double array = (System.nanoTime() - start) / (double) (rounds * params);
+        return new double[] {ordered, array};
+    }
+
+    // The check as checkCorrectParams did it before
+    static void checkWithArray(SymbolMap<VariableContainer> params, SemanticType[] args, ClassHierarchy hierarchy) {
+        if (args.length != params.size())
+            throw new IllegalStateException("Wrong number of arguments");
+        SemanticType[] paramTypes = new SemanticType[args.length];
+        for (int i = 0; i < params.size(); i++) {
+            VariableContainer param = params.valueAt(i);
+            paramTypes[param.getOrder() - 1] = param.getType();
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].isClass() && paramTypes[i].isClass()
+                    && hierarchy.isSubclass(args[i].getClassSymbol(), paramTypes[i].getClassSymbol()))
+                continue;
+            if (args[i] != paramTypes[i])
+                throw new IllegalStateException("Wrong argument " + i);
+        }
+    }
+}
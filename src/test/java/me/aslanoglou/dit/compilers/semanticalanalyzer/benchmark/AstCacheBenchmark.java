@@ -0,0 +1,97 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.AstCache;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.FlatTree;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures getting the FlatTrees of the MiniJava sources of the test resources, as the Driver does: by
+ * parsing them and encoding their trees, and by reading them back from an AstCache (which includes hashing
+ * the sources for their keys).
+ *
+ * Usage: java AstCacheBenchmark [resourcesDir]
+ */
+public class AstCacheBenchmark {
+    // Characters of sources per measurement
+    private static final long CHAR_BUDGET = 50_000_000L;
+
+    interface Load {
+        FlatTree tree(char[] source);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path resources = Paths.get(args.length > 0 ? args[0] : "src/test/resources");
+        Path directory = Files.createTempDirectory("ast-cache");
+        AstCache cache = new AstCache(directory);
+        List<char[]> sources = new ArrayList<>();
+        long chars = 0;
+        for (char[] source : LexingBenchmark.readSources(resources)) {
+            // only the sources that parse are measured
+            FlatTree tree = parse(source);
+            if (tree != null) {
+                cache.store(AstCache.key(source, source.length), tree);
+                sources.add(source);
+                chars += source.length;
+            }
+        }
+        System.out.printf("%d files, %d chars%n", sources.size(), chars);
+
+        String[] names = {"parse", "AstCache"};
+        Load[] loads = {
+                AstCacheBenchmark::parse,
+                source -> cache.load(AstCache.key(source, source.length))
+        };
+        // warm up both before measuring either of them
+        for (Load load : loads)
+            measure(sources, chars, load);
+        System.out.println("tree from\tns/char\tbytes allocated/char");
+        for (int i = 0; i < names.length; i++) {
+            long allocated = CommentBenchmark.allocatedBytes();
+            double nsPerChar = measure(sources, chars, loads[i]);
+            allocated = CommentBenchmark.allocatedBytes() - allocated;
+            System.out.printf("%s\t%.2f\t%.2f%n", names[i], nsPerChar,
+                    allocated / (double) iterations(chars) / chars);
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files)
+                Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    static long iterations(long chars) {
+        return Math.max(1, CHAR_BUDGET / chars);
+    }
+
+    // Average time per character of getting the trees of the given sources
+    static double measure(List<char[]> sources, long chars, Load load) {
+        long iterations = iterations(chars);
+        long start = System.nanoTime();
+        for (long i = 0; i < iterations; i++) {
+            for (char[] source : sources) {
+                if (load.tree(source) == null)
+                    throw new IllegalStateException("No tree");
+            }
+        }
+        return (System.nanoTime() - start) / (double) iterations / chars;
+    }
+
+    static FlatTree parse(char[] source) {
+        try {
+            MiniJavaParser parser = new MiniJavaParser(source, source.length, false);
+            parser.setCompactTree(true);
+            return FlatTree.build(parser.Goal(), parser);
+        } catch (ParseException ex) {
+            return null;
+        }
+    }
+}
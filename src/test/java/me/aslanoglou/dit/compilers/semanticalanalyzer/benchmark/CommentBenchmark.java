@@ -0,0 +1,98 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures parsing (lexing with PackedLexer and building the tree) of heavily commented MiniJava sources,
+ * with the comments kept as special tokens and with the comments dropped as they're lexed. The sources are
+ * those of the test resources with a formal comment above every line, a block comment at its start and a
+ * line comment at its end, so most of their characters are comments.
+ *
+ * Usage: java CommentBenchmark [resourcesDir]
+ */
+public class CommentBenchmark {
+    // Characters parsed per measurement
+    private static final long CHAR_BUDGET = 100_000_000L;
+
+    public static void main(String[] args) throws IOException {
+        Path resources = Paths.get(args.length > 0 ? args[0] : "src/test/resources");
+        List<char[]> sources = new ArrayList<>();
+        long chars = 0;
+        for (char[] source : LexingBenchmark.readSources(resources)) {
+            char[] commented = comment(source);
+            // only the sources that parse are measured
+            if (parse(commented, true)) {
+                sources.add(commented);
+                chars += commented.length;
+            }
+        }
+        System.out.printf("%d files, %d chars%n", sources.size(), chars);
+
+        String[] names = {"keep comments", "drop comments"};
+        boolean[] keepComments = {true, false};
+        // warm up both modes before measuring either of them
+        for (boolean keep : keepComments)
+            measure(sources, chars, keep);
+        System.out.println("comments\tns/char\tbytes allocated/char");
+        for (int i = 0; i < names.length; i++) {
+            long allocated = allocatedBytes();
+            double nsPerChar = measure(sources, chars, keepComments[i]);
+            allocated = allocatedBytes() - allocated;
+            System.out.printf("%s\t%.2f\t%.2f%n", names[i], nsPerChar,
+                    allocated / (double) iterations(chars) / chars);
+        }
+    }
+
+    static long iterations(long chars) {
+        return Math.max(1, CHAR_BUDGET / chars);
+    }
+
+    // Average parsing time per character of the given sources
+    static double measure(List<char[]> sources, long chars, boolean keepComments) {
+        long iterations = iterations(chars);
+        long start = System.nanoTime();
+        for (long i = 0; i < iterations; i++) {
+            for (char[] source : sources)
+                parse(source, keepComments);
+        }
+        return (System.nanoTime() - start) / (double) iterations / chars;
+    }
+
+    static boolean parse(char[] source, boolean keepComments) {
+        try {
+            new MiniJavaParser(source, source.length, keepComments).Goal();
+            return true;
+        } catch (ParseException ex) {
+            return false;
+        }
+    }
+
+    static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // Adds a formal, a block and a line comment to every line of source
+    static char[] comment(char[] source) {
+        StringBuilder commented = new StringBuilder(source.length * 4);
+        for (String line : new String(source).split("\n", -1)) {
+            int indent = 0;
+            while (indent < line.length() && Character.isWhitespace(line.charAt(indent)))
+                indent++;
+            commented.append("/** Formal comment about the line below, as javadoc would have it */\n")
+                    .append(line, 0, indent)
+                    .append("/* block comment */ ")
+                    .append(line.substring(indent).replace("\r", ""))
+                    .append(" // line comment\n");
+        }
+        return commented.toString().toCharArray();
+    }
+}
@@ -0,0 +1,84 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParserConstants;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParserTokenManager;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.JavaCharStream;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+
+import java.io.StringReader;
+
+/**
+ * Measures parse time per token of MiniJava programs whose expressions are nested BracketExpressions and
+ * MessageSend chains of increasing depth.
+ * With a linear expression parser the ns/token column stays flat as the depth grows.
+ *
+ * Usage: java ExpressionParsingBenchmark [maxDepth]
+ */
+public class ExpressionParsingBenchmark {
+    private static final int STATEMENTS = 200;
+    // Tokens parsed per measurement, so that every depth gets a comparable amount of work
+    private static final int TOKEN_BUDGET = 2_000_000;
+
+    public static void main(String[] args) throws ParseException {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        // warm up on every depth before measuring any of them
+        for (int depth = 1; depth <= maxDepth; depth *= 2)
+            measure(program(depth));
+        System.out.println("depth\ttokens\tns/token");
+        double first = -1, last = 0;
+        for (int depth = 1; depth <= maxDepth; depth *= 2) {
+            String source = program(depth);
+            double nsPerToken = measure(source);
+            System.out.printf("%d\t%d\t%.1f%n", depth, countTokens(source), nsPerToken);
+            if (first < 0)
+                first = nsPerToken;
+            last = nsPerToken;
+        }
+        System.out.printf("deepest/shallowest cost per token: %.2fx%n", last / first);
+    }
+
+    // Average parse time per token of the given source
+    static double measure(String source) throws ParseException {
+        int tokens = countTokens(source);
+        int iterations = Math.max(1, TOKEN_BUDGET / tokens);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            new MiniJavaParser(new StringReader(source)).Goal();
+        return (System.nanoTime() - start) / (double) iterations / tokens;
+    }
+
+    /**
+     * A program with STATEMENTS assignments, each one nesting depth levels of brackets, e.g. for depth 2:
+     *      x = ((x + 0).f(x < 1)) * 2;
+     */
+    static String program(int depth) {
+        StringBuilder expr = new StringBuilder();
+        StringBuilder src = new StringBuilder();
+        src.append("class Main { public static void main(String[] a) { System.out.println(1); } }\n");
+        src.append("class A {\n    int x;\n    public int f(int y) {\n");
+        for (int s = 0; s < STATEMENTS; s++) {
+            expr.setLength(0);
+            expr.append("x");
+            for (int d = 0; d < depth; d++) {
+                // expr stays a PrimaryExpression: a BracketExpression around a Plus or a MessageSend
+                if ((d & 1) == 0)
+                    expr.insert(0, "(").append(" + ").append(d).append(")");
+                else
+                    expr.insert(0, "(").append(".f(x < ").append(d).append("))");
+            }
+            src.append("        x = ").append(expr).append(" * 2;\n");
+        }
+        src.append("        return x;\n    }\n}\n");
+        return src.toString();
+    }
+
+    static int countTokens(String source) {
+        MiniJavaParserTokenManager tokenManager =
+                new MiniJavaParserTokenManager(new JavaCharStream(new StringReader(source)));
+        int count = 0;
+        while (tokenManager.getNextToken().kind != MiniJavaParserConstants.EOF)
+            count++;
+        return count;
+    }
+}
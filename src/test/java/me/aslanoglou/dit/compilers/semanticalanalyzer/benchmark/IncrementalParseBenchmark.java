@@ -0,0 +1,57 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.IncrementalParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+
+/**
+ * Measures keeping the tree of a source with thousands of classes, generated as for ParallelParseBenchmark, up
+ * to date as a class in the middle of it is edited: a char typed into a method body and taken out again, the
+ * same in a field name, and a parse of the whole source for comparison.
+ *
+ * Usage: java IncrementalParseBenchmark [classes]
+ */
+public class IncrementalParseBenchmark {
+    // Edits per measurement, half of them inserting the char and half removing it
+    private static final int EDITS = 2000;
+    // Parses of the whole source per measurement
+    private static final int PARSES = 20;
+
+    public static void main(String[] args) throws ParseException {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        char[] source = ParallelParseBenchmark.generate(classes);
+        String text = new String(source);
+        int middle = text.indexOf("class C" + classes / 2 + " ");
+        // After the "i * " of the multiplication in the first method, and after the name of the first field
+        int inMethod = text.indexOf("i * ", middle) + 4;
+        int inField = text.indexOf("count;", middle) + 5;
+        System.out.printf("%d classes, %d chars%n", classes, source.length);
+
+        IncrementalParser parser = new IncrementalParser(source, source.length, true);
+        // warm up all of them before measuring any
+        measureEdits(parser, inMethod, "1");
+        measureEdits(parser, inField, "x");
+        measureParses(source);
+        System.out.println("edit\tus/edit");
+        System.out.printf("method body\t%.2f%n", measureEdits(parser, inMethod, "1"));
+        System.out.printf("field name\t%.2f%n", measureEdits(parser, inField, "x"));
+        System.out.printf("whole source\t%.2f%n", measureParses(source));
+    }
+
+    // Average time of an edit at offset that inserts or removes the char
+    static double measureEdits(IncrementalParser parser, int offset, String inserted) throws ParseException {
+        long start = System.nanoTime();
+        for (int i = 0; i < EDITS; i += 2) {
+            parser.edit(offset, 0, inserted);
+            parser.edit(offset, inserted.length(), "");
+        }
+        return (System.nanoTime() - start) / 1e3 / EDITS;
+    }
+
+    // Average time of a parse of the whole source
+    static double measureParses(char[] source) throws ParseException {
+        long start = System.nanoTime();
+        for (int i = 0; i < PARSES; i++)
+            new IncrementalParser(source, source.length, true);
+        return (System.nanoTime() - start) / 1e3 / PARSES;
+    }
+}
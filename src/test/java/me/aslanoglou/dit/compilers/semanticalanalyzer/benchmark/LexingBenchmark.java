@@ -0,0 +1,96 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.CharArrayCharStream;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.JavaCharStream;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParserConstants;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParserTokenManager;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.PackedLexer;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Measures lexing throughput (tokenizing only, no parsing) over the MiniJava sources of the test resources:
+ * MiniJavaParserTokenManager over each CharStream it can read from, i.e. JavaCharStream, which checks every
+ * character for a unicode escape (through its plain-run fast path when there is no backslash ahead), and
+ * CharArrayCharStream, which CharArrayCharStream.forChars picks when a scan of the whole source finds no
+ * escapes; and PackedLexer, which produces packed int arrays instead of Token objects.
+ *
+ * Usage: java LexingBenchmark [resourcesDir]
+ */
+public class LexingBenchmark {
+    // Characters lexed per measurement
+    private static final long CHAR_BUDGET = 200_000_000L;
+
+    interface Lexer {
+        int lex(char[] source);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path resources = Paths.get(args.length > 0 ? args[0] : "src/test/resources");
+        List<char[]> sources = readSources(resources);
+        long chars = 0;
+        for (char[] source : sources)
+            chars += source.length;
+        System.out.printf("%d files, %d chars, %d tokens%n", sources.size(), chars, countTokens(sources));
+
+        String[] names = {"JavaCharStream", "CharArrayCharStream", "PackedLexer"};
+        Lexer[] lexers = {
+                source -> lex(new JavaCharStream(new CharArrayReader(source))),
+                source -> lex(new CharArrayCharStream(source, source.length)),
+                source -> PackedLexer.lex(source, source.length).count()
+        };
+        // warm up every lexer before measuring any of them
+        for (Lexer lexer : lexers)
+            measure(sources, chars, lexer);
+        System.out.println("lexer\tns/char\tMchars/s");
+        for (int i = 0; i < lexers.length; i++) {
+            double nsPerChar = measure(sources, chars, lexers[i]);
+            System.out.printf("%s\t%.2f\t%.0f%n", names[i], nsPerChar, 1000 / nsPerChar);
+        }
+    }
+
+    // Average lexing time per character of the given sources
+    static double measure(List<char[]> sources, long chars, Lexer lexer) {
+        long iterations = Math.max(1, CHAR_BUDGET / chars);
+        long start = System.nanoTime();
+        for (long i = 0; i < iterations; i++) {
+            for (char[] source : sources)
+                lexer.lex(source);
+        }
+        return (System.nanoTime() - start) / (double) iterations / chars;
+    }
+
+    static int lex(JavaCharStream stream) {
+        MiniJavaParserTokenManager tokenManager = new MiniJavaParserTokenManager(stream);
+        int count = 0;
+        while (tokenManager.getNextToken().kind != MiniJavaParserConstants.EOF)
+            count++;
+        return count;
+    }
+
+    static long countTokens(List<char[]> sources) {
+        long tokens = 0;
+        for (char[] source : sources)
+            tokens += lex(new JavaCharStream(new CharArrayReader(source)));
+        return tokens;
+    }
+
+    static List<char[]> readSources(Path resources) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(resources)) {
+            files = paths.filter(p -> p.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+        }
+        List<char[]> sources = new ArrayList<>();
+        for (Path file : files)
+            sources.add(new String(Files.readAllBytes(file)).toCharArray());
+        return sources;
+    }
+}
@@ -0,0 +1,90 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.containers.ClassContainer;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.containers.FunctionContainer;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.ClassHierarchy;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SemanticType;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolMap;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.TypeTable;
+
+/**
+ * Measures resolving the methods called on an instance of the class at the bottom of an inheritance chain of a
+ * growing depth, every class of which declares a few methods: with the method table of the class (see
+ * ClassContainer.buildMethodTable) and by searching the functions of the class and then of its superclasses, as
+ * the type check did before. The methods resolved are declared at the bottom, in the middle and at the top of the
+ * chain. Also measures building the method tables of the chain.
+ *
+ * Usage: java MethodTableBenchmark [methodsPerClass]
+ */
+public class MethodTableBenchmark {
+    // Resolutions per measurement
+    private static final long LOOKUP_BUDGET = 3_000_000L;
+    private static final int[] DEPTHS = {1, 10, 100, 500};
+
+    public static void main(String[] args) {
+        int methods = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        // warm up both before measuring either
+        for (int depth : DEPTHS)
+            measure(depth, methods);
+        System.out.println("depth\tmethod table ns/lookup\tsuperclass search ns/lookup\tmethod tables build ms");
+        for (int depth : DEPTHS) {
+            double[] times = measure(depth, methods);
+            System.out.printf("%d\t%.2f\t%.2f\t%.3f%n", depth, times[0], times[1], times[2]);
+        }
+    }
+
+    // Times of a lookup with the tables and with the search, and of building the tables
+    static double[] measure(int depth, int methods) {
+        SymbolPool symbols = new SymbolPool();
+        TypeTable types = new TypeTable(symbols);
+        ClassHierarchy hierarchy = new ClassHierarchy();
+        SymbolMap<ClassContainer> classInfo = new SymbolMap<>();
+        ClassContainer[] chain = new ClassContainer[depth];
+        int[][] methodSymbols = new int[depth][methods];
+        for (int d = 0; d < depth; d++) {
+            String name = "C" + d;
+            int symbol = symbols.intern(name);
+            hierarchy.add(symbol, d > 0 ? chain[d - 1].getSymbol() : SymbolPool.NONE);
+            chain[d] = new ClassContainer(symbol, name, types.classType(symbol));
+            for (int m = 0; m < methods; m++) {
+                // every class overrides the first method
+                String method = m == 0 ? "run" : "m" + d + "_" + m;
+                methodSymbols[d][m] = symbols.intern(method);
+                chain[d].getFunctions().put(methodSymbols[d][m],
+                        new FunctionContainer(methodSymbols[d][m], method, SemanticType.INT, name, m + 1));
+            }
+            classInfo.put(symbol, chain[d]);
+        }
+        long start = System.nanoTime();
+        for (int d = 0; d < depth; d++)
+            chain[d].buildMethodTable(d > 0 ? chain[d - 1] : null);
+        double build = (System.nanoTime() - start) / 1e6;
+
+        ClassContainer leaf = chain[depth - 1];
+        int[] called = {methodSymbols[depth - 1][methods - 1], methodSymbols[depth / 2][methods - 1],
+                methodSymbols[0][methods - 1]};
+        long rounds = LOOKUP_BUDGET / called.length;
+        int found = 0;
+        start = System.nanoTime();
+        for (long r = 0; r < rounds; r++) {
+            for (int method : called)
+                found += leaf.lookupMethod(method).getOrder();
+        }
+        double table = (System.nanoTime() - start) / (double) LOOKUP_BUDGET;
+        start = System.nanoTime();
+        for (long r = 0; r < rounds; r++) {
+            for (int method : called) {
+                FunctionContainer function = leaf.getFunctions().get(method);
+                int superSymbol = hierarchy.superclass(leaf.getSymbol());
+                for (; function == null; superSymbol = hierarchy.superclass(superSymbol))
+                    function = classInfo.get(superSymbol).getFunctions().get(method);
+                found += function.getOrder();
+            }
+        }
+        double search = (System.nanoTime() - start) / (double) LOOKUP_BUDGET;
+        if (found != 2 * rounds * called.length * methods)
+            throw new IllegalStateException("Wrong methods: " + found);
+        return new double[] {table, search, build};
+    }
+}
@@ -0,0 +1,91 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ClassMembersVisitor;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ClassNameCollector;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ClassOutline;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.FlatTree;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.ClassHierarchy;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.TypeTable;
+
+import java.util.BitSet;
+
+/**
+ * Measures the first two phases of the check over a source with thousands of classes, generated as for
+ * ParallelParseBenchmark: as visitors run over the FlatTree (see FlatTree.accept), and started from the outline
+ * the parser collected (see MiniJavaParser.setCollectOutline). Both get the classes from the outline as the
+ * second phase's verified classes, and no superclasses, so that they do the same checks. Also measures the
+ * parse and encoding of the tree with and without the outline collected.
+ *
+ * Usage: java OutlineBenchmark [classes]
+ */
+public class OutlineBenchmark {
+    // Runs per measurement
+    private static final int ITERATIONS = 20;
+
+    interface Phases {
+        void run(FlatTree tree, BitSet classes);
+    }
+
+    public static void main(String[] args) throws ParseException {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        char[] source = ParallelParseBenchmark.generate(classes);
+        System.out.printf("%d classes, %d chars%n", classes, source.length);
+        FlatTree tree = parse(source, true);
+        BitSet verified = new BitSet();
+        ClassOutline outline = tree.outline();
+        for (int e = 0; e < outline.size(); e++) {
+            if (outline.kind(e) == ClassOutline.MAIN_CLASS || outline.kind(e) == ClassOutline.CLASS)
+                verified.set(outline.symbol(e));
+        }
+
+        String[] names = {"tree", "outline"};
+        Phases[] phases = {
+                (t, c) -> {
+                    t.accept(new ClassNameCollector(t.symbols()), null);
+                    t.accept(new ClassMembersVisitor(c, new ClassHierarchy(), new TypeTable(t.symbols()),
+                            t.symbols()), "Phase2");
+                },
+                (t, c) -> {
+                    new ClassNameCollector(t.symbols()).collect(t.outline(), t.symbols());
+                    new ClassMembersVisitor(c, new ClassHierarchy(), new TypeTable(t.symbols()), t.symbols())
+                            .collect(t.outline());
+                }
+        };
+        // warm up all of them before measuring any
+        for (Phases phase : phases)
+            measure(tree, verified, phase);
+        measureParse(source, false);
+        measureParse(source, true);
+        System.out.println("phases 1 and 2 from\tms/source");
+        for (int i = 0; i < phases.length; i++)
+            System.out.printf("%s\t%.2f%n", names[i], measure(tree, verified, phases[i]));
+        System.out.println("parse and encode\tms/source");
+        System.out.printf("without outline\t%.2f%n", measureParse(source, false));
+        System.out.printf("with outline\t%.2f%n", measureParse(source, true));
+    }
+
+    static FlatTree parse(char[] source, boolean outline) throws ParseException {
+        MiniJavaParser parser = new MiniJavaParser(source, source.length, false);
+        parser.setCompactTree(true);
+        parser.setCollectOutline(outline);
+        return FlatTree.build(parser.Goal(), parser);
+    }
+
+    // Average time of a run of the phases over tree
+    static double measure(FlatTree tree, BitSet classes, Phases phases) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++)
+            phases.run(tree, classes);
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+
+    // Average time of a parse and encoding of source
+    static double measureParse(char[] source, boolean outline) throws ParseException {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++)
+            parse(source, outline);
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+}
@@ -0,0 +1,77 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures parsing a single MiniJava source with thousands of classes, such as the generated programs are,
+ * with its declarations parsed one after the other and in parallel on the common fork/join pool.
+ *
+ * Usage: java ParallelParseBenchmark [classes]
+ */
+public class ParallelParseBenchmark {
+    // Parses per measurement
+    private static final int ITERATIONS = 50;
+
+    public static void main(String[] args) throws ParseException {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        char[] source = generate(classes);
+        System.out.printf("%d classes, %d chars, parallelism %d%n", classes, source.length,
+                ForkJoinPool.commonPool().getParallelism());
+
+        String[] names = {"sequential", "parallel"};
+        boolean[] parallel = {false, true};
+        // warm up both before measuring either of them
+        for (boolean p : parallel)
+            measure(source, p);
+        System.out.println("parse\tms/source");
+        for (int i = 0; i < names.length; i++)
+            System.out.printf("%s\t%.2f%n", names[i], measure(source, parallel[i]));
+    }
+
+    // Average time of a parse of source
+    static double measure(char[] source, boolean parallel) throws ParseException {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            MiniJavaParser parser = new MiniJavaParser(source, source.length, false);
+            parser.setCompactTree(true);
+            parser.setParallelParse(parallel);
+            parser.Goal();
+        }
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+
+    // A main class and the given number of classes, each with fields, methods and some statements
+    public static char[] generate(int classes) {
+        StringBuilder source = new StringBuilder();
+        source.append("class Main {\n")
+                .append("    public static void main(String[] args) {\n")
+                .append("        System.out.println(new C0().run(10, true));\n")
+                .append("    }\n")
+                .append("}\n");
+        for (int i = 0; i < classes; i++) {
+            source.append("class C").append(i).append(i > 0 ? " extends C" + (i - 1) : "").append(" {\n")
+                    .append("    int count;\n")
+                    .append("    int[] values;\n")
+                    .append("    public int run(int n, boolean fill) {\n")
+                    .append("        int i;\n")
+                    .append("        i = 0;\n")
+                    .append("        values = new int[n];\n")
+                    .append("        while (i < n) {\n")
+                    .append("            if (fill && !(n < i)) values[i] = i * ").append(i).append(";\n")
+                    .append("            else count = count + 1;\n")
+                    .append("            i = i + 1;\n")
+                    .append("        }\n")
+                    .append("        return this.sum(values.length, new C").append(i).append("());\n")
+                    .append("    }\n")
+                    .append("    public int sum(int n, C").append(i).append(" other) {\n")
+                    .append("        System.out.println(n - count);\n")
+                    .append("        return other.run(n - 1, false);\n")
+                    .append("    }\n")
+                    .append("}\n");
+        }
+        return source.toString().toCharArray();
+    }
+}
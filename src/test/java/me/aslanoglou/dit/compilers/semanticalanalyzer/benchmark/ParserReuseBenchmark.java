@@ -0,0 +1,81 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParserPool;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures parsing the MiniJava sources of the test resources one after the other, as a batch of many small
+ * submissions, with a new MiniJavaParser for every source and with the parser of ParserPool re-initialised
+ * for every source.
+ *
+ * Usage: java ParserReuseBenchmark [resourcesDir]
+ */
+public class ParserReuseBenchmark {
+    // Sources parsed per measurement
+    private static final long SOURCE_BUDGET = 200_000L;
+
+    interface Parse {
+        MiniJavaParser parser(char[] source);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path resources = Paths.get(args.length > 0 ? args[0] : "src/test/resources");
+        List<char[]> sources = new ArrayList<>();
+        for (char[] source : LexingBenchmark.readSources(resources)) {
+            // only the sources that parse are measured
+            if (parse(source, s -> new MiniJavaParser(s, s.length, false)))
+                sources.add(source);
+        }
+        System.out.printf("%d sources%n", sources.size());
+
+        String[] names = {"new parser", "ParserPool"};
+        Parse[] parses = {
+                s -> new MiniJavaParser(s, s.length, false),
+                s -> ParserPool.parser(s, s.length, false)
+        };
+        // warm up both before measuring either of them
+        for (Parse parse : parses)
+            measure(sources, parse);
+        System.out.println("parser\tns/source\tbytes allocated/source");
+        for (int i = 0; i < names.length; i++) {
+            long allocated = CommentBenchmark.allocatedBytes();
+            double nsPerSource = measure(sources, parses[i]);
+            allocated = CommentBenchmark.allocatedBytes() - allocated;
+            System.out.printf("%s\t%.0f\t%.0f%n", names[i], nsPerSource,
+                    allocated / (double) iterations(sources.size()) / sources.size());
+        }
+    }
+
+    static long iterations(int sources) {
+        return Math.max(1, SOURCE_BUDGET / sources);
+    }
+
+    // Average parsing time per source
+    static double measure(List<char[]> sources, Parse parse) {
+        long iterations = iterations(sources.size());
+        long start = System.nanoTime();
+        for (long i = 0; i < iterations; i++) {
+            for (char[] source : sources)
+                parse(source, parse);
+        }
+        return (System.nanoTime() - start) / (double) iterations / sources.size();
+    }
+
+    static boolean parse(char[] source, Parse parse) {
+        try {
+            MiniJavaParser parser = parse.parser(source);
+            parser.setCompactTree(true);
+            parser.Goal();
+            return true;
+        } catch (ParseException ex) {
+            return false;
+        }
+    }
+}
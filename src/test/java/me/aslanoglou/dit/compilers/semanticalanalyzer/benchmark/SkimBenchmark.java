@@ -0,0 +1,65 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.ClassDeclaration;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.ClassExtendsDeclaration;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Goal;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.MethodDeclaration;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Node;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.NodeListOptional;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.TypeDeclaration;
+
+/**
+ * Measures a header-only query, listing the signatures of the methods of every class, over a source with
+ * thousands of classes generated as for ParallelParseBenchmark: with the method bodies parsed by Goal(), with
+ * them skimmed (see MiniJavaParser.setSkimBodies), and with them skimmed and then all parsed on demand.
+ *
+ * Usage: java SkimBenchmark [classes]
+ */
+public class SkimBenchmark {
+    // Parses per measurement
+    private static final int ITERATIONS = 50;
+
+    public static void main(String[] args) throws ParseException {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        char[] source = ParallelParseBenchmark.generate(classes);
+        System.out.printf("%d classes, %d chars%n", classes, source.length);
+
+        String[] names = {"full parse", "skimmed", "skimmed, then bodies"};
+        boolean[] skim = {false, true, true};
+        boolean[] bodies = {false, false, true};
+        // warm up all of them before measuring any
+        for (int i = 0; i < names.length; i++)
+            measure(source, skim[i], bodies[i]);
+        System.out.println("methods from\tms/source");
+        for (int i = 0; i < names.length; i++)
+            System.out.printf("%s\t%.2f%n", names[i], measure(source, skim[i], bodies[i]));
+    }
+
+    // Average time of a parse of source and a pass over the methods of its classes
+    static double measure(char[] source, boolean skim, boolean parseBodies) throws ParseException {
+        int methods = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            MiniJavaParser parser = new MiniJavaParser(source, source.length, false);
+            parser.setCompactTree(true);
+            parser.setSkimBodies(skim);
+            Goal goal = parser.Goal();
+            for (Node type : goal.f1.nodes) {
+                Node declaration = ((TypeDeclaration) type).f0.choice;
+                NodeListOptional list = declaration instanceof ClassDeclaration
+                        ? ((ClassDeclaration) declaration).f4 : ((ClassExtendsDeclaration) declaration).f6;
+                for (Node method : list.nodes) {
+                    MethodDeclaration m = (MethodDeclaration) method;
+                    methods += m.f2.f0.tokenImage.length() + m.f7.size();
+                    if (parseBodies)
+                        m.parseBody();
+                }
+            }
+        }
+        if (methods == 0)
+            throw new IllegalStateException("No methods");
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+}
@@ -0,0 +1,96 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.CharArrayCharStream;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Goal;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures parsing a large MiniJava file, generated as for ParallelParseBenchmark, read whole into a char[]
+ * and streamed through a Reader with MiniJavaParser.setStreaming. Besides the time, it reports the heap that
+ * the parse holds on to: the tree, and whatever the parser keeps of the source and its tokens.
+ *
+ * Usage: java StreamingParseBenchmark [classes]
+ */
+public class StreamingParseBenchmark {
+    // Parses per measurement
+    private static final int ITERATIONS = 5;
+
+    interface Parse {
+        MiniJavaParser parser(Path file) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException, ParseException {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        Path file = Files.createTempFile("streaming", ".java");
+        try {
+            Files.write(file, new String(ParallelParseBenchmark.generate(classes)).getBytes(Charset.defaultCharset()));
+            System.out.printf("%d classes, %d bytes%n", classes, Files.size(file));
+
+            String[] names = {"char[]", "streaming"};
+            Parse[] parses = {
+                    f -> {
+                        CharBuffer source = CharArrayCharStream.read(f.toString());
+                        return new MiniJavaParser(source.array(), source.limit(), false);
+                    },
+                    f -> {
+                        Reader reader = new InputStreamReader(new FileInputStream(f.toFile()), Charset.defaultCharset());
+                        MiniJavaParser parser = new MiniJavaParser(reader);
+                        parser.token_source.setKeepComments(false);
+                        parser.setStreaming(true);
+                        return parser;
+                    }
+            };
+            // warm up both before measuring either of them
+            for (Parse parse : parses)
+                measure(file, parse);
+            System.out.println("source\tms/parse\tMB held");
+            for (int i = 0; i < names.length; i++) {
+                double ms = measure(file, parses[i]);
+                System.out.printf("%s\t%.1f\t%.1f%n", names[i], ms, held(file, parses[i]) / 1e6);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // Average time of a parse of file
+    static double measure(Path file, Parse parse) throws IOException, ParseException {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++)
+            parse(parse.parser(file));
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+
+    // The heap that's still used once file is parsed, while the parser and its tree are reachable
+    static long held(Path file, Parse parse) throws IOException, ParseException {
+        long before = usedHeap();
+        MiniJavaParser parser = parse.parser(file);
+        Goal goal = parse(parser);
+        long after = usedHeap();
+        if (goal == null || parser.getSyntaxErrors().size() > 0)
+            throw new IllegalStateException("No tree");
+        return after - before;
+    }
+
+    static Goal parse(MiniJavaParser parser) throws ParseException {
+        parser.setCompactTree(true);
+        return parser.Goal();
+    }
+
+    static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
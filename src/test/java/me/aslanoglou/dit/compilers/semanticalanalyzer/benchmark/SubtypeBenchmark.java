@@ -0,0 +1,97 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.ClassHierarchy;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures subtype checks with ClassHierarchy and with the lists of superclass names by class name that phase 1
+ * built before, on a few trees of inheritance chains of a growing depth. The checks ask whether a class at the
+ * bottom of a chain is a subclass of the root of its chain (found at the end of its list) and of the root of
+ * another chain (not found). Also measures building either of them.
+ *
+ * Usage: java SubtypeBenchmark [chains]
+ */
+public class SubtypeBenchmark {
+    // Checks per measurement
+    private static final long CHECK_BUDGET = 20_000_000L;
+    private static final int[] DEPTHS = {1, 10, 100, 500};
+
+    public static void main(String[] args) {
+        int chains = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        // warm up both before measuring either
+        for (int depth : DEPTHS)
+            measure(chains, depth);
+        System.out.println("depth\tClassHierarchy ns/check\tsuperclass lists ns/check" +
+                "\tClassHierarchy build ms\tsuperclass lists build ms");
+        for (int depth : DEPTHS) {
+            double[] times = measure(chains, depth);
+            System.out.printf("%d\t%.2f\t%.2f\t%.3f\t%.3f%n", depth, times[0], times[1], times[2], times[3]);
+        }
+    }
+
+    // Times of a check and of a build, with ClassHierarchy and with the lists
+    static double[] measure(int chains, int depth) {
+        SymbolPool symbols = new SymbolPool();
+        int[][] classes = new int[chains][depth];
+        for (int c = 0; c < chains; c++) {
+            for (int d = 0; d < depth; d++)
+                classes[c][d] = symbols.intern("C" + c + "_" + d);
+        }
+        long start = System.nanoTime();
+        ClassHierarchy hierarchy = new ClassHierarchy();
+        for (int[] chain : classes) {
+            for (int d = 0; d < depth; d++)
+                hierarchy.add(chain[d], d > 0 ? chain[d - 1] : SymbolPool.NONE);
+        }
+        hierarchy.isSubclass(classes[0][0], classes[0][0]);
+        double hierarchyBuild = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        Map<String, List<String>> superClassRelation = new HashMap<>();
+        for (int[] chain : classes) {
+            for (int d = 1; d < depth; d++) {
+                String superClass = symbols.name(chain[d - 1]);
+                List<String> supers = new ArrayList<>();
+                supers.add(superClass);
+                if (superClassRelation.containsKey(superClass))
+                    supers.addAll(superClassRelation.get(superClass));
+                superClassRelation.put(symbols.name(chain[d]), supers);
+            }
+        }
+        double listsBuild = (System.nanoTime() - start) / 1e6;
+
+        int leaf = classes[0][depth - 1];
+        int root = classes[0][0];
+        int otherRoot = classes[chains - 1][0];
+        String leafName = symbols.name(leaf);
+        String rootName = symbols.name(root);
+        String otherRootName = symbols.name(otherRoot);
+        long rounds = CHECK_BUDGET / 2;
+        int found = 0;
+        start = System.nanoTime();
+        for (long r = 0; r < rounds; r++) {
+            if (hierarchy.isSubclass(leaf, root))
+                found++;
+            if (hierarchy.isSubclass(leaf, otherRoot))
+                found++;
+        }
+        double hierarchyCheck = (System.nanoTime() - start) / (double) CHECK_BUDGET;
+        start = System.nanoTime();
+        for (long r = 0; r < rounds; r++) {
+            List<String> supers = superClassRelation.get(leafName);
+            if (leafName.equals(rootName) || supers != null && supers.contains(rootName))
+                found++;
+            supers = superClassRelation.get(leafName);
+            if (leafName.equals(otherRootName) || supers != null && supers.contains(otherRootName))
+                found++;
+        }
+        double listsCheck = (System.nanoTime() - start) / (double) CHECK_BUDGET;
+        if (found != 2 * rounds * (chains > 1 ? 1 : 2))
+            throw new IllegalStateException("Wrong checks: " + found);
+        return new double[] {hierarchyCheck, listsCheck, hierarchyBuild, listsBuild};
+    }
+}
@@ -0,0 +1,152 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.containers.ClassContainer;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.containers.VariableContainer;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.ClassHierarchy;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SemanticType;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolMap;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolTable;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.TypeTable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Measures entering a scope, inserting its variables, looking names up and leaving it, with SymbolTable and with
+ * a list of SymbolMaps, a new one per scope, that's searched from the outermost scope in, for scopes of a
+ * growing depth. The names looked up are those of the outermost scope, the innermost one and of a class.
+ *
+ * Usage: java SymbolTableBenchmark [variablesPerScope]
+ */
+public class SymbolTableBenchmark {
+    // Lookups per measurement
+    private static final long LOOKUP_BUDGET = 50_000_000L;
+    private static final int[] DEPTHS = {1, 2, 4, 8, 16};
+
+    interface Table {
+        void enter();
+
+        void insert(int symbol, VariableContainer variable);
+
+        VariableContainer lookup(int symbol);
+
+        void exit();
+    }
+
+    // Scopes as the table kept them before, searched from the outermost one
+    static class ScopeList implements Table {
+        private final List<SymbolMap<VariableContainer>> scopes = new ArrayList<>();
+        private final SymbolMap<ClassContainer> classInfo;
+        private final TypeTable types;
+        private final SymbolPool symbols;
+
+        ScopeList(SymbolMap<ClassContainer> classInfo, TypeTable types, SymbolPool symbols) {
+            this.classInfo = classInfo;
+            this.types = types;
+            this.symbols = symbols;
+        }
+
+        public void enter() {
+            scopes.add(new SymbolMap<VariableContainer>());
+        }
+
+        public void insert(int symbol, VariableContainer variable) {
+            scopes.get(scopes.size() - 1).put(symbol, variable);
+        }
+
+        public VariableContainer lookup(int symbol) {
+            for (SymbolMap<VariableContainer> scope : scopes) {
+                VariableContainer variable = scope.get(symbol);
+                if (variable != null)
+                    return variable;
+            }
+            if (classInfo.containsKey(symbol)) {
+                String name = symbols.name(symbol);
+                return new VariableContainer(symbol, name, types.classReference(symbol), name, -1);
+            }
+            return null;
+        }
+
+        public void exit() {
+            scopes.remove(scopes.size() - 1);
+        }
+    }
+
+    public static void main(String[] args) {
+        int variables = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int maxDepth = DEPTHS[DEPTHS.length - 1];
+        SymbolPool symbols = new SymbolPool();
+        TypeTable types = new TypeTable(symbols);
+        SymbolMap<ClassContainer> classInfo = new SymbolMap<>();
+        int classSymbol = symbols.intern("A");
+        classInfo.put(classSymbol, new ClassContainer(classSymbol, "A", types.classType(classSymbol)));
+        VariableContainer[][] scopes = new VariableContainer[maxDepth][variables];
+        for (int d = 0; d < maxDepth; d++) {
+            for (int v = 0; v < variables; v++) {
+                String name = "v" + d + "_" + v;
+                scopes[d][v] = new VariableContainer(symbols.intern(name), name, SemanticType.INT, "A", v + 1);
+            }
+        }
+        SymbolTable symbolTable = new SymbolTable(new BitSet(), new ClassHierarchy(), classInfo, types, symbols);
+        Table[] tables = {
+                new Table() {
+                    public void enter() {
+                        symbolTable.enter();
+                    }
+
+                    public void insert(int symbol, VariableContainer variable) {
+                        symbolTable.insert(symbol, variable);
+                    }
+
+                    public VariableContainer lookup(int symbol) {
+                        return symbolTable.lookup(symbol);
+                    }
+
+                    public void exit() {
+                        symbolTable.exit();
+                    }
+                },
+                new ScopeList(classInfo, types, symbols)
+        };
+        // warm up both before measuring either
+        for (Table table : tables) {
+            for (int depth : DEPTHS)
+                measure(table, scopes, depth, classSymbol);
+        }
+        System.out.println("depth\tSymbolTable ns/lookup\tscope list ns/lookup");
+        for (int depth : DEPTHS) {
+            System.out.printf("%d\t%.2f\t%.2f%n", depth, measure(tables[0], scopes, depth, classSymbol),
+                    measure(tables[1], scopes, depth, classSymbol));
+        }
+    }
+
+    // Average time per lookup of filling depth scopes, looking up each name a few times and leaving them
+    static double measure(Table table, VariableContainer[][] scopes, int depth, int classSymbol) {
+        int variables = scopes[0].length;
+        int lookupsPerRound = 3 * variables * 4;
+        long rounds = Math.max(1, LOOKUP_BUDGET / lookupsPerRound);
+        int found = 0;
+        long start = System.nanoTime();
+        for (long r = 0; r < rounds; r++) {
+            for (int d = 0; d < depth; d++) {
+                table.enter();
+                for (VariableContainer variable : scopes[d])
+                    table.insert(variable.getSymbol(), variable);
+            }
+            for (int k = 0; k < 4; k++) {
+                for (int v = 0; v < variables; v++) {
+                    found += table.lookup(scopes[0][v].getSymbol()).getOrder();
+                    found += table.lookup(scopes[depth - 1][v].getSymbol()).getOrder();
+                    found += table.lookup(classSymbol).getOrder();
+                }
+            }
+            for (int d = 0; d < depth; d++)
+                table.exit();
+        }
+        if (found == 0)
+            throw new IllegalStateException("Nothing found");
+        return (System.nanoTime() - start) / (double) rounds / lookupsPerRound;
+    }
+}
@@ -0,0 +1,117 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.FlatCursor;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.FlatTree;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Goal;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.NodeToken;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.visitor.GJDepthFirst;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures a full traversal (every node, counting the tokens) of the syntax trees of the MiniJava sources of
+ * the test resources: of the object trees with a GJDepthFirst visitor, of the FlatTrees with a FlatCursor or
+ * with a scan of the node arrays (which are in pre-order), and of the FlatTrees with the same visitor through
+ * FlatTree.accept, which creates the objects as it goes.
+ *
+ * Usage: java TraversalBenchmark [resourcesDir]
+ */
+public class TraversalBenchmark {
+    // Nodes visited per measurement
+    private static final long NODE_BUDGET = 100_000_000L;
+
+    interface Traversal {
+        int traverse(int i);
+    }
+
+    static class TokenCounter extends GJDepthFirst<Void, Void> {
+        int tokens;
+
+        @Override
+        public Void visit(NodeToken n, Void argu) {
+            tokens++;
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path resources = Paths.get(args.length > 0 ? args[0] : "src/test/resources");
+        List<Goal> trees = new ArrayList<>();
+        List<FlatTree> flatTrees = new ArrayList<>();
+        long nodes = 0;
+        for (char[] source : LexingBenchmark.readSources(resources)) {
+            try {
+                MiniJavaParser parser = new MiniJavaParser(source, source.length);
+                Goal tree = parser.Goal();
+                trees.add(tree);
+                flatTrees.add(FlatTree.build(tree, parser));
+                nodes += flatTrees.get(flatTrees.size() - 1).size();
+            } catch (ParseException ex) {
+                // only the sources that parse are measured
+            }
+        }
+        System.out.printf("%d trees, %d nodes%n", trees.size(), nodes);
+
+        String[] names = {"objects, GJDepthFirst", "flat, FlatCursor", "flat, pre-order scan", "flat, FlatTree.accept"};
+        Traversal[] traversals = {
+                i -> {
+                    TokenCounter counter = new TokenCounter();
+                    trees.get(i).accept(counter, null);
+                    return counter.tokens;
+                },
+                i -> countTokens(flatTrees.get(i).cursor()),
+                i -> {
+                    FlatTree tree = flatTrees.get(i);
+                    int tokens = 0;
+                    for (int n = 0; n < tree.size(); n++) {
+                        if (tree.kind(n) == FlatTree.NODE_TOKEN)
+                            tokens++;
+                    }
+                    return tokens;
+                },
+                i -> {
+                    TokenCounter counter = new TokenCounter();
+                    flatTrees.get(i).accept(counter, null);
+                    return counter.tokens;
+                }
+        };
+        // warm up every traversal before measuring any of them
+        for (Traversal traversal : traversals)
+            measure(trees.size(), nodes, traversal);
+        System.out.println("traversal\tns/node");
+        for (int i = 0; i < traversals.length; i++)
+            System.out.printf("%s\t%.2f%n", names[i], measure(trees.size(), nodes, traversals[i]));
+    }
+
+    // Average traversal time per node of all the trees
+    static double measure(int trees, long nodes, Traversal traversal) {
+        long iterations = Math.max(1, NODE_BUDGET / nodes);
+        long start = System.nanoTime();
+        for (long i = 0; i < iterations; i++) {
+            for (int tree = 0; tree < trees; tree++)
+                traversal.traverse(tree);
+        }
+        return (System.nanoTime() - start) / (double) iterations / nodes;
+    }
+
+    // Pre-order walk of the whole tree
+    static int countTokens(FlatCursor cursor) {
+        int tokens = 0;
+        for (;;) {
+            if (cursor.kind() == FlatTree.NODE_TOKEN)
+                tokens++;
+            if (cursor.moveToFirstChild())
+                continue;
+            while (!cursor.moveToNextSibling()) {
+                if (!cursor.moveToParent())
+                    return tokens;
+            }
+        }
+    }
+}
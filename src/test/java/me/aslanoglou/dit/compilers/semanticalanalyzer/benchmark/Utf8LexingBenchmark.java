@@ -0,0 +1,70 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.CharArrayCharStream;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.PackedLexer;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures reading and lexing a file with thousands of classes, generated as for ParallelParseBenchmark: mapped
+ * and decoded into chars that PackedLexer lexes, mapped and lexed from its bytes (copied out of the map, see
+ * PackedLexer.array), and read into a byte[] and lexed from it. The input held on the heap is the char[] of the
+ * first and the byte[] of the other two.
+ *
+ * Usage: java Utf8LexingBenchmark [classes]
+ */
+public class Utf8LexingBenchmark {
+    // Reads and lexes per measurement
+    private static final int ITERATIONS = 30;
+
+    interface Lexer {
+        int lex(Path file) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        Path file = Files.createTempFile("minijava", ".java");
+        try {
+            byte[] source = new String(ParallelParseBenchmark.generate(classes)).getBytes(StandardCharsets.UTF_8);
+            Files.write(file, source);
+            System.out.printf("%d classes, %d bytes%n", classes, source.length);
+
+            String[] names = {"decoded chars", "mapped bytes", "read bytes"};
+            long[] heap = {2L * source.length, source.length, source.length};
+            Lexer[] lexers = {
+                    f -> {
+                        CharBuffer chars = StandardCharsets.UTF_8.decode(CharArrayCharStream.map(f.toString()));
+                        return PackedLexer.lex(chars.array(), chars.limit(), false).count();
+                    },
+                    f -> PackedLexer.lex(CharArrayCharStream.map(f.toString()), false).count(),
+                    f -> {
+                        byte[] bytes = Files.readAllBytes(f);
+                        return PackedLexer.lex(bytes, bytes.length, false).count();
+                    }
+            };
+            // warm up every one before measuring any of them
+            for (Lexer lexer : lexers)
+                measure(file, lexer);
+            System.out.println("input\tms/file\tinput bytes on the heap");
+            for (int i = 0; i < lexers.length; i++)
+                System.out.printf("%s\t%.2f\t%d%n", names[i], measure(file, lexers[i]), heap[i]);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // Average time of a read and lex of file
+    static double measure(Path file, Lexer lexer) throws IOException {
+        int tokens = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++)
+            tokens += lexer.lex(file);
+        if (tokens == 0)
+            throw new IllegalStateException("No tokens");
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+}
@@ -0,0 +1,157 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.check;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.AstCache;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.FlatTree;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Goal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Checks that AstCache gives back the trees it stores: every source of the test resources that parses, read
+ * as chars and as UTF-8 bytes, in compact trees and in plain ones, is parsed with its outline collected, stored
+ * and loaded, and the loaded FlatTree is compared with the stored one, and so is the tree that node(0) makes of
+ * either (with the parser's own tree too, for a plain tree). The file must be readable by everyone, where files
+ * have POSIX permissions. Then it's altered, and must be a miss: with another magic number, with the version
+ * before and after its own, with a few bits flipped, cut short, and removed. So must it be with a token symbol,
+ * a first child and a next sibling that aren't there, each under its CRC, which only FlatTree.read tells.
+ *
+ * Usage: java AstCacheCheck [resourcesDir] [seed] [flipsPerTree]
+ */
+public class AstCacheCheck {
+    // The magic number, the version and the CRC
+    private static final int HEADER = 12;
+
+    public static void main(String[] args) throws IOException, ParseException {
+        Path resources = Paths.get(args.length > 0 ? args[0] : "src/test/resources");
+        Random random = new Random(args.length > 1 ? Long.parseLong(args[1]) : 1);
+        int flips = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        List<Path> files = LexerCheck.sourceFiles(resources);
+        Path directory = Files.createTempDirectory("minijava-ast-cache");
+        int trees = 0;
+        try {
+            AstCache cache = new AstCache(directory);
+            for (Path file : files) {
+                byte[] bytes = Files.readAllBytes(file);
+                char[] chars = new String(bytes, StandardCharsets.UTF_8).toCharArray();
+                for (boolean fromBytes : new boolean[] {false, true}) {
+                    for (boolean compact : new boolean[] {false, true}) {
+                        MiniJavaParser parser = fromBytes ? new MiniJavaParser(bytes, bytes.length, false)
+                                : new MiniJavaParser(chars, chars.length, false);
+                        parser.setCompactTree(compact);
+                        parser.setCollectOutline(true);
+                        Goal goal;
+                        try {
+                            goal = parser.Goal();
+                        } catch (ParseException | Error ex) {
+                            continue;
+                        }
+                        String name = file + (fromBytes ? " (bytes)" : "") + (compact ? " (compact)" : "");
+                        String key = fromBytes ? AstCache.key(ByteBuffer.wrap(bytes)) : AstCache.key(chars, chars.length);
+                        FlatTree tree = FlatTree.build(goal, parser);
+                        check(name, cache, directory, key, tree, compact ? null : goal, random, flips);
+                        trees++;
+                    }
+                }
+            }
+        } finally {
+            try (Stream<Path> paths = Files.list(directory)) {
+                for (Path path : paths.collect(Collectors.toList()))
+                    Files.delete(path);
+            }
+            Files.delete(directory);
+        }
+        System.out.printf("%d files, %d trees: the cache loads the trees it stores, and misses altered ones%n",
+                files.size(), trees);
+    }
+
+    // Stores tree under key and loads it back, then alters its file
+    static void check(String name, AstCache cache, Path directory, String key, FlatTree tree, Goal goal,
+                      Random random, int flips) throws IOException {
+        cache.store(key, tree);
+        FlatTree loaded = cache.load(key);
+        if (loaded == null)
+            TreeComparison.fail(name, "the tree isn't loaded");
+        TreeComparison.compare(name, tree, loaded);
+        Goal node = (Goal) loaded.node(0);
+        TreeComparison.compare(name + " node(0)", (Goal) tree.node(0), node);
+        if (goal != null)
+            TreeComparison.compare(name + " node(0) and the parsed tree", goal, node);
+
+        Path file = stored(directory);
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")
+                && !Files.getPosixFilePermissions(file).contains(PosixFilePermission.OTHERS_READ))
+            TreeComparison.fail(name, "the file can't be read by others");
+        byte[] stored = Files.readAllBytes(file);
+        int version = ByteBuffer.wrap(stored).getInt(4);
+        miss(name + " with another magic number", cache, key, file, altered(stored, 0, ByteBuffer.wrap(stored).getInt(0) ^ 1));
+        miss(name + " of the version before", cache, key, file, altered(stored, 4, version - 1));
+        miss(name + " of the version after", cache, key, file, altered(stored, 4, version + 1));
+        for (int f = 0; f < flips; f++) {
+            int bit = random.nextInt(8 * stored.length);
+            byte[] flipped = stored.clone();
+            flipped[bit / 8] ^= 1 << (bit % 8);
+            miss(name + " with bit " + bit + " flipped", cache, key, file, flipped);
+        }
+        // The layout of the tree is FlatTree.write's, after the magic number, the version and the CRC
+        int nodes = ByteBuffer.wrap(stored).getInt(HEADER);
+        int firstChildren = HEADER + 8 + 4 * nodes;
+        int nextSiblings = firstChildren + 4 * nodes;
+        int tokenSymbols = nextSiblings + 4 * (2 * nodes + tree.tokenCount());
+        Files.write(file, withCrc(stored));
+        if (cache.load(key) == null)
+            TreeComparison.fail(name, "the tree isn't loaded with its CRC put again");
+        miss(name + " with a token symbol that isn't there", cache, key, file,
+                withCrc(altered(stored, tokenSymbols + 4 * random.nextInt(tree.tokenCount()), 1_000_000)));
+        miss(name + " with a first child that isn't there", cache, key, file,
+                withCrc(altered(stored, firstChildren + 4 * (nodes - 1), nodes)));
+        miss(name + " with the root as a next sibling", cache, key, file,
+                withCrc(altered(stored, nextSiblings + 4 * random.nextInt(nodes), 0)));
+        miss(name + " cut short", cache, key, file, Arrays.copyOf(stored, stored.length / 2));
+        Files.delete(file);
+        if (cache.load(key) != null)
+            TreeComparison.fail(name, "the tree is loaded once its file is removed");
+    }
+
+    // The one file of directory
+    static Path stored(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            List<Path> files = paths.collect(Collectors.toList());
+            if (files.size() != 1)
+                throw new IllegalStateException("The cache has " + files.size() + " files instead of one");
+            return files.get(0);
+        }
+    }
+
+    // The bytes of a file with the CRC of the rest put after the magic number and the version
+    static byte[] withCrc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, HEADER, bytes.length - HEADER);
+        return altered(bytes, HEADER - 4, (int) crc.getValue());
+    }
+
+    static byte[] altered(byte[] stored, int at, int value) {
+        byte[] bytes = stored.clone();
+        ByteBuffer.wrap(bytes).putInt(at, value);
+        return bytes;
+    }
+
+    static void miss(String name, AstCache cache, String key, Path file, byte[] contents) throws IOException {
+        Files.write(file, contents);
+        if (cache.load(key) != null)
+            TreeComparison.fail(name, "the tree is loaded");
+    }
+}
@@ -0,0 +1,137 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.check;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.IncrementalParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Goal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that IncrementalParser.edit brings the tree of a source up to date as a full parse of the edited source
+ * builds it: each source of the test resources that parses is edited at random, in compact trees and in plain
+ * ones, and after every edit the tree is compared with the one a MiniJavaParser builds, with the positions and
+ * the names of the symbols of its NodeTokens. An edit after which the source doesn't parse must fail as the full
+ * parse does (a lexical error, and a bad unicode escape, are Errors), and is then undone, which must have the
+ * tree built again.
+ *
+ * Usage: java IncrementalParseCheck [resourcesDir] [seed] [editsPerSource]
+ */
+public class IncrementalParseCheck {
+    // Inserted at random, from a single char to statements and declarations, and an escape that has the whole
+    // source parsed again from then on
+    private static final String[] INSERTS = {"x", "a1", " ", "\n", "\t", "\r\n", "\r", "1", ";", "{", "}",
+            "y = 1;", "int z;", "/* c */", "// c\n", "public", "class", "\tq", "a\n\tb", "(", ")", "!", "&&",
+            "public int f() { return 0; }", "class K { }", "\\u0041"};
+    // Inserted next to white space, where they leave the tokens as they are
+    private static final String[] SPACES = {" ", "\n", "\t", "\r\n", "\r", "/* c */", "// c\n", "\n\n\t"};
+
+    public static void main(String[] args) throws IOException {
+        Path resources = Paths.get(args.length > 0 ? args[0] : "src/test/resources");
+        Random random = new Random(args.length > 1 ? Long.parseLong(args[1]) : 1);
+        int editsPerSource = args.length > 2 ? Integer.parseInt(args[2]) : 150;
+        List<Path> files = LexerCheck.sourceFiles(resources);
+        int edits = 0;
+        int failing = 0;
+        for (Path file : files) {
+            String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            if (parse(source, false) == null)
+                continue;
+            for (boolean compact : new boolean[] {false, true}) {
+                IncrementalParser incremental;
+                try {
+                    incremental = new IncrementalParser(source.toCharArray(), source.length(), compact);
+                } catch (ParseException ex) {
+                    throw new IllegalStateException(file + " parses, but not incrementally", ex);
+                }
+                String current = source;
+                for (int e = 0; e < editsPerSource; e++) {
+                    int offset = random.nextInt(current.length() + 1);
+                    int removed = 0;
+                    String inserted;
+                    if (random.nextBoolean() && nextToSpace(current, offset))
+                        inserted = SPACES[random.nextInt(SPACES.length)];
+                    else if (random.nextBoolean() && offset > 0 && Character.isLetter(current.charAt(offset - 1)))
+                        inserted = String.valueOf((char) ('a' + random.nextInt(3)));
+                    else {
+                        removed = random.nextInt(3) == 0 ? Math.min(random.nextInt(6), current.length() - offset) : 0;
+                        inserted = removed > 0 && random.nextInt(4) == 0 ? "" : INSERTS[random.nextInt(INSERTS.length)];
+                    }
+                    String edited = current.substring(0, offset) + inserted + current.substring(offset + removed);
+                    String name = file + (compact ? " (compact)" : "") + " edit " + e + ": " + removed
+                            + " chars at " + offset + " replaced with '" + inserted + "'";
+                    edits++;
+                    if (check(name, incremental, offset, removed, inserted, edited, compact))
+                        current = edited;
+                    else {
+                        // there's no tree until an edit makes the source parse again, as undoing this one does
+                        failing++;
+                        String removedText = current.substring(offset, offset + removed);
+                        check(name + ", undone", incremental, offset, inserted.length(), removedText, current, compact);
+                    }
+                }
+            }
+        }
+        System.out.printf("%d files, %d edits, %d of which don't parse: the edits build the trees full parses do%n",
+                files.size(), edits, failing);
+    }
+
+    /**
+     * Makes the edit and compares the tree with the one of a full parse of edited.
+     * @return Whether edited parses
+     */
+    static boolean check(String name, IncrementalParser incremental, int offset, int removed, String inserted,
+                         String edited, boolean compact) {
+        MiniJavaParser parser = new MiniJavaParser(edited.toCharArray(), edited.length(), false);
+        parser.setCompactTree(compact);
+        Goal expected;
+        String expectedError = null;
+        try {
+            expected = parser.Goal();
+        } catch (ParseException | Error ex) {
+            expected = null;
+            expectedError = ex.getMessage();
+        }
+        Goal actual;
+        String error = null;
+        try {
+            actual = incremental.edit(offset, removed, inserted);
+        } catch (ParseException | Error ex) {
+            actual = null;
+            error = ex.getMessage();
+        }
+        if (expected == null) {
+            if (actual != null || !error.equals(expectedError))
+                TreeComparison.fail(name, "the edit reports " + error + " instead of " + expectedError);
+            return false;
+        }
+        if (actual == null)
+            TreeComparison.fail(name, "the edit reports " + error);
+        if (incremental.getGoal() != actual)
+            TreeComparison.fail(name, "the edit returns another tree than getGoal");
+        TreeComparison.compare(name, expected, parser.getSymbols(), actual, incremental.getSymbols());
+        return true;
+    }
+
+    static boolean nextToSpace(String source, int offset) {
+        return offset == 0 || offset == source.length() || Character.isWhitespace(source.charAt(offset - 1))
+                || Character.isWhitespace(source.charAt(offset));
+    }
+
+    // The tree of source, null if it doesn't parse
+    static Goal parse(String source, boolean compact) {
+        MiniJavaParser parser = new MiniJavaParser(source.toCharArray(), source.length(), false);
+        parser.setCompactTree(compact);
+        try {
+            return parser.Goal();
+        } catch (ParseException | Error ex) {
+            return null;
+        }
+    }
+}
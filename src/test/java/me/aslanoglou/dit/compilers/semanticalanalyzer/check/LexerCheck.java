@@ -0,0 +1,130 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.check;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.JavaCharStream;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParserConstants;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParserTokenManager;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.PackedLexer;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.PackedTokens;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.Token;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.TokenMgrError;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks that PackedLexer lexes the MiniJava sources of the test resources as MiniJavaParserTokenManager does:
+ * the same tokens, with the same kind, image and offset, the same comments before each of them as its special
+ * tokens, and the same lexical error at the same place. Each source is also lexed with a few random edits that
+ * make for the cases the tables of PackedLexer have to get right: an illegal character, a lone "&", a comment
+ * that isn't closed, a "/**" "/", a non-ASCII letter, a "System.out.printl" and such.
+ *
+ * Usage: java LexerCheck [resourcesDir] [seed] [editsPerSource]
+ */
+public class LexerCheck {
+    private static final String[] EDITS = {"#", "&", "&&", "/*", "*/", "/**/", "/***/", "/** x */", "//", "// x\r",
+            "\r", "\r\n", "\t", "0", "0123", "été", "中", "System.out.printl", "System.out.println",
+            "System .out", "\\", "\"", "@"};
+
+    public static void main(String[] args) throws IOException {
+        Path resources = Paths.get(args.length > 0 ? args[0] : "src/test/resources");
+        Random random = new Random(args.length > 1 ? Long.parseLong(args[1]) : 1);
+        int editsPerSource = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        List<Path> files = sourceFiles(resources);
+        int sources = 0;
+        int errors = 0;
+        for (Path file : files) {
+            String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            for (int e = 0; e <= editsPerSource; e++) {
+                String edited = source;
+                if (e > 0) {
+                    int at = random.nextInt(source.length() + 1);
+                    edited = source.substring(0, at) + EDITS[random.nextInt(EDITS.length)] + source.substring(at);
+                }
+                if (edited.contains("\\u"))
+                    continue;
+                if (check(file + (e > 0 ? " (edit " + e + ")" : ""), edited.toCharArray()))
+                    errors++;
+                sources++;
+            }
+        }
+        System.out.printf("%d files, %d sources, %d with a lexical error: PackedLexer lexes them all the same%n",
+                files.size(), sources, errors);
+    }
+
+    static List<Path> sourceFiles(Path resources) throws IOException {
+        try (Stream<Path> paths = Files.walk(resources)) {
+            return paths.filter(p -> p.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Compares the tokens of source, with and without the comments kept.
+     * @return Whether the source has a lexical error
+     */
+    static boolean check(String name, char[] source) {
+        List<Token> expected = new ArrayList<>();
+        TokenMgrError expectedError = null;
+        MiniJavaParserTokenManager tokenManager =
+                new MiniJavaParserTokenManager(new JavaCharStream(new CharArrayReader(source)));
+        try {
+            Token t;
+            do {
+                t = tokenManager.getNextToken();
+                expected.add(t);
+            } while (t.kind != MiniJavaParserConstants.EOF);
+        } catch (TokenMgrError ex) {
+            expectedError = ex;
+        }
+        for (boolean keepComments : new boolean[] {true, false}) {
+            PackedTokens tokens = PackedLexer.lex(source, source.length, keepComments);
+            if (tokens.count() != expected.size())
+                fail(name, "lexes " + tokens.count() + " tokens instead of " + expected.size());
+            int comment = 0;
+            for (int i = 0; i < tokens.count(); i++) {
+                Token t = expected.get(i);
+                compare(name, "token " + i, t, tokens.newToken(i));
+                List<Token> specials = new ArrayList<>();
+                for (Token special = t.specialToken; special != null; special = special.specialToken)
+                    specials.add(0, special);
+                if (!keepComments)
+                    continue;
+                for (Token special : specials) {
+                    if (comment == tokens.commentCount())
+                        fail(name, "has no comment " + special.image + " before token " + i);
+                    compare(name, "comment " + comment + " before token " + i, special, tokens.newComment(comment++));
+                }
+            }
+            // with a lexical error, the comments between the last token and the error are special tokens of none
+            if (keepComments ? expectedError == null && comment != tokens.commentCount() : tokens.commentCount() != 0)
+                fail(name, "lexes " + tokens.commentCount() + " comments instead of " + (keepComments ? comment : 0));
+            if (tokens.hasLexicalError() != (expectedError != null))
+                fail(name, tokens.hasLexicalError() ? "has a lexical error" : "has no lexical error");
+            if (expectedError != null && !tokens.lexicalError().getMessage().equals(expectedError.getMessage()))
+                fail(name, "reports " + tokens.lexicalError().getMessage()
+                        + " instead of " + expectedError.getMessage());
+        }
+        return expectedError != null;
+    }
+
+    static void compare(String name, String what, Token expected, Token actual) {
+        if (actual.kind != expected.kind || !actual.image.equals(expected.image) || actual.offset != expected.offset)
+            fail(name, what + " is " + describe(actual) + " instead of " + describe(expected));
+    }
+
+    static String describe(Token t) {
+        return MiniJavaParserConstants.tokenImage[t.kind] + " '" + t.image + "' at " + t.offset;
+    }
+
+    static void fail(String name, String message) {
+        throw new IllegalStateException(name + ": PackedLexer " + message);
+    }
+}
@@ -0,0 +1,59 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.check;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.FlatTree;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.PackedLexer;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.PackedTokens;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.benchmark.ParallelParseBenchmark;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Goal;
+
+import java.lang.reflect.Method;
+
+/**
+ * Checks that a source with thousands of classes, generated as for ParallelParseBenchmark, parses into the same
+ * tree in parallel as one declaration after the other (see MiniJavaParser.setParallelParse): the same nodes,
+ * NodeTokens, symbols and outline, in compact trees and in plain ones, with and without comments in the source.
+ *
+ * ParallelGoal.split, which is internal to the parser, is called through reflection to make sure that the
+ * source is large enough to be parsed in parallel at all.
+ *
+ * Usage: java ParallelParseCheck [classes]
+ */
+public class ParallelParseCheck {
+    public static void main(String[] args) throws Exception {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        char[] plain = ParallelParseBenchmark.generate(classes);
+        // a comment before and after some of the tokens, and at the start of every class
+        char[] commented = new String(plain).replace("i = i + 1;", "i = /* next */ i + 1; // i")
+                .replace("\nclass", "\n// a class\nclass").toCharArray();
+        Method split = Class.forName("me.aslanoglou.dit.compilers.semanticalanalyzer.ParallelGoal")
+                .getDeclaredMethod("split", PackedTokens.class);
+        split.setAccessible(true);
+        for (char[] source : new char[][] {plain, commented}) {
+            boolean keepComments = source == commented;
+            if (split.invoke(null, PackedLexer.lex(source, source.length, keepComments)) == null)
+                throw new IllegalStateException(classes + " classes aren't split to be parsed in parallel");
+            for (boolean compact : new boolean[] {false, true}) {
+                String name = (compact ? "compact" : "plain") + " tree of " + classes + " classes"
+                        + (keepComments ? " with comments" : "");
+                MiniJavaParser sequential = parser(source, keepComments, compact, false);
+                Goal expected = sequential.Goal();
+                MiniJavaParser parallel = parser(source, keepComments, compact, true);
+                Goal actual = parallel.Goal();
+                TreeComparison.compare(name, expected, actual);
+                TreeComparison.compare(name, FlatTree.build(expected, sequential), FlatTree.build(actual, parallel));
+                System.out.printf("%s: parallel parse is the same%n", name);
+            }
+        }
+    }
+
+    static MiniJavaParser parser(char[] source, boolean keepComments, boolean compact, boolean parallel)
+            throws ParseException {
+        MiniJavaParser parser = new MiniJavaParser(source, source.length, keepComments);
+        parser.setCompactTree(compact);
+        parser.setCollectOutline(true);
+        parser.setParallelParse(parallel);
+        return parser;
+    }
+}
@@ -0,0 +1,131 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.check;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ClassOutline;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.FlatTree;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.symboltable.SymbolPool;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Goal;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.Node;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.syntaxtree.NodeToken;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.visitor.DepthFirstVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares trees, for the checks: as FlatTrees, node by node and token by token, with the positions of the
+ * tokens, their symbols and the outline, and as syntaxtree objects, through their FlatTree encoding and their
+ * NodeTokens. Throws an IllegalStateException on the first difference.
+ */
+final class TreeComparison {
+    private TreeComparison() {
+    }
+
+    /** Compares the nodes, tokens, symbols and outlines of two FlatTrees. */
+    static void compare(String name, FlatTree expected, FlatTree actual) {
+        compare(name, expected, actual, true);
+    }
+
+    // The symbols of the tokens are compared if the trees have the same ones, that is they were interned in the
+    // same order
+    private static void compare(String name, FlatTree expected, FlatTree actual, boolean sameSymbols) {
+        if (actual.size() != expected.size() || actual.tokenCount() != expected.tokenCount())
+            fail(name, "has " + actual.size() + " nodes and " + actual.tokenCount() + " tokens instead of "
+                    + expected.size() + " and " + expected.tokenCount());
+        for (int n = 0; n < expected.size(); n++) {
+            if (actual.kind(n) != expected.kind(n) || actual.firstChild(n) != expected.firstChild(n)
+                    || actual.nextSibling(n) != expected.nextSibling(n) || actual.token(n) != expected.token(n))
+                fail(name, "differs at node " + n);
+        }
+        for (int t = 0; t < expected.tokenCount(); t++) {
+            if (actual.tokenKind(t) != expected.tokenKind(t) || !actual.tokenImage(t).equals(expected.tokenImage(t))
+                    || sameSymbols && actual.tokenSymbol(t) != expected.tokenSymbol(t)
+                    || actual.tokenOffset(t) != expected.tokenOffset(t)
+                    || actual.tokenLength(t) != expected.tokenLength(t))
+                fail(name, "has token " + describe(actual, t) + " instead of " + describe(expected, t));
+            if (expected.tokenLength(t) > 0 && (actual.beginLine(t) != expected.beginLine(t)
+                    || actual.beginColumn(t) != expected.beginColumn(t) || actual.endLine(t) != expected.endLine(t)
+                    || actual.endColumn(t) != expected.endColumn(t)))
+                fail(name, "has token " + t + " at another position");
+        }
+        if ((actual.symbols() == null) != (expected.symbols() == null))
+            fail(name, actual.symbols() == null ? "has no symbols" : "has symbols");
+        if (expected.symbols() != null) {
+            if (actual.symbols().size() != expected.symbols().size())
+                fail(name, "has " + actual.symbols().size() + " symbols instead of " + expected.symbols().size());
+            for (int s = 0; s < expected.symbols().size(); s++) {
+                if (!actual.symbols().name(s).equals(expected.symbols().name(s)))
+                    fail(name, "has symbol " + s + " " + actual.symbols().name(s) + " instead of "
+                            + expected.symbols().name(s));
+            }
+        }
+        compare(name, expected.outline(), actual.outline());
+    }
+
+    static void compare(String name, ClassOutline expected, ClassOutline actual) {
+        if ((actual == null) != (expected == null))
+            fail(name, actual == null ? "has no outline" : "has an outline");
+        if (expected == null)
+            return;
+        if (actual.size() != expected.size())
+            fail(name, "has " + actual.size() + " outline entries instead of " + expected.size());
+        for (int e = 0; e < expected.size(); e++) {
+            if (actual.kind(e) != expected.kind(e) || actual.type(e) != expected.type(e)
+                    || actual.symbol(e) != expected.symbol(e) || actual.offset(e) != expected.offset(e))
+                fail(name, "differs at outline entry " + e);
+        }
+    }
+
+    /**
+     * Compares two trees of syntaxtree objects: their structure, and their NodeTokens with their images, kinds,
+     * symbols and positions. Fixed tokens without a position (see MiniJavaParser.setCompactTree) must be the
+     * very same NodeToken in both.
+     */
+    static void compare(String name, Goal expected, Goal actual) {
+        compare(name, expected, null, actual, null);
+    }
+
+    /**
+     * Compares two trees of syntaxtree objects as compare(String, Goal, Goal) does, with the symbols of their
+     * identifiers in pools of their own: the symbols must be of the same names, rather than the same.
+     */
+    static void compare(String name, Goal expected, SymbolPool expectedSymbols, Goal actual,
+                        SymbolPool actualSymbols) {
+        compare(name, FlatTree.build(expected, null), FlatTree.build(actual, null), expectedSymbols == null);
+        List<NodeToken> expectedTokens = tokens(expected);
+        List<NodeToken> actualTokens = tokens(actual);
+        for (int t = 0; t < expectedTokens.size(); t++) {
+            NodeToken e = expectedTokens.get(t);
+            NodeToken a = actualTokens.get(t);
+            if ((e.getBeginLine() == -1) != (a.getBeginLine() == -1) || e.getBeginLine() == -1 && a != e)
+                fail(name, "has another NodeToken " + t + " '" + e.tokenImage + "'");
+            if (e.getBeginLine() != a.getBeginLine() || e.getBeginColumn() != a.getBeginColumn()
+                    || e.getEndLine() != a.getEndLine() || e.getEndColumn() != a.getEndColumn())
+                fail(name, "has NodeToken " + t + " '" + e.tokenImage + "' at another position");
+            if (expectedSymbols != null && ((e.symbol == SymbolPool.NONE) != (a.symbol == SymbolPool.NONE)
+                    || e.symbol != SymbolPool.NONE
+                    && !actualSymbols.name(a.symbol).equals(expectedSymbols.name(e.symbol))))
+                fail(name, "has NodeToken " + t + " '" + e.tokenImage + "' of another symbol");
+        }
+    }
+
+    // The NodeTokens of node, in source order
+    static List<NodeToken> tokens(Node node) {
+        List<NodeToken> tokens = new ArrayList<>();
+        node.accept(new DepthFirstVisitor() {
+            @Override
+            public void visit(NodeToken n) {
+                tokens.add(n);
+            }
+        });
+        return tokens;
+    }
+
+    private static String describe(FlatTree tree, int t) {
+        return t + " '" + tree.tokenImage(t) + "' (kind " + tree.tokenKind(t) + ", symbol " + tree.tokenSymbol(t)
+                + ") at " + tree.tokenOffset(t) + "+" + tree.tokenLength(t);
+    }
+
+    static void fail(String name, String message) {
+        throw new IllegalStateException(name + ": " + message);
+    }
+}
@@ -0,0 +1,128 @@
+package me.aslanoglou.dit.compilers.semanticalanalyzer.check;
+
+import me.aslanoglou.dit.compilers.semanticalanalyzer.LineMap;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParser;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.MiniJavaParserConstants;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.PackedLexer;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.PackedTokens;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.ParseException;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.Token;
+import me.aslanoglou.dit.compilers.semanticalanalyzer.TokenMgrError;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that a source lexed and parsed from its UTF-8 bytes gives what it gives from its chars: the same tokens
+ * and comments, at the same lines and columns of the LineMap of either, the same lexical error and the same
+ * syntax errors, from a byte[] and from a direct ByteBuffer. Each source of the test resources is also checked
+ * with a few random edits that put characters of two, three and four bytes (the last two chars in UTF-16) into
+ * its comments, its identifiers and between its tokens.
+ *
+ * Usage: java Utf8Check [resourcesDir] [seed] [editsPerSource]
+ */
+public class Utf8Check {
+    private static final String[] EDITS = {"é", "€", "𝄞", "中文", "/* é€𝄞 */", "// ü\n", "ß\t", "\té", "ĀĀ",
+            "/** 𝄞𝄞 */", " x中 ", "é#", "𝄞\r\n", "\t𝄞\t", "٣"};
+
+    public static void main(String[] args) throws IOException {
+        Path resources = Paths.get(args.length > 0 ? args[0] : "src/test/resources");
+        Random random = new Random(args.length > 1 ? Long.parseLong(args[1]) : 1);
+        int editsPerSource = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        List<Path> files = LexerCheck.sourceFiles(resources);
+        int sources = 0;
+        for (Path file : files) {
+            String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            for (int e = 0; e <= editsPerSource; e++) {
+                String edited = source;
+                if (e > 0) {
+                    // not between the two chars of a character beyond the BMP
+                    int at = random.nextInt(source.length() + 1);
+                    if (at > 0 && at < source.length() && Character.isLowSurrogate(source.charAt(at)))
+                        at--;
+                    edited = source.substring(0, at) + EDITS[random.nextInt(EDITS.length)] + source.substring(at);
+                }
+                if (edited.contains("\\u"))
+                    continue;
+                check(file + (e > 0 ? " (edit " + e + ")" : ""), edited);
+                sources++;
+            }
+        }
+        System.out.printf("%d files, %d sources: their bytes lex and parse as their chars do%n", files.size(), sources);
+    }
+
+    static void check(String name, String source) {
+        char[] chars = source.toCharArray();
+        byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        PackedTokens expected = PackedLexer.lex(chars, chars.length, true);
+        compare(name, expected, PackedLexer.lex(bytes, bytes.length, true));
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        compare(name + " (direct buffer)", expected, PackedLexer.lex(direct, true));
+        List<String> expectedErrors = syntaxErrors(new MiniJavaParser(chars, chars.length, false));
+        List<String> errors = syntaxErrors(new MiniJavaParser(bytes, bytes.length, false));
+        if (!errors.equals(expectedErrors))
+            fail(name, "the bytes parse with errors " + errors + " instead of " + expectedErrors);
+    }
+
+    // Compares the tokens and comments of bytes with those of chars, the lexical error included
+    static void compare(String name, PackedTokens chars, PackedTokens bytes) {
+        if (bytes.count() != chars.count() || bytes.commentCount() != chars.commentCount())
+            fail(name, "the bytes lex into " + bytes.count() + " tokens and " + bytes.commentCount()
+                    + " comments instead of " + chars.count() + " and " + chars.commentCount());
+        for (int i = 0; i < chars.count(); i++)
+            compare(name, "token " + i, chars.newToken(i), chars.lineMap(), bytes.newToken(i), bytes.lineMap());
+        for (int i = 0; i < chars.commentCount(); i++)
+            compare(name, "comment " + i, chars.newComment(i), chars.lineMap(), bytes.newComment(i), bytes.lineMap());
+        if (bytes.hasLexicalError() != chars.hasLexicalError())
+            fail(name, bytes.hasLexicalError() ? "the bytes have a lexical error" : "the bytes have no lexical error");
+        if (chars.hasLexicalError() && !bytes.lexicalError().getMessage().equals(chars.lexicalError().getMessage()))
+            fail(name, "the bytes report " + bytes.lexicalError().getMessage()
+                    + " instead of " + chars.lexicalError().getMessage());
+    }
+
+    static void compare(String name, String what, Token expected, LineMap expectedLines, Token actual,
+                        LineMap actualLines) {
+        String expectedPosition = position(expected, expectedLines);
+        String actualPosition = position(actual, actualLines);
+        if (actual.kind != expected.kind || !actual.image.equals(expected.image)
+                || !actualPosition.equals(expectedPosition))
+            fail(name, what + " of the bytes is " + MiniJavaParserConstants.tokenImage[actual.kind] + " '"
+                    + actual.image + "' at " + actualPosition + " instead of "
+                    + MiniJavaParserConstants.tokenImage[expected.kind] + " '" + expected.image + "' at "
+                    + expectedPosition);
+    }
+
+    // The lines and columns of the first and the last character of t
+    static String position(Token t, LineMap lines) {
+        String begin = lines.line(t.offset) + ":" + lines.column(t.offset);
+        return t.length == 0 ? begin : begin + "-" + lines.line(t.endOffset()) + ":" + lines.column(t.endOffset());
+    }
+
+    // The messages of the syntax errors, or of the lexical error, of the source of parser
+    static List<String> syntaxErrors(MiniJavaParser parser) {
+        parser.setErrorRecovery(true);
+        List<String> errors = new ArrayList<>();
+        try {
+            parser.Goal();
+        } catch (ParseException ex) {
+            // without a main class, the first error is thrown after the others are recorded
+        } catch (TokenMgrError ex) {
+            errors.add(ex.getMessage());
+        }
+        for (ParseException error : parser.getSyntaxErrors())
+            errors.add(error.getMessage());
+        return errors;
+    }
+
+    static void fail(String name, String message) {
+        throw new IllegalStateException(name + ": " + message);
+    }
+}
@@ -0,0 +1,24 @@
+class MainVars{
+    public static void main(String[] a){
+        int count;
+        boolean done;
+        Counter counter;
+        counter = new Counter();
+        count = counter.Init(3);
+        done = false;
+        while (!done) {
+            count = count - 1;
+            done = count < 1;
+        }
+        System.out.println(count);
+    }
+}
+
+class Counter {
+    int value;
+
+    public int Init(int start){
+        value = start;
+        return value;
+    }
+}
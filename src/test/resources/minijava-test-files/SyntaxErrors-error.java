@@ -0,0 +1,40 @@
+class SyntaxErrors{
+    public static void main(String[] a){
+        System.out.println(new Tree().Init(3));
+    }
+}
+
+class Tree {
+    int size ;
+    int ;                                //SE
+    public int Init(int s){
+        size = s + ;                     //SE
+        return size ;
+    }
+    public int Get( {                    //SE
+        return size ;
+    }
+    public int Size(){
+        return size ;
+    }
+//SE: Tree isn't closed
+
+class Broken extends {                   //SE
+    int x ;
+}
+
+class Node {
+    int value ;
+    public int Set(int v){
+        value = v ;
+        return true ;                    //TE
+    }
+}
+
+class Leaf extends Node {
+    public int Count(){
+        int c ;
+        c = 1 ;
+        while (c < 10)
+            c = c + 1 ;
+//SE: end of file in Count
@@ -0,0 +1,18 @@
+class Unicode{
+    public static void main(String[] a){
+	System.out.println(new Temperature().Init(/* °C */ 21)); // 21 °C ≈ 69 °F
+    }
+}
+
+// The comments of this source aren't ASCII, so the tokens after them on a line are at other
+// offsets in its UTF-8 bytes than in its chars: "é" is two bytes, "€" three and "𝄞" four (and two chars)
+class Temperature {
+    int celsius ;	/* °C */
+    int fahrenheit ;	/* °F */
+
+    /** Sets the temperature in °C, and returns it in °F: × 2 + 27, close to × 9 ÷ 5 + 32 */
+    public int Init(int c){
+	/* é */	celsius = c ; /* € */ fahrenheit = /* 𝄞 */ (c * 2) + 27 ;
+	/* 中文 */ return fahrenheit ;	// 𝄞𝄞	€
+    }
+}